@@ -0,0 +1,41 @@
+package benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * BenchmarkRunner class: runs the benchmarks with the usual JMH command line options (for example a regular
+ * expression of the benchmarks to run, or -p orderToM=2). The gc profiler is always added, so every benchmark reports
+ * its allocation rate next to its throughput, and the results are written as json to jmh-result.json unless another
+ * file (-rff) or format (-rf) is given, so that the numbers of two runs can be compared.
+ */
+public class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListWithParams()
+                || commandLineOptions.shouldListProfilers() || commandLineOptions.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        boolean hasGCProfiler = commandLineOptions.getProfilers().stream()
+                .anyMatch(profiler -> profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName()));
+        if (!hasGCProfiler) options.addProfiler(GCProfiler.class);
+        if (!commandLineOptions.getResultFormat().hasValue()) options.resultFormat(ResultFormatType.JSON);
+        if (!commandLineOptions.getResult().hasValue()) options.result(DEFAULT_RESULT_FILE);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import lyingAgents.model.Board;
+import lyingAgents.utilities.GameSetting;
+import lyingAgents.utilities.MiscFunc;
+import lyingAgents.utilities.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Point;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BoardBenchmark class: measures the path search on the board, for the chips of the initiator from the starting
+ * position to its goal position. Every operation uses the next fixed game setting.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    private Board[] boards;
+
+    private int[][] chips;
+
+    private Point[] goalLocations;
+
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        GameSetting[] settings = GameFixtures.createSettings();
+        Map<Integer, Point> goalPositionsDict = MiscFunc.makeGoalPositionDictionary();
+        boards = new Board[settings.length];
+        chips = new int[settings.length][];
+        goalLocations = new Point[settings.length];
+        for (int i = 0; i < settings.length; i++) {
+            boards[i] = new Board(GameFixtures.getRandomSource(i));
+            boards[i].makeBoard(settings[i].getBoard());
+            chips[i] = settings[i].getChipSets()[0];
+            goalLocations[i] = goalPositionsDict.get(settings[i].getGoalPositions()[0]);
+        }
+    }
+
+    @Benchmark
+    public int calculateScore() {
+        int i = nextSetting();
+        return boards[i].calculateScore(Settings.STARTING_POSITION, chips[i], Settings.STARTING_POSITION, goalLocations[i]);
+    }
+
+    @Benchmark
+    public boolean canReachGP() {
+        int i = nextSetting();
+        return boards[i].canReachGP(Settings.STARTING_POSITION, chips[i], goalLocations[i]);
+    }
+
+    private int nextSetting() {
+        int i = next;
+        next = (next + 1) % boards.length;
+        return i;
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import lyingAgents.model.Game;
+import lyingAgents.utilities.Chips;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChipsBenchmark class: measures the encoding of chip bins into an offer index and the decoding of an offer index into
+ * chip bins. One operation encodes or decodes all offers of the next fixed game setting.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ChipsBenchmark {
+
+    private int[][] binMaxChips;
+
+    /**
+     * The chip bins of every offer, by game setting
+     */
+    private int[][][] offerBins;
+
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        Game[] games = GameFixtures.createGames(0, 0, false, false);
+        binMaxChips = new int[games.length][];
+        offerBins = new int[games.length][][];
+        for (int i = 0; i < games.length; i++) {
+            binMaxChips[i] = games[i].getBinMaxChips().clone();
+            offerBins[i] = new int[games[i].getChipSpace().getNumberOfOffers()][];
+            for (int offer = 0; offer < offerBins[i].length; offer++) {
+                offerBins[i][offer] = Chips.getBins(offer, binMaxChips[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public void encode(Blackhole blackhole) {
+        int i = nextSetting();
+        for (int[] bins : offerBins[i]) {
+            blackhole.consume(Chips.getIndex(bins, binMaxChips[i]));
+        }
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        int i = nextSetting();
+        for (int offer = 0; offer < offerBins[i].length; offer++) {
+            blackhole.consume(Chips.getBins(offer, binMaxChips[i]));
+        }
+    }
+
+    private int nextSetting() {
+        int i = next;
+        next = (next + 1) % binMaxChips.length;
+        return i;
+    }
+}
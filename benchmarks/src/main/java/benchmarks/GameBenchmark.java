@@ -0,0 +1,61 @@
+package benchmarks;
+
+import lyingAgents.model.Game;
+import lyingAgents.utilities.GameSetting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameBenchmark class: measures a full negotiation, for every order of theory of mind of both agents, with and without
+ * messages (agents that can send messages can also lie). Every operation sets the next fixed game setting to the game
+ * (see SettingBenchmark for the cost of that alone), resets the random numbers of the agents and plays the negotiation
+ * until it ends. The agents keep what they learnt across operations, as they do across rounds of an experiment.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+    @Param({"0", "1", "2"})
+    public int orderToM;
+
+    @Param({"false", "true"})
+    public boolean canSendMessages;
+
+    private GameSetting[] settings;
+
+    private Game game;
+
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        settings = GameFixtures.createSettings();
+        game = GameFixtures.createGames(orderToM, orderToM, canSendMessages, canSendMessages)[0];
+    }
+
+    @Benchmark
+    public Game playTillEnd() {
+        int i = next;
+        next = (next + 1) % settings.length;
+        game.newGameSettings(settings[i]);
+        game.getInitiator().setRandomSource(GameFixtures.getRandomSource(i));
+        game.getResponder().setRandomSource(GameFixtures.getRandomSource(settings.length + i));
+        game.playTillEnd();
+        return game;
+    }
+}
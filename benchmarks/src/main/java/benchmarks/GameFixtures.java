@@ -0,0 +1,92 @@
+package benchmarks;
+
+import lyingAgents.model.Game;
+import lyingAgents.model.player.PlayerLying;
+import lyingAgents.utilities.GameSetting;
+import lyingAgents.utilities.RandomSource;
+import lyingAgents.utilities.Settings;
+
+/**
+ * GameFixtures class: the fixed game settings on which the benchmarks are run. The settings are generated from a fixed
+ * seed, so every run of the benchmarks uses the same boards, chips and goal positions, and the numbers of two runs can
+ * be compared.
+ */
+final class GameFixtures {
+
+    /**
+     * The seed of the game settings and of the random numbers of the agents
+     */
+    static final long SEED = 20230801L;
+
+    /**
+     * The number of game settings that a benchmark cycles through
+     */
+    static final int NUMBER_OF_SETTINGS = 16;
+
+    private GameFixtures() {
+    }
+
+    /**
+     * Generates the fixed game settings.
+     *
+     * @return The game settings
+     */
+    static GameSetting[] createSettings() {
+        GameSetting[] settings = new GameSetting[NUMBER_OF_SETTINGS];
+        for (int i = 0; i < NUMBER_OF_SETTINGS; i++) {
+            Game game = new Game(0, 0, Settings.STANDARD_LR, Settings.STANDARD_LR, false, false, false, false,
+                    getRandomSource(i));
+            settings[i] = game.getGameSetting();
+        }
+        return settings;
+    }
+
+    /**
+     * Makes a game for every fixed game setting, with the given agents. The games do not notify listeners and do not
+     * make decisions in parallel.
+     *
+     * @param initToM         The order of theory of mind of the initiator
+     * @param respToM         The order of theory of mind of the responder
+     * @param canLie          Whether both agents can lie
+     * @param canSendMessages Whether both agents can send messages
+     * @return The games, in the order of the game settings
+     */
+    static Game[] createGames(int initToM, int respToM, boolean canLie, boolean canSendMessages) {
+        GameSetting[] settings = createSettings();
+        Game[] games = new Game[settings.length];
+        for (int i = 0; i < settings.length; i++) {
+            games[i] = new Game(initToM, respToM, Settings.STANDARD_LR, Settings.STANDARD_LR, canLie, canLie,
+                    canSendMessages, canSendMessages, getRandomSource(i));
+            games[i].setSimulationOff();
+            games[i].setParallelDecisions(false);
+            games[i].newGameSettings(settings[i]);
+        }
+        return games;
+    }
+
+    /**
+     * Starts a new negotiation round for an agent in the current game setting of its game, and resets its random
+     * numbers, so that it makes the same decisions every time the round is started. Memoised values of the previous
+     * round are discarded.
+     *
+     * @param game   The game of the agent
+     * @param player The agent
+     * @param index  The index of the game setting, used for the seed of the random numbers
+     */
+    static void startRound(Game game, PlayerLying player, int index) {
+        PlayerLying partner = (player == game.getInitiator()) ? game.getResponder() : game.getInitiator();
+        player.initNegotiationRound(player.getInitialChips(), partner.getInitialChips(),
+                game.getUtilityFunction(game.getGoalPositionPlayer(player.getName())));
+        player.setRandomSource(getRandomSource(index));
+    }
+
+    /**
+     * Gives the random source of the game setting with the given index.
+     *
+     * @param index The index of the game setting
+     * @return The random source
+     */
+    static RandomSource getRandomSource(int index) {
+        return new RandomSource(RandomSource.mixSeed(SEED, index));
+    }
+}
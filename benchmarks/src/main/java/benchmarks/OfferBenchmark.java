@@ -0,0 +1,75 @@
+package benchmarks;
+
+import lyingAgents.model.Game;
+import lyingAgents.model.player.OfferType;
+import lyingAgents.model.player.PlayerLying;
+import lyingAgents.utilities.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OfferBenchmark class: measures the decision of the initiator on its first offer, for every order of theory of mind,
+ * with and without messages (agents that can send messages can also lie). Every operation starts a new negotiation
+ * round for the initiator in the next fixed game setting, so the expected responses that are memoised during a
+ * decision are not reused by the next operation; the cost of starting the round is included. The beliefs that the
+ * initiator changes by making its offer are restored after the offer, so every operation on a game setting makes the
+ * same decision.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class OfferBenchmark {
+
+    @Param({"0", "1", "2"})
+    public int orderToM;
+
+    @Param({"false", "true"})
+    public boolean canSendMessages;
+
+    private Game[] games;
+
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        games = GameFixtures.createGames(orderToM, orderToM, canSendMessages, canSendMessages);
+    }
+
+    @Benchmark
+    public List<OfferType> selectBestOffers() {
+        PlayerLying initiator = startRound();
+        return initiator.selectBestOffers(Settings.ID_NO_OFFER);
+    }
+
+    @Benchmark
+    public int makeOffer() {
+        PlayerLying initiator = startRound();
+        initiator.saveBeliefs();
+        int offer = initiator.makeOffer(Settings.ID_NO_OFFER);
+        initiator.restoreBeliefs();
+        return offer;
+    }
+
+    private PlayerLying startRound() {
+        int i = next;
+        next = (next + 1) % games.length;
+        PlayerLying initiator = games[i].getInitiator();
+        GameFixtures.startRound(games[i], initiator, i);
+        return initiator;
+    }
+}
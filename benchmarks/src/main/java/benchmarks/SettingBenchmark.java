@@ -0,0 +1,49 @@
+package benchmarks;
+
+import lyingAgents.model.Game;
+import lyingAgents.utilities.GameSetting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SettingBenchmark class: measures setting a new game setting to a game, which calculates the utility functions of all
+ * goal positions and the chip space of the setting (Game.calculateSetting) and starts a negotiation round for both
+ * (zero-order theory of mind) agents. Every operation sets the next fixed game setting.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SettingBenchmark {
+
+    private GameSetting[] settings;
+
+    private Game game;
+
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        settings = GameFixtures.createSettings();
+        game = GameFixtures.createGames(0, 0, false, false)[0];
+    }
+
+    @Benchmark
+    public Game calculateSetting() {
+        game.newGameSettings(settings[next]);
+        next = (next + 1) % settings.length;
+        return game;
+    }
+}
@@ -12,6 +12,7 @@ public class Main {
      */
     public static void main(String[] args) {
         Game game = new Game(2, 1, 0.5, 0.5, false, false, false, false);
+        game.setParallelDecisions(true);
         MainFrame main = new MainFrame(game);
         main.setLocationRelativeTo(null);
         main.setVisible(true);
@@ -2,9 +2,11 @@ package lyingAgents.model;
 
 import lyingAgents.utilities.Chips;
 import lyingAgents.utilities.MiscFunc;
+import lyingAgents.utilities.RandomSource;
 import lyingAgents.utilities.Settings;
 
 import java.awt.*;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -12,6 +14,16 @@ import java.util.List;
  */
 public class Board {
 
+    /**
+     * Marks a state of which the score has not been calculated yet
+     */
+    private static final int UNKNOWN_SCORE = Integer.MIN_VALUE;
+
+    /**
+     * The possible moves on the board
+     */
+    private static final List<Point> POSSIBLE_MOVES = Settings.getPossibleMoves();
+
     /**
      * the board as a matrix containing numbers as colors
      */
@@ -29,28 +41,34 @@ public class Board {
 
     /**
      * Constructs a random square board setting according to the specified parameters
+     *
+     * @param random The source of random numbers
      */
-    public Board() {
+    public Board(RandomSource random) {
         this.boardHeight = Settings.BOARD_HEIGHT;
         this.boardWidth = Settings.BOARD_WIDTH;
         this.board = new int[boardHeight][boardWidth];
-        initBoard();
+        initBoard(random);
     }
 
     /**
      * resets the board and initializes a new one.
+     *
+     * @param random The source of random numbers
      */
-    public void resetBoard() {
-        this.initBoard();
+    public void resetBoard(RandomSource random) {
+        this.initBoard(random);
     }
 
     /**
      * Initializes the board, that is, we give numbers to each tile corresponding to a color.
+     *
+     * @param random The source of random numbers
      */
-    private void initBoard() {
+    private void initBoard(RandomSource random) {
         for (int i = 0; i < boardHeight; i++) {
             for (int j = 0; j < boardWidth; j++) {
-                board[i][j] = (int) (Math.random() * Settings.CHIP_DIVERSITY);
+                board[i][j] = random.nextInt(Settings.CHIP_DIVERSITY);
             }
         }
     }
@@ -106,26 +124,53 @@ public class Board {
     /**
      * calculates the score from a current tile to a goal tile given some tokens
      *
-     * @param currLoc current location
-     * @param chips   the colored chips
+     * @param x       x-coordinate of the current location
+     * @param y       y-coordinate of the current location
+     * @param nrChips the number of chips left
      * @param goalLoc goal location
+     * @param goalDistanceStart manhattan distance from the start location to the goal location
      * @return the score corresponding to this tile
      */
-    private int calculateTileScore(Point currLoc, int[] chips, Point startLoc, Point goalLoc) {
+    private int calculateTileScore(int x, int y, int nrChips, Point goalLoc, int goalDistanceStart) {
         int score = 0, stepsTowardsGoal;
-        stepsTowardsGoal = MiscFunc.manhattanDistance(startLoc, goalLoc) - MiscFunc.manhattanDistance(currLoc, goalLoc);
+        stepsTowardsGoal = goalDistanceStart - (Math.abs(x - goalLoc.x) + Math.abs(y - goalLoc.y));
 
-        if (currLoc.equals(goalLoc))
+        if ((x == goalLoc.x) && (y == goalLoc.y))
             score += Settings.SCORE_GOAL;
         score += Settings.SCORE_STEP * Math.max(0, stepsTowardsGoal);
-        score += Settings.SCORE_SURPLUS * Chips.getNrChips(chips);
+        score += Settings.SCORE_SURPLUS * nrChips;
         return score;
     }
 
+    /**
+     * Calculates an upper bound on the score that can be obtained from a tile with a number of chips left. The agent
+     * can make at most nrChips moves, and each move brings it at most one step closer to the goal location.
+     * The bound assumes that the score constants in Settings are non-negative.
+     *
+     * @param x       x-coordinate of the current location
+     * @param y       y-coordinate of the current location
+     * @param nrChips the number of chips left
+     * @param goalLoc goal location
+     * @param goalDistanceStart manhattan distance from the start location to the goal location
+     * @return an upper bound on the score
+     */
+    private int calculateMaxScore(int x, int y, int nrChips, Point goalLoc, int goalDistanceStart) {
+        int goalDistance = Math.abs(x - goalLoc.x) + Math.abs(y - goalLoc.y);
+        int maxScore = Integer.MIN_VALUE, score;
+        for (int moves = 0; moves <= Math.min(nrChips, goalDistance); moves++) {
+            score = Settings.SCORE_STEP * Math.max(0, goalDistanceStart - goalDistance + moves) +
+                    Settings.SCORE_SURPLUS * (nrChips - moves);
+            if (moves == goalDistance) score += Settings.SCORE_GOAL;
+            maxScore = Math.max(maxScore, score);
+        }
+        return maxScore;
+    }
 
     /**
      * Calculates the score that an agent obtains when starting on the currLoc and having goalLoc as goal location
-     * with chips as his colored chips
+     * with chips as his colored chips.
+     * The search memoizes the best score of every (location, remaining chips) state, and skips moves that cannot
+     * improve on the best score found so far.
      *
      * @param currLoc starting location
      * @param chips   the colored chips
@@ -133,31 +178,64 @@ public class Board {
      * @return the score as an integer
      */
     public int calculateScore(Point currLoc, int[] chips, Point startLoc, Point goalLoc) {
+        int[] chipCodeStep = new int[Settings.CHIP_DIVERSITY];
+        int chipCode = 0, numChipCodes = 1;
+        for (int i = 0; i < Settings.CHIP_DIVERSITY; i++) {
+            chipCodeStep[i] = numChipCodes;
+            chipCode += chips[i] * numChipCodes;
+            numChipCodes *= (chips[i] + 1);
+        }
+
+        int[] memo = new int[boardHeight * boardWidth * numChipCodes];
+        Arrays.fill(memo, UNKNOWN_SCORE);
+        return searchScore(currLoc.x, currLoc.y, chips.clone(), chipCode, Chips.getNrChips(chips), chipCodeStep,
+                memo, goalLoc, MiscFunc.manhattanDistance(startLoc, goalLoc));
+    }
+
+    /**
+     * Recursive search for the highest score from a location with some chips left.
+     *
+     * @param x                 x-coordinate of the current location
+     * @param y                 y-coordinate of the current location
+     * @param chips             the chips left, which are changed during the search but restored afterwards
+     * @param chipCode          the chips left as an index, with chipCodeStep as step size per color
+     * @param nrChips           the number of chips left
+     * @param chipCodeStep      the step size of the chip index per color
+     * @param memo              the best score per (location, chipCode) state, or UNKNOWN_SCORE if not yet known
+     * @param goalLoc           goal location
+     * @param goalDistanceStart manhattan distance from the start location to the goal location
+     * @return the highest score that can be obtained
+     */
+    private int searchScore(int x, int y, int[] chips, int chipCode, int nrChips, int[] chipCodeStep, int[] memo,
+                            Point goalLoc, int goalDistanceStart) {
         // Calculate current score.
-        int currScore = this.calculateTileScore(currLoc, chips, startLoc, goalLoc);
+        int currScore = calculateTileScore(x, y, nrChips, goalLoc, goalDistanceStart);
 
-        // TODO: Could be optimised by providing number of chips as a parameter?
-        if (currLoc.equals(goalLoc) || (Chips.getNrChips(chips) == 0)) {
+        if (((x == goalLoc.x) && (y == goalLoc.y)) || (nrChips == 0)) {
             // Goal location reached or no chips to move anymore
             return currScore;
         }
 
-        int tileColor, highestScore = currScore;
-        Point newLoc;
-        int[] newTokens;
-        List<Point> possibleMoves = Settings.getPossibleMoves();
-        for (Point move : possibleMoves) {
-            newLoc = new Point(currLoc.x + move.x, currLoc.y + move.y);
-            if ((0 <= newLoc.x) && (newLoc.x < boardWidth) && (0 <= newLoc.y) && (newLoc.y < boardHeight)) {
-                tileColor = this.getTileColorNumber(newLoc);
-                if (chips[tileColor] > 0) {
-                    // Move is allowed
-                    newTokens = chips.clone();
-                    newTokens[tileColor] -= 1;
-                    highestScore = Math.max(highestScore, calculateScore(newLoc, newTokens, startLoc, goalLoc));
+        int state = chipCode * boardHeight * boardWidth + y * boardWidth + x;
+        if (memo[state] != UNKNOWN_SCORE) return memo[state];
+
+        int newX, newY, tileColor, highestScore = currScore;
+        for (Point move : POSSIBLE_MOVES) {
+            newX = x + move.x;
+            newY = y + move.y;
+            if ((0 <= newX) && (newX < boardWidth) && (0 <= newY) && (newY < boardHeight)) {
+                tileColor = board[newY][newX];
+                if ((chips[tileColor] > 0) &&
+                        (calculateMaxScore(newX, newY, nrChips - 1, goalLoc, goalDistanceStart) > highestScore)) {
+                    // Move is allowed and might improve the score
+                    chips[tileColor] -= 1;
+                    highestScore = Math.max(highestScore, searchScore(newX, newY, chips, chipCode - chipCodeStep[tileColor],
+                            nrChips - 1, chipCodeStep, memo, goalLoc, goalDistanceStart));
+                    chips[tileColor] += 1;
                 }
             }
         }
+        memo[state] = highestScore;
         return highestScore;
     }
 
@@ -0,0 +1,144 @@
+package lyingAgents.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DecisionCounters class: counts the calls to the methods that make up the decisions of the agents, per top-level agent
+ * (initiator or responder) and per order of theory of mind of the (nested) model that makes the call. The counters are
+ * striped (LongAdder), so the copies of an agent that calculate the values of offers in parallel add to the same
+ * counters without contention.
+ * <p>
+ * Counting is switched on or off for all games that are made afterwards with setEnabled; a game that does not count has
+ * no counters, so the agents only check for null. The counters of a game are reset at the start of every negotiation.
+ */
+public class DecisionCounters {
+
+    /**
+     * The counted methods
+     */
+    public enum Method {
+        GET_VALUE("getValue"),
+        SELECT_BEST_OFFERS("selectBestOffers"),
+        GET_LOCATION_VALUE("getLocationValue"),
+        SAVE_BELIEFS("saveBeliefs"),
+        RESTORE_BELIEFS("restoreBeliefs"),
+        UPDATE_LOCATION_BELIEFS("updateLocationBeliefs");
+
+        private final String methodName;
+
+        Method(String methodName) {
+            this.methodName = methodName;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+    }
+
+    /**
+     * The number of orders of theory of mind that are counted, orders 0 up to and including 2
+     */
+    public static final int NUM_ORDERS_TOM = 3;
+
+    private static final String[] AGENT_PREFIXES = {"init", "resp"};
+
+    private static final Method[] METHODS = Method.values();
+
+    /**
+     * True if games that are made from now on count the calls
+     */
+    private static volatile boolean enabled = false;
+
+    /**
+     * The counters per agent (first index), order of theory of mind (second index) and method (third index)
+     */
+    private final LongAdder[][][] counters = new LongAdder[2][NUM_ORDERS_TOM][METHODS.length];
+
+    public DecisionCounters() {
+        for (LongAdder[][] agentCounters : counters) {
+            for (LongAdder[] orderCounters : agentCounters) {
+                for (int method = 0; method < orderCounters.length; method++) {
+                    orderCounters[method] = new LongAdder();
+                }
+            }
+        }
+    }
+
+    /**
+     * Switches counting on or off for the games that are made from now on.
+     *
+     * @param enabled True if the games count the calls, false otherwise
+     */
+    public static void setEnabled(boolean enabled) {
+        DecisionCounters.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts a call.
+     *
+     * @param agentIdx The index of the top-level agent, 0 for the initiator and 1 for the responder
+     * @param orderToM The order of theory of mind of the (nested) model that makes the call
+     * @param method   The called method
+     */
+    public void increment(int agentIdx, int orderToM, Method method) {
+        counters[agentIdx][orderToM][method.ordinal()].increment();
+    }
+
+    /**
+     * Resets all counters. Must not be called while calls are counted.
+     */
+    public void reset() {
+        for (LongAdder[][] agentCounters : counters) {
+            for (LongAdder[] orderCounters : agentCounters) {
+                for (LongAdder counter : orderCounters) {
+                    counter.reset();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives the current counts, in the order of getCounterNames().
+     *
+     * @return The counts
+     */
+    public long[] getCounts() {
+        long[] counts = new long[getNumberOfCounters()];
+        int i = 0;
+        for (LongAdder[][] agentCounters : counters) {
+            for (LongAdder[] orderCounters : agentCounters) {
+                for (LongAdder counter : orderCounters) {
+                    counts[i++] = counter.sum();
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Gives the names of the counters, such as init_tom2_getValue for the calls to getValue of the models of order 2 of
+     * the initiator.
+     *
+     * @return The names of the counters
+     */
+    public static String[] getCounterNames() {
+        String[] names = new String[getNumberOfCounters()];
+        int i = 0;
+        for (String agentPrefix : AGENT_PREFIXES) {
+            for (int order = 0; order < NUM_ORDERS_TOM; order++) {
+                for (Method method : METHODS) {
+                    names[i++] = agentPrefix + "_tom" + order + "_" + method.getMethodName();
+                }
+            }
+        }
+        return names;
+    }
+
+    public static int getNumberOfCounters() {
+        return AGENT_PREFIXES.length * NUM_ORDERS_TOM * METHODS.length;
+    }
+}
@@ -0,0 +1,115 @@
+package lyingAgents.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * DecisionLatencies class: the durations of the decisions of the agents (the calls to makeOffer in Game.step), in a
+ * LatencyHistogram per kind of agent: the order of theory of mind, whether the agent can lie, whether it can send
+ * messages, and whether it received a message right before the decision.
+ * <p>
+ * An instance is not safe to use from several threads; every thread records into its own instance, and the instances
+ * are merged afterwards.
+ */
+public class DecisionLatencies {
+
+    /**
+     * The number of orders of theory of mind that are recorded, orders 0 up to and including 2
+     */
+    public static final int NUM_ORDERS_TOM = 3;
+
+    private static final String HEADER = "tom,canLie,canSendMessages,messageReceived,count,"
+            + "mean_us,p50_us,p90_us,p99_us,max_us,buckets_ns";
+
+    /**
+     * The histograms by key (see getKey), null for kinds of agents without decisions
+     */
+    private final LatencyHistogram[] histograms = new LatencyHistogram[NUM_ORDERS_TOM * 8];
+
+    /**
+     * Records the duration of a decision.
+     *
+     * @param orderToM        The order of theory of mind of the agent
+     * @param canLie          True if the agent can lie
+     * @param canSendMessages True if the agent can send messages
+     * @param messageReceived True if the agent received a message right before the decision
+     * @param nanos           The duration of the decision in nanoseconds
+     */
+    public void record(int orderToM, boolean canLie, boolean canSendMessages, boolean messageReceived, long nanos) {
+        int key = getKey(orderToM, canLie, canSendMessages, messageReceived);
+        if (histograms[key] == null) histograms[key] = new LatencyHistogram();
+        histograms[key].record(nanos);
+    }
+
+    /**
+     * Adds the durations of other latencies to these latencies.
+     *
+     * @param other The latencies to add
+     */
+    public void merge(DecisionLatencies other) {
+        for (int key = 0; key < histograms.length; key++) {
+            if (other.histograms[key] == null) continue;
+            if (histograms[key] == null) histograms[key] = new LatencyHistogram();
+            histograms[key].merge(other.histograms[key]);
+        }
+    }
+
+    /**
+     * Gives the histogram of a kind of agent.
+     *
+     * @param orderToM        The order of theory of mind of the agent
+     * @param canLie          True if the agent can lie
+     * @param canSendMessages True if the agent can send messages
+     * @param messageReceived True if the agent received a message right before the decision
+     * @return The histogram, or null if there are no decisions of this kind of agent
+     */
+    public LatencyHistogram getHistogram(int orderToM, boolean canLie, boolean canSendMessages, boolean messageReceived) {
+        return histograms[getKey(orderToM, canLie, canSendMessages, messageReceived)];
+    }
+
+    /**
+     * Writes a csv file with a line per kind of agent with decisions: the number of decisions, the mean, p50, p90, p99
+     * and maximum duration in microseconds, and the counts of the buckets of the histogram (see
+     * LatencyHistogram.getBucketsString()).
+     *
+     * @param file The file
+     * @throws IOException If writing fails
+     */
+    public void write(File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.println(HEADER);
+            for (int orderToM = 0; orderToM < NUM_ORDERS_TOM; orderToM++) {
+                for (boolean canLie : new boolean[]{false, true}) {
+                    for (boolean canSendMessages : new boolean[]{false, true}) {
+                        for (boolean messageReceived : new boolean[]{false, true}) {
+                            LatencyHistogram histogram = getHistogram(orderToM, canLie, canSendMessages, messageReceived);
+                            if (histogram == null) continue;
+                            writer.println(orderToM + "," + canLie + "," + canSendMessages + "," + messageReceived + ","
+                                    + histogram.getCount() + ","
+                                    + toMicros(histogram.getMean()) + ","
+                                    + toMicros(histogram.getQuantile(0.5)) + ","
+                                    + toMicros(histogram.getQuantile(0.9)) + ","
+                                    + toMicros(histogram.getQuantile(0.99)) + ","
+                                    + toMicros(histogram.getMax()) + ","
+                                    + histogram.getBucketsString());
+                        }
+                    }
+                }
+            }
+            if (writer.checkError()) throw new IOException("Could not write " + file);
+        }
+    }
+
+    private static String toMicros(double nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+    }
+
+    private static int getKey(int orderToM, boolean canLie, boolean canSendMessages, boolean messageReceived) {
+        return ((orderToM * 2 + (canLie ? 1 : 0)) * 2 + (canSendMessages ? 1 : 0)) * 2 + (messageReceived ? 1 : 0);
+    }
+}
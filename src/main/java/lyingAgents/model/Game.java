@@ -23,9 +23,19 @@ public class Game {
     private int[][] utilityFunctions;
 
     /**
-     * Array that contains the complementary offer
+     * components of the utility functions (goal reached, steps towards goal, chips left over) for each possible goal location
      */
-    private int[] flipArray;
+    private UtilityComponents[] utilityComponents;
+
+    /**
+     * utility of each offer for each possible goal location, at index offer * number of goal positions + goal location
+     */
+    private int[] utilitiesPerOffer;
+
+    /**
+     * Lookup tables for the offers in the current game setting
+     */
+    private ChipSpace chipSpace;
 
     /**
      * A 2-dimensional array which contains two goal positions for the initiator and the responder
@@ -92,13 +102,54 @@ public class Game {
      */
     private int GLMessageSent;
 
+    /**
+     * The moves of the current negotiation: every offer from the perspective of the agent that made it, and
+     * Settings.ID_ACCEPT_OFFER or Settings.ID_WITHDRAW_NEGOTIATION for the move that ended the negotiation
+     */
+    private final List<Integer> offerHistory = new ArrayList<>();
+
+    /**
+     * The location message sent with every move of offerHistory, Settings.ID_NO_LOCATION if no message was sent
+     */
+    private final List<Integer> messageHistory = new ArrayList<>();
+
+    /**
+     * True if the agents calculate the values of their offers in parallel, false otherwise
+     */
+    private boolean parallelDecisions = false;
+
+    /**
+     * The source of the random numbers of this game and its agents
+     */
+    private final RandomSource random;
+
+    /**
+     * The counters of the calls of the current negotiation, null if the calls are not counted (see DecisionCounters)
+     */
+    private final DecisionCounters decisionCounters;
+
+    /**
+     * The durations of the decisions of the agents, null if they are not recorded
+     */
+    private DecisionLatencies decisionLatencies;
 
     /**
-     * Constructor
+     * Constructor for a game with an arbitrary random seed
      */
     public Game(int initToM, int respToM, double initLR, double respLR, boolean initCanLie, boolean respCanLie, boolean initCanSendMessages, boolean respCanSendMessages) {
+        this(initToM, respToM, initLR, respLR, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages, new RandomSource());
+    }
+
+    /**
+     * Constructor for a game that draws all random numbers from the given random source. Two games with random sources
+     * with the same seed are played in exactly the same way.
+     */
+    public Game(int initToM, int respToM, double initLR, double respLR, boolean initCanLie, boolean respCanLie, boolean initCanSendMessages, boolean respCanSendMessages,
+                RandomSource random) {
+        this.random = random;
         this.listeners = new HashSet<>();
-        this.board = new Board();
+        this.decisionCounters = DecisionCounters.isEnabled() ? new DecisionCounters() : null;
+        this.board = new Board(random);
         this.goalPositionsDict = MiscFunc.makeGoalPositionDictionary();
         initFullyNewGame(initToM, respToM, initLR, respLR, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages);
     }
@@ -107,7 +158,7 @@ public class Game {
      * Initializes a fully new game, where the agents are also fully reset
      */
     public void initFullyNewGame(int initToM, int respToM, double initLR, double respLR, boolean initCanLie, boolean respCanLie, boolean initCanSendMessages, boolean respCanSendMessages) {
-        this.board.resetBoard();
+        this.board.resetBoard(random);
         GameSetting gameSetting = generateNewNegotiationSetting();
         int chipSetInitiator = Chips.getIndex(gameSetting.getChipSets()[0], binMaxChips);
         int chipSetResponder = Chips.getIndex(gameSetting.getChipSets()[1], binMaxChips);
@@ -116,6 +167,8 @@ public class Game {
                 chipSetInitiator, chipSetResponder, utilityFunctions[goalPositions[0]], initCanLie, initCanSendMessages);
         this.responder = new PlayerLying(Settings.RESPONDER_NAME, this, respToM, respLR,
                 chipSetResponder, chipSetInitiator, utilityFunctions[goalPositions[1]], respCanLie, respCanSendMessages);
+        this.initiator.setParallelDecisions(parallelDecisions);
+        this.responder.setParallelDecisions(parallelDecisions);
         if (simulationOn) notifyListenersNewGame();
     }
 
@@ -123,7 +176,7 @@ public class Game {
      * Initializes a new round of play, where agents keep learnt behaviour across games.
      */
     public void newRound() {
-        this.board.resetBoard();
+        this.board.resetBoard(random);
         GameSetting gameSetting = generateNewNegotiationSetting();
         int chipSetInitiator = Chips.getIndex(gameSetting.getChipSets()[0], binMaxChips);
         int chipSetResponder = Chips.getIndex(gameSetting.getChipSets()[1], binMaxChips);
@@ -163,49 +216,30 @@ public class Game {
      */
     private void calculateSetting(GameSetting gameSetting) {
 
-        int numIndexCodes, pos;
+        int pos;
         int[][] chipsSets = gameSetting.getChipSets();
         this.binMaxChips = Chips.makeNewChipBin();
 
-        numIndexCodes = 1;
         for (int i = 0; i < Settings.CHIP_DIVERSITY; i++) {
             this.binMaxChips[i] = chipsSets[0][i] + chipsSets[1][i];
-            numIndexCodes *= (this.binMaxChips[i] + 1);
         }
 
-        Point goalPosition;
-        utilityFunctions = new int[this.goalPositionsDict.size()][numIndexCodes];
+        UtilityTableBuilder utilityTableBuilder = new UtilityTableBuilder(board, binMaxChips, Settings.STARTING_POSITION);
+        utilityFunctions = new int[this.goalPositionsDict.size()][];
+        utilityComponents = new UtilityComponents[this.goalPositionsDict.size()];
         for (Map.Entry<Integer, Point> entry : goalPositionsDict.entrySet()) {
             pos = entry.getKey();
-            goalPosition = entry.getValue();
-            calcUtilityFunction(utilityFunctions[pos], goalPosition);
-        }
-        makeNewFlipArrayOffer(numIndexCodes);
-    }
-
-    /**
-     * Calculates the utility function for a given goal position
-     *
-     * @param utilityFunction The utility function to write to
-     * @param goalPosition    The goal position
-     */
-    private void calcUtilityFunction(int[] utilityFunction, Point goalPosition) {
-        int[] offer;
-        for (int offerIdx = 0; offerIdx < utilityFunction.length; offerIdx++) {
-            offer = Chips.getBins(offerIdx, binMaxChips);
-            utilityFunction[offerIdx] = board.calculateScore(Settings.STARTING_POSITION, offer, Settings.STARTING_POSITION, goalPosition);
+            utilityComponents[pos] = utilityTableBuilder.getUtilityComponents(entry.getValue());
+            utilityFunctions[pos] = utilityComponents[pos].getUtilityFunction(Settings.SCORE_GOAL, Settings.SCORE_STEP, Settings.SCORE_SURPLUS);
         }
-    }
+        chipSpace = new ChipSpace(binMaxChips);
 
-    /**
-     * Makes a new array to get the flipped offer of a given offer
-     *
-     * @param numIndexCodes The offer that is needed to be flipped
-     */
-    private void makeNewFlipArrayOffer(int numIndexCodes) {
-        flipArray = new int[numIndexCodes];
-        for (int offer = 0; offer < numIndexCodes; offer++) {
-            flipArray[offer] = Chips.invert(offer, binMaxChips);
+        int numGoals = utilityFunctions.length;
+        utilitiesPerOffer = new int[chipSpace.getNumberOfOffers() * numGoals];
+        for (int offer = 0; offer < chipSpace.getNumberOfOffers(); offer++) {
+            for (pos = 0; pos < numGoals; pos++) {
+                utilitiesPerOffer[offer * numGoals + pos] = utilityFunctions[pos][offer];
+            }
         }
     }
 
@@ -219,7 +253,7 @@ public class Game {
         for (int agent = 0; agent < 2; agent++) {
             newChips[agent] = Chips.makeNewChipBin();
             for (int numChip = 0; numChip < Settings.CHIPS_PER_PLAYER; numChip++) {
-                newChip = (int) (Math.random() * Settings.CHIP_DIVERSITY);
+                newChip = random.nextInt(Settings.CHIP_DIVERSITY);
                 newChips[agent][newChip] += 1;
             }
         }
@@ -257,6 +291,9 @@ public class Game {
         this.lastOfferMade = Settings.ID_NO_OFFER;
         this.totalNrOffersMade = 0;
         this.turn = Settings.INITIATOR_NAME;
+        this.offerHistory.clear();
+        this.messageHistory.clear();
+        if (decisionCounters != null) decisionCounters.reset();
     }
 
     //////////////////////////////
@@ -272,19 +309,20 @@ public class Game {
 
         if (isGameFinished) return;
 
-        if (turn.equals(Settings.INITIATOR_NAME)) {
-            if (isMessageSend) {
-                this.initiator.receiveGLMessage(GLMessageSent);
-                isMessageSend = false;
-            }
-            tmpNewOffer = this.initiator.makeOffer(lastOfferMade);
-        } else {
-            if (isMessageSend) {
-                this.responder.receiveGLMessage(GLMessageSent);
-                isMessageSend = false;
-            }
-            tmpNewOffer = this.responder.makeOffer(lastOfferMade);
+        PlayerLying player = turn.equals(Settings.INITIATOR_NAME) ? this.initiator : this.responder;
+        boolean messageReceived = isMessageSend;
+        if (isMessageSend) {
+            player.receiveGLMessage(GLMessageSent);
+            isMessageSend = false;
+        }
+        long startTime = (decisionLatencies == null) ? 0 : System.nanoTime();
+        tmpNewOffer = player.makeOffer(lastOfferMade);
+        if (decisionLatencies != null) {
+            decisionLatencies.record(player.getOrderToM(), player.isCanMakeFalseStatements(), player.isCanSendMessages(),
+                    messageReceived, System.nanoTime() - startTime);
         }
+        offerHistory.add(tmpNewOffer);
+        messageHistory.add(isMessageSend ? GLMessageSent : Settings.ID_NO_LOCATION);
 
 
         if (tmpNewOffer == Settings.ID_WITHDRAW_NEGOTIATION) { // Negotiation terminated
@@ -370,7 +408,7 @@ public class Game {
      */
     public int flipOffer(int offer) {
         if (offer < 0) offer = 0;
-        return flipArray[offer];
+        return chipSpace.getComplement(offer);
     }
 
     /**
@@ -378,7 +416,7 @@ public class Game {
      */
     private void generateGoalPositions() {
         for (int i = 0; i < goalPositions.length; i++) {
-            goalPositions[i] = (int) (Math.random() * goalPositionsDict.size());
+            goalPositions[i] = random.nextInt(goalPositionsDict.size());
         }
     }
 
@@ -513,6 +551,26 @@ public class Game {
         return this.totalNrOffersMade;
     }
 
+    /**
+     * Gets the moves of the current negotiation, in the order in which they were made. The initiator makes the first
+     * move, after which the agents take turns.
+     *
+     * @return The offers made, each from the perspective of the agent that made it, ending with
+     * Settings.ID_ACCEPT_OFFER or Settings.ID_WITHDRAW_NEGOTIATION if the negotiation ended that way
+     */
+    public List<Integer> getOfferHistory() {
+        return Collections.unmodifiableList(offerHistory);
+    }
+
+    /**
+     * Gets the location messages sent with the moves of the current negotiation (see getOfferHistory).
+     *
+     * @return For every move, the location sent, or Settings.ID_NO_LOCATION if no message was sent
+     */
+    public List<Integer> getMessageHistory() {
+        return Collections.unmodifiableList(messageHistory);
+    }
+
     /**
      * gets the size of board
      *
@@ -546,6 +604,15 @@ public class Game {
         }
     }
 
+    /**
+     * Getter for the source of random numbers of this game
+     *
+     * @return the random source of this game
+     */
+    public RandomSource getRandomSource() {
+        return this.random;
+    }
+
     /**
      * Getter for board
      *
@@ -583,6 +650,40 @@ public class Game {
         return utilityFunctions[i];
     }
 
+    /**
+     * Returns the utility table (offer -> utility) for goal location i with other score constants than the ones in
+     * Settings. The table is computed from the stored utility components, so the board does not have to be searched again.
+     *
+     * @param i            goal location
+     * @param scoreGoal    score for reaching the goal
+     * @param scoreStep    score per step towards the goal
+     * @param scoreSurplus score per chip left over
+     * @return utility table (offer -> utility) for goal location i
+     */
+    public int[] getUtilityFunction(int i, int scoreGoal, int scoreStep, int scoreSurplus) {
+        return utilityComponents[i].getUtilityFunction(scoreGoal, scoreStep, scoreSurplus);
+    }
+
+    /**
+     * Returns the utility of each offer for each goal location, at index offer * number of goal positions + goal location.
+     * Used to evaluate an offer for all goal locations at once.
+     *
+     * @return utility of each offer for each goal location
+     */
+    public int[] getUtilitiesPerOffer() {
+        return utilitiesPerOffer;
+    }
+
+    /**
+     * Returns the components of the utility table for goal location i
+     *
+     * @param i goal location
+     * @return utility components for goal location i
+     */
+    public UtilityComponents getUtilityComponents(int i) {
+        return utilityComponents[i];
+    }
+
     /**
      * Gets the number of possible goal positions
      *
@@ -608,6 +709,15 @@ public class Game {
         return this.binMaxChips;
     }
 
+    /**
+     * Gets the lookup tables for the offers in the current game setting
+     *
+     * @return The chip space of the current game setting
+     */
+    public ChipSpace getChipSpace() {
+        return this.chipSpace;
+    }
+
     /**
      * Gets the goal position of the player
      *
@@ -651,6 +761,36 @@ public class Game {
         simulationOn = false;
     }
 
+    /**
+     * Sets whether the agents calculate the values of their offers in parallel. This setting is kept when the agents
+     * are fully reset.
+     *
+     * @param parallelDecisions True if the agents make decisions in parallel, false otherwise
+     */
+    public void setParallelDecisions(boolean parallelDecisions) {
+        this.parallelDecisions = parallelDecisions;
+        this.initiator.setParallelDecisions(parallelDecisions);
+        this.responder.setParallelDecisions(parallelDecisions);
+    }
+
+    /**
+     * Gets the counters of the calls of the current negotiation
+     *
+     * @return The counters, or null if this game does not count the calls
+     */
+    public DecisionCounters getDecisionCounters() {
+        return decisionCounters;
+    }
+
+    /**
+     * Sets where the durations of the decisions of the agents are recorded.
+     *
+     * @param decisionLatencies The latencies to which the durations are added, or null to stop recording
+     */
+    public void setDecisionLatencies(DecisionLatencies decisionLatencies) {
+        this.decisionLatencies = decisionLatencies;
+    }
+
     /**
      * Checks if the simulation (visuals) is on or off
      *
@@ -0,0 +1,128 @@
+package lyingAgents.model;
+
+/**
+ * LatencyHistogram class: counts durations in nanoseconds in a fixed number of buckets on a log scale. Every power of
+ * two is split into SUB_BUCKETS buckets of equal width, so a bucket is at most 1 / SUB_BUCKETS of its lower bound wide,
+ * and durations below SUB_BUCKETS nanoseconds have a bucket each. The bucket of a duration is found with a few bit
+ * operations, and two histograms are merged by adding the counts of their buckets. The count, the sum and the maximum
+ * are kept exactly.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * The number of buckets per power of two
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of buckets, enough for every positive long
+     */
+    private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] buckets = new long[NUM_BUCKETS];
+
+    private long count = 0;
+
+    private long sum = 0;
+
+    private long max = 0;
+
+    /**
+     * Counts a duration.
+     *
+     * @param nanos The duration in nanoseconds, negative durations are counted as 0
+     */
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        buckets[getBucket(nanos)]++;
+        count++;
+        sum += nanos;
+        max = Math.max(max, nanos);
+    }
+
+    /**
+     * Adds the durations of another histogram to this histogram.
+     *
+     * @param other The histogram to add
+     */
+    public void merge(LatencyHistogram other) {
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            buckets[bucket] += other.buckets[bucket];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gives the mean duration.
+     *
+     * @return The mean in nanoseconds, NaN if there are no durations
+     */
+    public double getMean() {
+        return (count == 0) ? Double.NaN : (double) sum / count;
+    }
+
+    /**
+     * Estimates a quantile by the middle of its bucket, but not above the maximum.
+     *
+     * @param quantile The quantile, from 0 to 1
+     * @return The estimated quantile in nanoseconds, NaN if there are no durations
+     */
+    public double getQuantile(double quantile) {
+        if (count == 0) return Double.NaN;
+        long rank = (long) Math.floor(quantile * (count - 1));
+
+        long seen = 0;
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            seen += buckets[bucket];
+            if (seen > rank) {
+                return Math.min(getLowerBound(bucket) + (getBucketWidth(bucket) - 1) / 2.0, max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gives the buckets with at least one duration as lowerBound:count pairs, separated by semicolons.
+     *
+     * @return The buckets
+     */
+    public String getBucketsString() {
+        StringBuilder builder = new StringBuilder();
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            if (buckets[bucket] == 0) continue;
+            if (builder.length() > 0) builder.append(';');
+            builder.append(getLowerBound(bucket)).append(':').append(buckets[bucket]);
+        }
+        return builder.toString();
+    }
+
+    private static int getBucket(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long getLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    private static long getBucketWidth(int bucket) {
+        if (bucket < SUB_BUCKETS) return 1;
+        return 1L << (bucket / SUB_BUCKETS - 1);
+    }
+}
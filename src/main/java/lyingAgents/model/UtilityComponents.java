@@ -0,0 +1,119 @@
+package lyingAgents.model;
+
+/**
+ * UtilityComponents class: the score of every offer for one goal location, split into the components that are
+ * weighted by the score constants: whether the goal is reached, the number of steps towards the goal and the number of
+ * chips left over. An offer can have several best endpoints depending on the weights, so all endpoints of an offer
+ * that are not dominated in every component by another endpoint are kept. The utility function for any non-negative
+ * weights is then the highest weighted sum over these endpoints.
+ */
+public class UtilityComponents {
+
+    /**
+     * The endpoints of offer i are stored at indices offsets[i] (inclusive) to offsets[i + 1] (exclusive)
+     */
+    private final int[] offsets;
+
+    /**
+     * 1 if the endpoint is the goal location, 0 otherwise
+     */
+    private final int[] goalReached;
+
+    /**
+     * Number of steps towards the goal location at the endpoint
+     */
+    private final int[] stepsTowardsGoal;
+
+    /**
+     * Number of chips left over at the endpoint
+     */
+    private final int[] leftoverChips;
+
+    /**
+     * Constructor
+     *
+     * @param offsets          Start index of the endpoints of each offer, with the total number of endpoints at the end
+     * @param goalReached      1 if the endpoint is the goal location, 0 otherwise
+     * @param stepsTowardsGoal Number of steps towards the goal location at the endpoint
+     * @param leftoverChips    Number of chips left over at the endpoint
+     */
+    UtilityComponents(int[] offsets, int[] goalReached, int[] stepsTowardsGoal, int[] leftoverChips) {
+        this.offsets = offsets;
+        this.goalReached = goalReached;
+        this.stepsTowardsGoal = stepsTowardsGoal;
+        this.leftoverChips = leftoverChips;
+    }
+
+    /**
+     * Computes the utility function (utility as a function of offer) for the given score constants.
+     *
+     * @param scoreGoal    Score for reaching the goal
+     * @param scoreStep    Score per step towards the goal
+     * @param scoreSurplus Score per chip left over
+     * @return The utility function
+     */
+    public int[] getUtilityFunction(int scoreGoal, int scoreStep, int scoreSurplus) {
+        int[] utilityFunction = new int[getNumberOfOffers()];
+        int score;
+        for (int offer = 0; offer < utilityFunction.length; offer++) {
+            score = Integer.MIN_VALUE;
+            for (int i = offsets[offer]; i < offsets[offer + 1]; i++) {
+                score = Math.max(score, scoreGoal * goalReached[i] + scoreStep * stepsTowardsGoal[i] + scoreSurplus * leftoverChips[i]);
+            }
+            utilityFunction[offer] = score;
+        }
+        return utilityFunction;
+    }
+
+    /**
+     * Gets the number of offers
+     *
+     * @return The number of offers
+     */
+    public int getNumberOfOffers() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Gets the number of best endpoints of an offer
+     *
+     * @param offer The offer
+     * @return The number of endpoints
+     */
+    public int getNumberOfEndpoints(int offer) {
+        return offsets[offer + 1] - offsets[offer];
+    }
+
+    /**
+     * Gets whether an endpoint of an offer is the goal location
+     *
+     * @param offer    The offer
+     * @param endpoint The index of the endpoint
+     * @return 1 if the goal is reached, 0 otherwise
+     */
+    public int getGoalReached(int offer, int endpoint) {
+        return goalReached[offsets[offer] + endpoint];
+    }
+
+    /**
+     * Gets the number of steps towards the goal location at an endpoint of an offer
+     *
+     * @param offer    The offer
+     * @param endpoint The index of the endpoint
+     * @return The number of steps towards the goal
+     */
+    public int getStepsTowardsGoal(int offer, int endpoint) {
+        return stepsTowardsGoal[offsets[offer] + endpoint];
+    }
+
+    /**
+     * Gets the number of chips left over at an endpoint of an offer
+     *
+     * @param offer    The offer
+     * @param endpoint The index of the endpoint
+     * @return The number of chips left over
+     */
+    public int getLeftoverChips(int offer, int endpoint) {
+        return leftoverChips[offsets[offer] + endpoint];
+    }
+}
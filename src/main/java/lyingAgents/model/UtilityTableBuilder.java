@@ -0,0 +1,209 @@
+package lyingAgents.model;
+
+import lyingAgents.utilities.MiscFunc;
+import lyingAgents.utilities.Settings;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * UtilityTableBuilder class: builds the utility functions of all goal locations for a board and a set of chips in the
+ * game. Instead of searching the board for every combination of goal location and offer, it computes once which tiles
+ * can be reached with every subset of the chips in the game by dynamic programming over the offers. The utility of
+ * every goal location then follows from the same result.
+ */
+public class UtilityTableBuilder {
+
+    /**
+     * Marks a tile that cannot be reached with any subset of an offer
+     */
+    private static final int UNREACHABLE = -1;
+
+    /**
+     * The board of the game
+     */
+    private final Board board;
+
+    /**
+     * The starting location of the agents
+     */
+    private final Point startLoc;
+
+    /**
+     * Number of offers (subsets of the chips in the game)
+     */
+    private final int numOffers;
+
+    /**
+     * For every offer (first index) and tile (second index, y * width + x) the highest number of chips that can be
+     * left over when the agent ends its path on that tile, or UNREACHABLE if the tile cannot be reached.
+     */
+    private final int[][] maxLeftoverChips;
+
+    /**
+     * Constructor. Computes the tiles that can be reached with each offer.
+     *
+     * @param board       The board of the game
+     * @param binMaxChips All chips in the game as a bin
+     * @param startLoc    The starting location of the agents
+     */
+    public UtilityTableBuilder(Board board, int[] binMaxChips, Point startLoc) {
+        this.board = board;
+        this.startLoc = startLoc;
+
+        int numOffers = 1;
+        int[] offerStep = new int[Settings.CHIP_DIVERSITY];
+        for (int i = 0; i < Settings.CHIP_DIVERSITY; i++) {
+            offerStep[i] = numOffers;
+            numOffers *= (binMaxChips[i] + 1);
+        }
+        this.numOffers = numOffers;
+        this.maxLeftoverChips = new int[numOffers][board.getBoardHeight() * board.getBoardWidth()];
+        calculateReachableTiles(binMaxChips, offerStep);
+    }
+
+    /**
+     * Computes maxLeftoverChips. A tile can be reached with exactly the chips of an offer if a neighbouring tile can be
+     * reached with the offer minus one chip of the color of the tile. Offers are visited in increasing index order, so
+     * every offer with one chip less has been visited before.
+     *
+     * @param binMaxChips All chips in the game as a bin
+     * @param offerStep   Step size of the offer index per color
+     */
+    private void calculateReachableTiles(int[] binMaxChips, int[] offerStep) {
+        int width = board.getBoardWidth(), height = board.getBoardHeight();
+        int[][] tiles = board.getBoard();
+        int[] offer = new int[Settings.CHIP_DIVERSITY];
+        boolean[][] reachable = new boolean[numOffers][width * height];
+        int tile, color, previousOffer, leftover;
+
+        reachable[0][startLoc.y * width + startLoc.x] = true;
+        for (int offerIdx = 0; offerIdx < numOffers; offerIdx++) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    tile = y * width + x;
+                    color = tiles[y][x];
+                    if ((offerIdx > 0) && (offer[color] > 0)) {
+                        // Reached by a move onto this tile, paying one chip of its color
+                        previousOffer = offerIdx - offerStep[color];
+                        reachable[offerIdx][tile] = ((x > 0) && reachable[previousOffer][tile - 1]) ||
+                                ((x < width - 1) && reachable[previousOffer][tile + 1]) ||
+                                ((y > 0) && reachable[previousOffer][tile - width]) ||
+                                ((y < height - 1) && reachable[previousOffer][tile + width]);
+                    }
+
+                    // Either all chips are used, or some chip is left over
+                    leftover = reachable[offerIdx][tile] ? 0 : UNREACHABLE;
+                    for (int c = 0; c < Settings.CHIP_DIVERSITY; c++) {
+                        if ((offer[c] > 0) && (maxLeftoverChips[offerIdx - offerStep[c]][tile] != UNREACHABLE)) {
+                            leftover = Math.max(leftover, maxLeftoverChips[offerIdx - offerStep[c]][tile] + 1);
+                        }
+                    }
+                    maxLeftoverChips[offerIdx][tile] = leftover;
+                }
+            }
+            nextOffer(offer, binMaxChips);
+        }
+    }
+
+    /**
+     * Changes offer (as bins) to the offer with the next index.
+     *
+     * @param offer       The offer as bins
+     * @param binMaxChips All chips in the game as a bin
+     */
+    private static void nextOffer(int[] offer, int[] binMaxChips) {
+        for (int i = 0; i < Settings.CHIP_DIVERSITY; i++) {
+            if (offer[i] < binMaxChips[i]) {
+                offer[i]++;
+                return;
+            }
+            offer[i] = 0;
+        }
+    }
+
+    /**
+     * Gets the utility function (utility as a function of offer) for a goal location. The utility of an offer is the
+     * highest score of any tile that can be reached with the offer. This equals Board.calculateScore from the starting
+     * location as long as the score constants in Settings are non-negative.
+     *
+     * @param goalLoc The goal location
+     * @return The utility function for the goal location
+     */
+    public int[] getUtilityFunction(Point goalLoc) {
+        return getUtilityComponents(goalLoc).getUtilityFunction(Settings.SCORE_GOAL, Settings.SCORE_STEP, Settings.SCORE_SURPLUS);
+    }
+
+    /**
+     * Gets the components of the utility function for a goal location. For every offer, the reachable tiles whose
+     * (goal reached, steps towards goal, chips left over) are not dominated by another reachable tile are kept.
+     *
+     * @param goalLoc The goal location
+     * @return The utility components for the goal location
+     */
+    public UtilityComponents getUtilityComponents(Point goalLoc) {
+        int width = board.getBoardWidth(), height = board.getBoardHeight();
+        int goalDistanceStart = MiscFunc.manhattanDistance(startLoc, goalLoc);
+        int[] tileGoalReached = new int[width * height];
+        int[] tileSteps = new int[width * height];
+        int[] endpointGoalReached = new int[width * height];
+        int[] endpointSteps = new int[width * height];
+        int[] endpointLeftover = new int[width * height];
+        int[] offsets = new int[numOffers + 1];
+        int[] goalReached = new int[numOffers], steps = new int[numOffers], leftover = new int[numOffers];
+        int tile, numEndpoints, size = 0;
+        boolean dominated;
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                tile = y * width + x;
+                tileSteps[tile] = Math.max(0, goalDistanceStart - (Math.abs(x - goalLoc.x) + Math.abs(y - goalLoc.y)));
+                tileGoalReached[tile] = ((x == goalLoc.x) && (y == goalLoc.y)) ? 1 : 0;
+            }
+        }
+
+        for (int offerIdx = 0; offerIdx < numOffers; offerIdx++) {
+            numEndpoints = 0;
+            for (tile = 0; tile < tileSteps.length; tile++) {
+                if (maxLeftoverChips[offerIdx][tile] == UNREACHABLE) continue;
+
+                dominated = false;
+                for (int i = 0; (i < numEndpoints) && !dominated; i++) {
+                    dominated = (endpointGoalReached[i] >= tileGoalReached[tile]) && (endpointSteps[i] >= tileSteps[tile]) &&
+                            (endpointLeftover[i] >= maxLeftoverChips[offerIdx][tile]);
+                }
+                if (dominated) continue;
+
+                // Remove the endpoints that are dominated by this tile
+                for (int i = numEndpoints - 1; i >= 0; i--) {
+                    if ((endpointGoalReached[i] <= tileGoalReached[tile]) && (endpointSteps[i] <= tileSteps[tile]) &&
+                            (endpointLeftover[i] <= maxLeftoverChips[offerIdx][tile])) {
+                        numEndpoints--;
+                        endpointGoalReached[i] = endpointGoalReached[numEndpoints];
+                        endpointSteps[i] = endpointSteps[numEndpoints];
+                        endpointLeftover[i] = endpointLeftover[numEndpoints];
+                    }
+                }
+                endpointGoalReached[numEndpoints] = tileGoalReached[tile];
+                endpointSteps[numEndpoints] = tileSteps[tile];
+                endpointLeftover[numEndpoints] = maxLeftoverChips[offerIdx][tile];
+                numEndpoints++;
+            }
+
+            offsets[offerIdx] = size;
+            if (size + numEndpoints > goalReached.length) {
+                int capacity = Math.max(2 * goalReached.length, size + numEndpoints);
+                goalReached = Arrays.copyOf(goalReached, capacity);
+                steps = Arrays.copyOf(steps, capacity);
+                leftover = Arrays.copyOf(leftover, capacity);
+            }
+            System.arraycopy(endpointGoalReached, 0, goalReached, size, numEndpoints);
+            System.arraycopy(endpointSteps, 0, steps, size, numEndpoints);
+            System.arraycopy(endpointLeftover, 0, leftover, size, numEndpoints);
+            size += numEndpoints;
+        }
+        offsets[numOffers] = size;
+        return new UtilityComponents(offsets, Arrays.copyOf(goalReached, size), Arrays.copyOf(steps, size),
+                Arrays.copyOf(leftover, size));
+    }
+}
@@ -0,0 +1,111 @@
+package lyingAgents.model.player;
+
+import java.util.Arrays;
+
+/**
+ * BeliefJournal class: an undo journal for the beliefs of an agent. Instead of copying all beliefs when they are
+ * saved, only the cells that are changed afterwards are recorded together with their old value. Restoring the beliefs
+ * writes the old values back in reverse order.
+ */
+class BeliefJournal {
+
+    /**
+     * Initial number of entries the journal can hold before it grows
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The arrays (double[] or int[]) of which a cell has been changed
+     */
+    private Object[] arrays = new Object[INITIAL_CAPACITY];
+
+    /**
+     * The indices of the changed cells
+     */
+    private int[] indices = new int[INITIAL_CAPACITY];
+
+    /**
+     * The values of the changed cells before they were changed
+     */
+    private double[] oldValues = new double[INITIAL_CAPACITY];
+
+    /**
+     * Number of entries in the journal
+     */
+    private int size = 0;
+
+    /**
+     * Stack with the size of the journal at every call to mark
+     */
+    private int[] marks = new int[4];
+
+    /**
+     * Number of marks on the stack
+     */
+    private int depth = 0;
+
+    /**
+     * Marks the current state of the beliefs, so that it can be restored with rollback.
+     */
+    void mark() {
+        if (depth == marks.length) marks = Arrays.copyOf(marks, 2 * depth);
+        marks[depth++] = size;
+    }
+
+    /**
+     * Restores all recorded cells to their value at the last mark and removes that mark.
+     */
+    void rollback() {
+        int mark = marks[--depth];
+        for (int i = size - 1; i >= mark; i--) {
+            if (arrays[i] instanceof double[]) {
+                ((double[]) arrays[i])[indices[i]] = oldValues[i];
+            } else {
+                ((int[]) arrays[i])[indices[i]] = (int) oldValues[i];
+            }
+            arrays[i] = null;
+        }
+        size = mark;
+    }
+
+    /**
+     * Removes all entries and marks from the journal.
+     */
+    void clear() {
+        Arrays.fill(arrays, 0, size, null);
+        size = 0;
+        depth = 0;
+    }
+
+    /**
+     * Records the current value of a cell before it is changed. Nothing is recorded when the beliefs are not saved.
+     *
+     * @param array The array of the cell
+     * @param index The index of the cell
+     */
+    void record(double[] array, int index) {
+        if (depth > 0) add(array, index, array[index]);
+    }
+
+    /**
+     * Records the current value of a cell before it is changed. Nothing is recorded when the beliefs are not saved.
+     *
+     * @param array The array of the cell
+     * @param index The index of the cell
+     */
+    void record(int[] array, int index) {
+        if (depth > 0) add(array, index, array[index]);
+    }
+
+    private void add(Object array, int index, double oldValue) {
+        if (size == arrays.length) {
+            arrays = Arrays.copyOf(arrays, 2 * size);
+            indices = Arrays.copyOf(indices, 2 * size);
+            oldValues = Arrays.copyOf(oldValues, 2 * size);
+        }
+        arrays[size] = array;
+        indices[size] = index;
+        oldValues[size] = oldValue;
+        size++;
+    }
+}
@@ -0,0 +1,88 @@
+package lyingAgents.model.player;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * OfferValuesTask class: calculates the values of a range of offers in a fork-join pool. The range is split until it
+ * is small enough, after which a copy of the agent calculates the values of the offers in that range.
+ */
+class OfferValuesTask extends RecursiveAction {
+
+    /**
+     * Serializable version
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The agent that makes the decision. This agent is only copied, never changed. Tasks are never serialized, and an
+     * agent is not serializable.
+     */
+    private final transient PlayerToM agent;
+
+    /**
+     * The location message sent together with the offers
+     */
+    private final int locMessage;
+
+    /**
+     * Seed of the decision, from which the random source of each offer is seeded
+     */
+    private final long decisionSeed;
+
+    /**
+     * Array to write the values of the offers to
+     */
+    private final double[] values;
+
+    /**
+     * First offer of the range (inclusive)
+     */
+    private final int from;
+
+    /**
+     * Last offer of the range (exclusive)
+     */
+    private final int to;
+
+    /**
+     * The maximum number of offers evaluated by one copy of the agent
+     */
+    private final int chunkSize;
+
+    /**
+     * Constructor
+     *
+     * @param agent        The agent that makes the decision
+     * @param locMessage   The location message sent together with the offers
+     * @param decisionSeed Seed of the decision, from which the random source of each offer is seeded
+     * @param values       Array to write the values of the offers to
+     * @param from         First offer of the range (inclusive)
+     * @param to           Last offer of the range (exclusive)
+     */
+    OfferValuesTask(PlayerToM agent, int locMessage, long decisionSeed, double[] values, int from, int to) {
+        this(agent, locMessage, decisionSeed, values, from, to,
+                Math.max(1, (to - from) / (4 * ForkJoinPool.getCommonPoolParallelism())));
+    }
+
+    private OfferValuesTask(PlayerToM agent, int locMessage, long decisionSeed, double[] values, int from, int to, int chunkSize) {
+        this.agent = agent;
+        this.locMessage = locMessage;
+        this.decisionSeed = decisionSeed;
+        this.values = values;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= chunkSize) {
+            new PlayerToM(agent).getValues(locMessage, decisionSeed, values, from, to);
+        } else {
+            int mid = (from + to) >>> 1;
+            invokeAll(new OfferValuesTask(agent, locMessage, decisionSeed, values, from, mid, chunkSize),
+                    new OfferValuesTask(agent, locMessage, decisionSeed, values, mid, to, chunkSize));
+        }
+    }
+}
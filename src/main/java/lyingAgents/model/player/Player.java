@@ -1,10 +1,13 @@
 package lyingAgents.model.player;
 
 import lyingAgents.utilities.Chips;
+import lyingAgents.utilities.ChipSpace;
+import lyingAgents.utilities.RandomSource;
 import lyingAgents.model.Game;
 import lyingAgents.utilities.Settings;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -38,7 +41,6 @@ public abstract class Player {
      * This field is essentially to be able to learn across games.
      */
     private double[][] beliefsOfferType;
-    private double[][][] beliefsOfferTypeSaved;
 
     /**
      * ABSOLUTE (offer accepted count)
@@ -48,7 +50,6 @@ public abstract class Player {
      * This field is essentially to be able to learn across games.
      */
     private int[][] countBeliefsOfferType;
-    private int[][][] countBeliefsOfferTypeSaved;
 
     /**
      * ABSOLUTE (total offers count)
@@ -58,19 +59,42 @@ public abstract class Player {
      * This field is essentially to be able to learn across games.
      */
     private int[][] countTotalOfferType;
-    private int[][][] countTotalOfferTypeSaved;
 
     /**
      * Initialized before each negotiation with the beliefsOfferType. In each negotiation,
      * the belief of each offer is adapted.
      * This field is essentially used to be able to learn from observations in current game.
+     * The decreases of the belief due to the colors in an offer are not included, see colorExponent.
      */
     private double[] beliefOffer;
 
     /**
-     * To save the original beliefs when going to reason about possible offers.
+     * Number of times the belief of offers that assign value (second index) chips of color (first index) to this agent
+     * has been multiplied by (1 - learningSpeed) in the current negotiation. The belief of an offer is beliefOffer
+     * times (1 - learningSpeed) to the power of the sum of these exponents over the colors of the offer.
      */
-    private double[][] beliefOfferSaved;
+    private int[][] colorExponent;
+
+    /**
+     * Powers of (1 - learningSpeed), extended when a higher power is needed. A power is kept as decreaseFactors times 2
+     * to the power decreaseScales, so that high powers do not underflow to 0.
+     */
+    private double[] decreaseFactors;
+
+    /**
+     * Binary exponents of the powers of (1 - learningSpeed), see decreaseFactors
+     */
+    private int[] decreaseScales;
+
+    /**
+     * Smallest value of decreaseFactors; a smaller factor is multiplied by 2 to the power DECREASE_RESCALE
+     */
+    private static final double MIN_DECREASE_FACTOR = 0x1p-500;
+
+    /**
+     * Binary exponent by which a factor smaller than MIN_DECREASE_FACTOR is rescaled
+     */
+    private static final int DECREASE_RESCALE = 500;
 
     /**
      * Learning speed of the agent. Used to update beliefs about location and offers.
@@ -87,6 +111,11 @@ public abstract class Player {
      */
     protected final Game game;
 
+    /**
+     * Source of the random numbers of this agent
+     */
+    protected RandomSource random;
+
     /**
      * List of messages that this agent sends
      */
@@ -98,9 +127,10 @@ public abstract class Player {
     private int messageCnt = 0;
 
     /**
-     * Field to count the number of saves for beliefs.
+     * Journal of the changes to the beliefs since they were saved, used to restore the original beliefs after
+     * reasoning about possible offers.
      */
-    protected int saveCount = 0;
+    protected final BeliefJournal journal = new BeliefJournal();
 
     /**
      * The initial point of this player
@@ -118,6 +148,7 @@ public abstract class Player {
     public Player(String namePlayer, Game game, double learningSpeed, int chipsSelf, int[] utilityFunction, boolean hasZeroOrderBeliefs) {
         this.name = namePlayer;
         this.game = game;
+        this.random = game.getRandomSource();
         this.learningSpeed = learningSpeed;
 
         this.messages = new ArrayList<>();
@@ -127,9 +158,57 @@ public abstract class Player {
         this.hasZeroOrderBeliefs = hasZeroOrderBeliefs;
         if (hasZeroOrderBeliefs) {
             beliefOffer = new double[utilityFunction.length];
-            beliefOfferSaved = new double[Settings.SAVE_NUMBER][beliefOffer.length];
             setupNewBeliefs();
+            initColorExponents();
+        }
+    }
+
+    /**
+     * Copy constructor. Makes a deep copy of the beliefs of the given player, so that the copy can reason about
+     * offers independently of the original player.
+     *
+     * @param other The player to copy
+     */
+    protected Player(Player other) {
+        this.name = other.name;
+        this.game = other.game;
+        this.random = other.random;
+        this.learningSpeed = other.learningSpeed;
+
+        this.messages = new ArrayList<>();
+        this.chips = other.chips;
+        this.utilityFunction = other.utilityFunction;
+        this.initialChips = other.initialChips;
+        this.hasZeroOrderBeliefs = other.hasZeroOrderBeliefs;
+        if (hasZeroOrderBeliefs) {
+            beliefOffer = other.beliefOffer.clone();
+            colorExponent = copyOf(other.colorExponent);
+            decreaseFactors = other.decreaseFactors.clone();
+            decreaseScales = other.decreaseScales.clone();
+            if (BELIEF_TYPE_IS_ABSOLUTE) {
+                countBeliefsOfferType = copyOf(other.countBeliefsOfferType);
+                countTotalOfferType = copyOf(other.countTotalOfferType);
+            } else {
+                beliefsOfferType = new double[other.beliefsOfferType.length][];
+                for (int i = 0; i < beliefsOfferType.length; i++) {
+                    beliefsOfferType[i] = other.beliefsOfferType[i].clone();
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes a deep copy of a matrix
+     *
+     * @param matrix The matrix to copy
+     * @return The copy of the matrix
+     */
+    private static int[][] copyOf(int[][] matrix) {
+        int[][] copy = new int[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            copy[i] = matrix[i].clone();
         }
+        return copy;
     }
 
     /**
@@ -139,9 +218,7 @@ public abstract class Player {
         int i, j, nrPossibleChips = Settings.CHIPS_PER_PLAYER * 2 + 1;
         if (BELIEF_TYPE_IS_ABSOLUTE) {
             countBeliefsOfferType = new int[nrPossibleChips][nrPossibleChips];
-            countBeliefsOfferTypeSaved = new int[Settings.SAVE_NUMBER][nrPossibleChips][nrPossibleChips];
             countTotalOfferType = new int[nrPossibleChips][nrPossibleChips];
-            countTotalOfferTypeSaved = new int[Settings.SAVE_NUMBER][nrPossibleChips][nrPossibleChips];
             // Initialize beliefs to 5 positive encounters to make sure the agent's experience doesn't crash immediately to disbelief
             for (i = 0; i < nrPossibleChips; i++) {
                 for (j = 0; j < nrPossibleChips; j++) {
@@ -151,7 +228,6 @@ public abstract class Player {
             }
         } else {
             beliefsOfferType = new double[nrPossibleChips][nrPossibleChips];
-            beliefsOfferTypeSaved = new double[Settings.SAVE_NUMBER][nrPossibleChips][nrPossibleChips];
             for (i = 0; i < nrPossibleChips; i++) {
                 for (j = 0; j < nrPossibleChips; j++) {
                     beliefsOfferType[i][j] = 1.0;
@@ -174,19 +250,106 @@ public abstract class Player {
     public void initNegotiationRound(int chipsSelf, int chipsOther, int[] utilityFunction) {
         this.messages = new ArrayList<>();
         this.messageCnt = 0;
-        this.saveCount = 0;
+        this.journal.clear();
         this.chips = chipsSelf;
         this.utilityFunction = utilityFunction.clone();
         this.initialChips = chipsSelf;
 
         if (hasZeroOrderBeliefs) {
             beliefOffer = new double[utilityFunction.length];
-            beliefOfferSaved = new double[Settings.SAVE_NUMBER][beliefOffer.length];
 
             // Beliefs about specific colors are reset
             for (int i = 0; i < utilityFunction.length; i++) {
                 beliefOffer[i] = getBeliefOfferType(i);
             }
+            initColorExponents();
+        }
+    }
+
+    /**
+     * Resets the exponents of the color beliefs for the chips in the current game setting.
+     */
+    private void initColorExponents() {
+        int[] binMaxChips = game.getBinMaxChips();
+        colorExponent = new int[Settings.CHIP_DIVERSITY][];
+        for (int color = 0; color < Settings.CHIP_DIVERSITY; color++) {
+            colorExponent[color] = new int[binMaxChips[color] + 1];
+        }
+        if (decreaseFactors == null) initDecreaseFactors();
+    }
+
+    /**
+     * Resets the powers of (1 - learningSpeed)
+     */
+    private void initDecreaseFactors() {
+        decreaseFactors = new double[Settings.CHIP_DIVERSITY * (Settings.CHIPS_PER_PLAYER + 1)];
+        decreaseScales = new int[decreaseFactors.length];
+        decreaseFactors[0] = 1.0;
+        fillDecreaseFactors(1);
+    }
+
+    /**
+     * Computes the powers of (1 - learningSpeed) from the power from onwards, each from the previous one. Rescaling
+     * by a power of 2 is exact, so a power is the same as the product of the previous powers as long as that product
+     * does not underflow.
+     *
+     * @param from The first power that is computed
+     */
+    private void fillDecreaseFactors(int from) {
+        for (int k = from; k < decreaseFactors.length; k++) {
+            decreaseFactors[k] = decreaseFactors[k - 1] * (1 - learningSpeed);
+            decreaseScales[k] = decreaseScales[k - 1];
+            if (decreaseFactors[k] < MIN_DECREASE_FACTOR) {
+                decreaseFactors[k] = Math.scalb(decreaseFactors[k], DECREASE_RESCALE);
+                decreaseScales[k] -= DECREASE_RESCALE;
+            }
+        }
+    }
+
+    /**
+     * Multiplies a belief by (1 - learningSpeed) to the power exponent
+     *
+     * @param belief   The belief
+     * @param exponent The exponent
+     * @return The decreased belief
+     */
+    private double decreaseBelief(double belief, int exponent) {
+        if (exponent >= decreaseFactors.length) {
+            int k = decreaseFactors.length;
+            decreaseFactors = Arrays.copyOf(decreaseFactors, Math.max(2 * k, exponent + 1));
+            decreaseScales = Arrays.copyOf(decreaseScales, decreaseFactors.length);
+            fillDecreaseFactors(k);
+        }
+        return Math.scalb(belief * decreaseFactors[exponent], decreaseScales[exponent]);
+    }
+
+    /**
+     * Gets the belief that an offer will be accepted, including the decreases due to the colors in the offer.
+     *
+     * @param offer The offer
+     * @return The belief that the offer will be accepted
+     */
+    double getBeliefOffer(int offer) {
+        ChipSpace chipSpace = game.getChipSpace();
+        int exponent = 0;
+        for (int color = 0; color < Settings.CHIP_DIVERSITY; color++) {
+            exponent += colorExponent[color][chipSpace.getChipCount(offer, color)];
+        }
+        if (exponent == 0) return beliefOffer[offer];
+        return decreaseBelief(beliefOffer[offer], exponent);
+    }
+
+    /**
+     * Multiplies the belief of all offers that assign at least minChips chips of a color to this agent by
+     * (1 - learningSpeed), and records the old exponents in the journal.
+     *
+     * @param color    The color
+     * @param minChips The minimum number of chips of this color
+     */
+    private void decreaseColorBelief(int color, int minChips) {
+        for (int value = minChips; value < colorExponent[color].length; value++) {
+            journal.record(colorExponent[color], value);
+            colorExponent[color][value]++;
         }
     }
 
@@ -199,9 +362,8 @@ public abstract class Player {
      * @return The belief of the offer being accepted.
      */
     private double getBeliefOfferType(int offerToSelf) {
-        int[] diff = Chips.getDifference(chips, offerToSelf, game.getBinMaxChips());
-        int pos = Chips.getPositiveAmount(diff);
-        int neg = Chips.getNegativeAmount(diff);
+        int pos = game.getChipSpace().getPositiveDifference(chips, offerToSelf);
+        int neg = game.getChipSpace().getNegativeDifference(chips, offerToSelf);
         double retVal;
         if (BELIEF_TYPE_IS_ABSOLUTE) {
             retVal = ((double) countBeliefsOfferType[pos][neg]) / countTotalOfferType[pos][neg];
@@ -234,43 +396,29 @@ public abstract class Player {
 
     /**
      * Stores the current beliefs for later retrieval.
-     * Used for prediction using a "fictitious play"-like structure
+     * Used for prediction using a "fictitious play"-like structure.
+     * Only the beliefs that are changed afterwards are recorded in the journal.
      */
     protected void saveBeliefs() {
-        if (beliefOffer != null) {
-            beliefOfferSaved[saveCount] = beliefOffer.clone();
-            if (BELIEF_TYPE_IS_ABSOLUTE) {
-                for (int i = 0; i < countBeliefsOfferType.length; i++) {
-                    countBeliefsOfferTypeSaved[saveCount][i] = countBeliefsOfferType[i].clone();
-                    countTotalOfferTypeSaved[saveCount][i] = countTotalOfferType[i].clone();
-                }
-
-            } else {
-                beliefsOfferTypeSaved[saveCount] = beliefsOfferType.clone();
-            }
-        }
-        saveCount++;
+        journal.mark();
     }
 
     /**
-     * Restores previously stored beliefs
+     * Restores previously stored beliefs by undoing all changes recorded in the journal since the last save.
      */
     protected void restoreBeliefs() {
-        saveCount--;
-        if (beliefOffer != null) {
-            beliefOffer = beliefOfferSaved[saveCount].clone();
-            if (BELIEF_TYPE_IS_ABSOLUTE) {
-                for (int i = 0; i < countBeliefsOfferType.length; i++) {
-                    countBeliefsOfferType[i] = countBeliefsOfferTypeSaved[saveCount][i].clone();
-                    countTotalOfferType[i] = countTotalOfferTypeSaved[saveCount][i].clone();
-                }
+        journal.rollback();
+    }
 
-            } else {
-                for (int i = 0; i < beliefsOfferType.length; i++) {
-                    beliefsOfferType[i] = beliefsOfferTypeSaved[saveCount][i].clone();
-                }
-            }
-        }
+    /**
+     * Sets the belief that an offer will be accepted and records the old belief in the journal.
+     *
+     * @param offer  The offer
+     * @param belief The new belief
+     */
+    private void setBeliefOffer(int offer, double belief) {
+        journal.record(beliefOffer, offer);
+        beliefOffer[offer] = belief;
     }
 
     /**
@@ -281,12 +429,13 @@ public abstract class Player {
      */
     private void decreaseOfferTypeBelief(int offerToSelf) {
         int pos, neg;
-        int[] diff = Chips.getDifference(chips, offerToSelf, game.getBinMaxChips());
-        pos = Chips.getPositiveAmount(diff);
-        neg = Chips.getNegativeAmount(diff);
+        pos = game.getChipSpace().getPositiveDifference(chips, offerToSelf);
+        neg = game.getChipSpace().getNegativeDifference(chips, offerToSelf);
         if (BELIEF_TYPE_IS_ABSOLUTE) {
+            journal.record(countTotalOfferType[pos], neg);
             countTotalOfferType[pos][neg]++;
         } else {
+            journal.record(beliefsOfferType[pos], neg);
             beliefsOfferType[pos][neg] *= (1 - learningSpeed);
         }
     }
@@ -299,13 +448,17 @@ public abstract class Player {
      */
     private void increaseOfferTypeBelief(int offerToSelf, boolean revokeRejection) {
         int pos, neg;
-        int[] diff = Chips.getDifference(chips, offerToSelf, game.getBinMaxChips());
-        pos = Chips.getPositiveAmount(diff);
-        neg = Chips.getNegativeAmount(diff);
+        pos = game.getChipSpace().getPositiveDifference(chips, offerToSelf);
+        neg = game.getChipSpace().getNegativeDifference(chips, offerToSelf);
         if (BELIEF_TYPE_IS_ABSOLUTE) {
-            if (!revokeRejection) countTotalOfferType[pos][neg]++;
+            if (!revokeRejection) {
+                journal.record(countTotalOfferType[pos], neg);
+                countTotalOfferType[pos][neg]++;
+            }
+            journal.record(countBeliefsOfferType[pos], neg);
             countBeliefsOfferType[pos][neg]++;
         } else {
+            journal.record(beliefsOfferType[pos], neg);
             beliefsOfferType[pos][neg] = beliefsOfferType[pos][neg] * (1 - learningSpeed) + learningSpeed;
         }
     }
@@ -316,20 +469,12 @@ public abstract class Player {
      * @param offerToSelf The new set of chips that has been offered.
      */
     private void decreaseColorBeliefRejected(int offerToSelf) {
-        int i, j;
-        int[] newOwnBins = Chips.getBins(offerToSelf, game.getBinMaxChips());
-        int[] curOffer;
-        for (i = 0; i < beliefOffer.length; i++) {
-            // curOffer represents chips that agent wants himself
-            curOffer = Chips.getBins(i, game.getBinMaxChips());
-            for (j = 0; j < Settings.CHIP_DIVERSITY; j++) {
-                if (curOffer[j] >= newOwnBins[j]) {
-                    // curOffer demands at least as much chips of color j
-                    // as the offer offerToSelf of the trading partner.
-                    // It's likely to be rejected as well
-                    beliefOffer[i] *= (1 - learningSpeed);
-                }
-            }
+        ChipSpace chipSpace = game.getChipSpace();
+        for (int j = 0; j < Settings.CHIP_DIVERSITY; j++) {
+            // Offers that demand at least as much chips of color j
+            // as the offer offerToSelf of the trading partner
+            // are likely to be rejected as well
+            decreaseColorBelief(j, chipSpace.getChipCount(offerToSelf, j));
         }
     }
 
@@ -340,30 +485,20 @@ public abstract class Player {
      * @param offerToSelf The offer assigned to this agent
      */
     private void decreaseColorBeliefReceived(int offerToSelf) {
-        int i, j;
-        int[] newOwnBins = Chips.getBins(offerToSelf, game.getBinMaxChips());
-        int[] curOffer;
-        for (i = 0; i < beliefOffer.length; i++) {
-            // curOffer represents offer to agent wants himself
-            curOffer = Chips.getBins(i, game.getBinMaxChips());
-            for (j = 0; j < Settings.CHIP_DIVERSITY; j++) {
-                if (curOffer[j] > newOwnBins[j]) {
-                    // curOffer demands more chips of color j than the
-                    // offer offerToSelf of the trading partner.
-                    // It's less likely to be accepted.
-                    beliefOffer[i] *= (1 - learningSpeed);
-                }
-            }
+        ChipSpace chipSpace = game.getChipSpace();
+        for (int j = 0; j < Settings.CHIP_DIVERSITY; j++) {
+            // Offers that demand more chips of color j than the
+            // offer offerToSelf of the trading partner
+            // are less likely to be accepted.
+            decreaseColorBelief(j, chipSpace.getChipCount(offerToSelf, j) + 1);
         }
     }
 
     protected void decreaseColorBeliefMessage(int location) {
         int tileColor = game.getBoard().getTileColorNumber(game.getGoalPositionsDict().get(location));
-        for (int offer = 0; offer < utilityFunction.length; offer++) {
-            if (Chips.getBins(offer, game.getBinMaxChips())[tileColor] == 0) {
-                beliefOffer[offer] *= (1 - learningSpeed);
-            }
-        }
+        // Offers without chips of the color of the goal location
+        journal.record(colorExponent[tileColor], 0);
+        colorExponent[tileColor][0]++;
     }
 
     /**
@@ -404,11 +539,35 @@ public abstract class Player {
      * @return the expected value of this offer
      */
     protected double getExpectedValue(int offer) {
-        double belief = beliefOffer[offer];
+        double belief = getBeliefOffer(offer);
         return belief * utilityFunction[offer] + (1 - belief) * utilityFunction[chips] - 1;
     }
 
 
+    /**
+     * The expected values the ToM0 agent assigns to making each offer, for a number of goal locations of this agent.
+     * The belief of each offer is computed once and used for all these goal locations.
+     *
+     * @param goals    The goal locations for which the values are needed
+     * @param numGoals The number of goal locations in goals
+     * @param values   Array to store the expected values, at index offer * number of goal positions + goal location
+     */
+    protected void getExpectedValuesPerGoal(int[] goals, int numGoals, double[] values) {
+        int[] utilities = game.getUtilitiesPerOffer();
+        int stride = game.getNumberOfGoalPositions();
+        int chipsIdx = chips * stride;
+        int offerIdx, goal;
+        double belief;
+        for (int offer = 0; offer < utilityFunction.length; offer++) {
+            belief = getBeliefOffer(offer);
+            offerIdx = offer * stride;
+            for (int i = 0; i < numGoals; i++) {
+                goal = goals[i];
+                values[offerIdx + goal] = belief * utilities[offerIdx + goal] + (1 - belief) * utilities[chipsIdx + goal] - 1;
+            }
+        }
+    }
+
     /**
      * Adds a message to the messages this agent sent
      *
@@ -460,7 +619,29 @@ public abstract class Player {
      * @param newLearningSpeed The new learning speed of the agent
      */
     public void setLearningSpeed(double newLearningSpeed) {
+        if (hasZeroOrderBeliefs) {
+            // The exponents of the color beliefs are powers of the old learning speed
+            for (int offer = 0; offer < beliefOffer.length; offer++) {
+                setBeliefOffer(offer, getBeliefOffer(offer));
+            }
+            for (int[] exponents : colorExponent) {
+                for (int value = 0; value < exponents.length; value++) {
+                    journal.record(exponents, value);
+                    exponents[value] = 0;
+                }
+            }
+        }
         this.learningSpeed = newLearningSpeed;
+        if (hasZeroOrderBeliefs) initDecreaseFactors();
+    }
+
+    /**
+     * Sets the source of the random numbers of this agent
+     *
+     * @param random The new random source
+     */
+    public void setRandomSource(RandomSource random) {
+        this.random = random;
     }
 
     /**
@@ -513,6 +694,6 @@ public abstract class Player {
     }
 
     protected void printExpectedResponse(OfferType offerType) {
-        System.out.println("-> " + getName() + " expects offer to be accepted with probability: " + Settings.PRINT_DF.format(beliefOffer[offerType.getOffer()]));
+        System.out.println("-> " + getName() + " expects offer to be accepted with probability: " + Settings.PRINT_DF.format(getBeliefOffer(offerType.getOffer())));
     }
 }
@@ -1,5 +1,6 @@
 package lyingAgents.model.player;
 
+import lyingAgents.model.DecisionCounters;
 import lyingAgents.model.Game;
 import lyingAgents.utilities.Messages;
 import lyingAgents.utilities.RandomNumGen;
@@ -110,12 +111,12 @@ public class PlayerLying extends PlayerToM {
         if (!canSendMessages) return super.chooseOffer(offerReceived);
 
         List<OfferType> offerList = selectBestOffers(offerReceived);
-        OfferType offerType = offerList.get((int) (Math.random() * offerList.size()));
+        OfferType offerType = offerList.get(random.nextInt(offerList.size()));
         int newOffer = offerType.getOffer();
 
         int locMessage = offerType.getLoc();
         if ((getOrderToM() == 0) && (newOffer != Settings.ID_ACCEPT_OFFER) && (newOffer != Settings.ID_WITHDRAW_NEGOTIATION)
-                && (Math.random() < PROB_TOM0_SEND_MESSAGE)) locMessage = rng.random();
+                && (random.nextDouble() < PROB_TOM0_SEND_MESSAGE)) locMessage = rng.random(random);
         if (locMessage != Settings.ID_NO_LOCATION) sendGLMessage(locMessage);
 
         return newOffer;
@@ -134,6 +135,7 @@ public class PlayerLying extends PlayerToM {
 
         if (!canSendMessages) return super.selectBestOffers(offerReceived);
 
+        countCall(DecisionCounters.Method.SELECT_BEST_OFFERS);
         bestOffers = new ArrayList<>();
         tmpSelectOfferValue = -Double.MAX_VALUE + Settings.EPSILON;
         addOffersWithoutMessage();  // send no message
@@ -169,30 +171,21 @@ public class PlayerLying extends PlayerToM {
      * @param loc The location to message to the other agent
      */
     private void addOffers(int loc) {
-        double curValue;
-        boolean savedHasSentMessage = this.hasSentMessage;
-
 //        assert (getOrderToM() > 0) : "Theory of mind zero agent cannot reason about sending messages...";
 
+        double[] values = getValues(loc);
         for (int i = 0; i < utilityFunction.length; i++) {  // loop over offers
-            partnerModel.saveBeliefs();
-            partnerModel.receiveGLMessage(loc);
-            curValue = getValue(i);
-            partnerModel.restoreBeliefs();
-            this.setHasSentMessage(savedHasSentMessage);
-            processOffer(i, curValue, loc);
+            processOffer(i, values[i], loc);
         }
-
     }
 
     /**
      * Adds offers without a message.
      */
     private void addOffersWithoutMessage() {
-        double curValue;
+        double[] values = getValues(Settings.ID_NO_LOCATION);
         for (int i = 0; i < utilityFunction.length; i++) {  // loop over offers
-            curValue = getValue(i);
-            processOffer(i, curValue, Settings.ID_NO_LOCATION);
+            processOffer(i, values[i], Settings.ID_NO_LOCATION);
         }
     }
 
@@ -1,12 +1,16 @@
 package lyingAgents.model.player;
 
+import lyingAgents.model.DecisionCounters;
 import lyingAgents.model.Game;
 import lyingAgents.utilities.Chips;
+import lyingAgents.utilities.RandomSource;
 import lyingAgents.utilities.Settings;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * PlayerToM: class for the theory of mind of the agent
@@ -19,11 +23,6 @@ public class PlayerToM extends Player {
      */
     private double[] locationBeliefs;
 
-    /**
-     * To save beliefs of the location.
-     */
-    private final double[][] savedLocationBeliefs;
-
     /**
      * The model of the partner
      */
@@ -39,6 +38,11 @@ public class PlayerToM extends Player {
      */
     private final int orderToM;
 
+    /**
+     * The index of the top-level agent to which this (nested) model belongs, 0 for the initiator and 1 for the responder
+     */
+    private final int agentIdx;
+
     /**
      * Confidence in orderToM-1 of the opponent
      */
@@ -67,9 +71,26 @@ public class PlayerToM extends Player {
     private double[] locationBeliefsWithoutMessage;
 
     /**
-     * The saved locationBeliefsWithoutMessage. This stores the mentioned field when saveBeliefs is called.
+     * Memo table with the expected responses of the partner model to an offer given a goal location of the partner, at
+     * index offer * number of goal positions + location. Entries are only valid as long as the state of the partner
+     * model does not change, which is tracked with expectedResponsesEpoch.
+     */
+    private ArrayList<List<OfferType>> expectedResponses;
+
+    /**
+     * The epoch in which an entry of expectedResponses has been computed.
      */
-    private final double[][] savedLocationBeliefsWithoutMessage;
+    private int[][] expectedResponsesEpoch;
+
+    /**
+     * The current epoch of the partner model. Entries of expectedResponses computed in another epoch are outdated.
+     */
+    private int currentEpoch;
+
+    /**
+     * True if the values of the offers are calculated in parallel when making a decision, false otherwise.
+     */
+    private boolean parallelDecisions = false;
 
     /**
      * @param playerName      name of the player
@@ -83,11 +104,11 @@ public class PlayerToM extends Player {
     public PlayerToM(String playerName, Game game, int orderToM, double learningSpeed, int chipsSelf, int chipsOther, int[] utilityFunction) {
         super(playerName, game, learningSpeed, chipsSelf, utilityFunction, (orderToM == 0));
         this.orderToM = orderToM;
+        // The names of the nested models end with the name of the top-level agent
+        this.agentIdx = playerName.endsWith(Settings.INITIATOR_NAME) ? 0 : 1;
 
         if (this.orderToM > 0) {
             this.locationBeliefs = new double[this.game.getNumberOfGoalPositions()];
-            this.savedLocationBeliefs = new double[Settings.SAVE_NUMBER][this.game.getNumberOfGoalPositions()];
-            this.savedLocationBeliefsWithoutMessage = new double[Settings.SAVE_NUMBER][this.game.getNumberOfGoalPositions()];
             this.locationBeliefsWithoutMessage = new double[this.game.getNumberOfGoalPositions()];
 
             selfModel = new PlayerToM("selfModel_" + playerName, game, orderToM - 1, learningSpeed, chipsSelf, chipsOther, utilityFunction);
@@ -97,14 +118,41 @@ public class PlayerToM extends Player {
             selfModel = null;
             partnerModel = null;
             this.locationBeliefs = null;
-            this.savedLocationBeliefs = null;
-            this.savedLocationBeliefsWithoutMessage = null;
             this.locationBeliefsWithoutMessage = null;
         }
 
         initNegotiationRound(chipsSelf, chipsOther, utilityFunction);
     }
 
+    /**
+     * Copy constructor. Makes a deep copy of the agent including its partner model and self model, so that the copy
+     * can reason about offers independently of the original agent.
+     *
+     * @param other The agent to copy
+     */
+    protected PlayerToM(PlayerToM other) {
+        super(other);
+        this.orderToM = other.orderToM;
+        this.agentIdx = other.agentIdx;
+        this.confidence = other.confidence;
+        this.confidenceLocked = other.confidenceLocked;
+        this.receivedMessage = other.receivedMessage;
+        this.hasSentMessage = other.hasSentMessage;
+
+        if (this.orderToM > 0) {
+            this.locationBeliefs = other.locationBeliefs.clone();
+            this.locationBeliefsWithoutMessage = other.locationBeliefsWithoutMessage.clone();
+            this.selfModel = new PlayerToM(other.selfModel);
+            this.partnerModel = new PlayerToM(other.partnerModel);
+            initExpectedResponses();
+        } else {
+            this.selfModel = null;
+            this.partnerModel = null;
+            this.locationBeliefs = null;
+            this.locationBeliefsWithoutMessage = null;
+        }
+    }
+
     /**
      * Initializes the agent for a new round, but learning from other games is kept.
      *
@@ -120,16 +168,31 @@ public class PlayerToM extends Player {
         if (orderToM > 0) {
             Arrays.fill(locationBeliefs, 1.0 / locationBeliefs.length);
             Arrays.fill(locationBeliefsWithoutMessage, -1);
-            for (int i = 0; i < Settings.SAVE_NUMBER; i++) {
-                Arrays.fill(savedLocationBeliefs[i], -1);
-                Arrays.fill(savedLocationBeliefsWithoutMessage[i], -1);
-            }
+            initExpectedResponses();
             selfModel.initNegotiationRound(chipsSelf, chipsOther, utilityFunction);
             partnerModel.initNegotiationRound(chipsOther, chipsSelf, utilityFunction);
             confidence = 1.0;  // starting confidence
         }
     }
 
+    /**
+     * Makes a new (empty) memo table for the expected responses of the partner model.
+     */
+    private void initExpectedResponses() {
+        expectedResponses = new ArrayList<>(Collections.nCopies(utilityFunction.length * game.getNumberOfGoalPositions(),
+                (List<OfferType>) null));
+        expectedResponsesEpoch = new int[utilityFunction.length][game.getNumberOfGoalPositions()];
+        currentEpoch = 1;
+    }
+
+    /**
+     * Invalidates all expected responses of the partner model. Must be called whenever the state of the partner model
+     * changes, so that the memo table does not return outdated responses.
+     */
+    protected void invalidateExpectedResponses() {
+        currentEpoch++;
+    }
+
     /**
      * Gives the agent's counter-offer for a specific offer
      *
@@ -156,7 +219,22 @@ public class PlayerToM extends Player {
     @Override
     public int chooseOffer(int offerReceived) {
         List<OfferType> offerList = selectBestOffers(offerReceived);
-        OfferType offerType = offerList.get((int) (Math.random() * offerList.size()));
+        OfferType offerType = offerList.get(random.nextInt(offerList.size()));
+        return offerType.getOffer();
+    }
+
+    /**
+     * Chooses an offer as a response to offerReceived, given the values of all offers.
+     *
+     * @param offerReceived the offer made by the other player from the perspective of this agent.
+     * @param values        Array that contains the value of offer i at index offset + i * stride
+     * @param offset        Index of the value of the first offer
+     * @param stride        Distance between the values of consecutive offers
+     * @return The chosen offer from the perspective of this agent.
+     */
+    protected int chooseOffer(int offerReceived, double[] values, int offset, int stride) {
+        List<OfferType> offerList = selectBestOffers(offerReceived, values, offset, stride);
+        OfferType offerType = offerList.get(random.nextInt(offerList.size()));
         return offerType.getOffer();
     }
 
@@ -168,12 +246,26 @@ public class PlayerToM extends Player {
      * That is, if accepted, this agent gets the offer.
      */
     public List<OfferType> selectBestOffers(int offerReceived) {
+        return selectBestOffers(offerReceived, getValues(Settings.ID_NO_LOCATION), 0, 1);
+    }
+
+    /**
+     * Selects an offer as a response to offerReceived, given the values of all offers.
+     *
+     * @param offerReceived the offer made by the other player from the perspective of this agent.
+     * @param values        Array that contains the value of offer i at index offset + i * stride
+     * @param offset        Index of the value of the first offer
+     * @param stride        Distance between the values of consecutive offers
+     * @return The offer offered to the other player from the perspective of this agent.
+     */
+    protected List<OfferType> selectBestOffers(int offerReceived, double[] values, int offset, int stride) {
+        countCall(DecisionCounters.Method.SELECT_BEST_OFFERS);
         List<OfferType> bestOffers = new ArrayList<>();
         double curValue, tmpSelectOfferValue;
 
         tmpSelectOfferValue = -Double.MAX_VALUE + Settings.EPSILON;
         for (int i = 0; i < utilityFunction.length; i++) {  // loop over offers
-            curValue = getValue(i);
+            curValue = values[offset + i * stride];
             if (curValue - Settings.EPSILON > tmpSelectOfferValue) {
                 tmpSelectOfferValue = curValue;
                 bestOffers = new ArrayList<>();
@@ -204,6 +296,120 @@ public class PlayerToM extends Player {
     }
 
 
+    /**
+     * Calculates the value of every offer. When the agent makes decisions in parallel, the offers are divided over
+     * the workers of a fork-join pool, where each worker uses its own copy of this agent. The random numbers used for
+     * an offer then come from a random source seeded by the offer, so the values do not depend on the number of workers.
+     *
+     * @param locMessage The location message sent together with the offer, or Settings.ID_NO_LOCATION if no message
+     *                   is sent.
+     * @return Array with the value of each offer.
+     */
+    protected double[] getValues(int locMessage) {
+        double[] values = new double[utilityFunction.length];
+        if (parallelDecisions && (orderToM > 0)) {
+            ForkJoinPool.commonPool().invoke(new OfferValuesTask(this, locMessage, random.nextLong(), values, 0, values.length));
+        } else {
+            getValues(locMessage, values, 0, values.length);
+        }
+        return values;
+    }
+
+    /**
+     * Calculates the value of a range of offers together with a location message. The partner model receives the
+     * message once, after which the values of all offers in the range are calculated with the same partner state.
+     *
+     * @param locMessage The location message sent together with the offers, or Settings.ID_NO_LOCATION if no message
+     *                   is sent.
+     * @param values     Array to write the values of the offers to
+     * @param from       First offer of the range (inclusive)
+     * @param to         Last offer of the range (exclusive)
+     */
+    protected void getValues(int locMessage, double[] values, int from, int to) {
+        getValues(locMessage, values, from, to, false, 0L);
+    }
+
+    /**
+     * Calculates the value of a range of offers together with a location message, where the random numbers used for
+     * each offer come from a random source seeded by decisionSeed and the offer. Used by the workers of a parallel
+     * decision, which each have their own copy of the agent.
+     *
+     * @param locMessage   The location message sent together with the offers, or Settings.ID_NO_LOCATION if no
+     *                     message is sent.
+     * @param decisionSeed The seed of the decision
+     * @param values       Array to write the values of the offers to
+     * @param from         First offer of the range (inclusive)
+     * @param to           Last offer of the range (exclusive)
+     */
+    protected void getValues(int locMessage, long decisionSeed, double[] values, int from, int to) {
+        getValues(locMessage, values, from, to, true, decisionSeed);
+    }
+
+    /**
+     * Calculates the value of a range of offers together with a location message.
+     *
+     * @param locMessage   The location message sent together with the offers
+     * @param values       Array to write the values of the offers to
+     * @param from         First offer of the range (inclusive)
+     * @param to           Last offer of the range (exclusive)
+     * @param seedPerOffer True if the random source is seeded by decisionSeed and the offer for every offer
+     * @param decisionSeed The seed of the decision
+     */
+    private void getValues(int locMessage, double[] values, int from, int to, boolean seedPerOffer, long decisionSeed) {
+        boolean savedHasSentMessage = this.hasSentMessage;
+
+        if (locMessage != Settings.ID_NO_LOCATION) {
+            partnerModel.saveBeliefs();
+            partnerModel.receiveGLMessage(locMessage);
+            invalidateExpectedResponses();
+        }
+        for (int i = from; i < to; i++) {  // loop over offers
+            if (seedPerOffer) setRandomSource(new RandomSource(RandomSource.mixSeed(decisionSeed, i)));
+            values[i] = getValue(i);
+        }
+        if (locMessage != Settings.ID_NO_LOCATION) {
+            partnerModel.restoreBeliefs();
+            this.setHasSentMessage(savedHasSentMessage);
+        }
+    }
+
+    /**
+     * Calculates the value of every offer for each goal location this agent could have. The goal locations are
+     * evaluated together: a ToM0 agent computes the belief of each offer once and scores it for every goal location,
+     * while a higher order agent reuses the expected responses of its partner model for all goal locations.
+     *
+     * @param goals The goal locations for which the values are needed
+     * @return Array with the value of each offer for each needed goal location, at index offer * number of goal
+     * positions + goal location.
+     */
+    protected double[] getValuesPerGoal(boolean[] goals) {
+        int numGoals = goals.length;
+        double[] values = new double[utilityFunction.length * numGoals];
+        double[] goalValues;
+        int[] ownUtilityFunction;
+
+        if (orderToM == 0) {
+            int[] neededGoals = new int[numGoals];
+            int numNeededGoals = 0;
+            for (int goal = 0; goal < numGoals; goal++) {
+                if (goals[goal]) neededGoals[numNeededGoals++] = goal;
+            }
+            getExpectedValuesPerGoal(neededGoals, numNeededGoals, values);
+        } else {
+            ownUtilityFunction = utilityFunction;
+            for (int goal = 0; goal < numGoals; goal++) {
+                if (!goals[goal]) continue;
+                utilityFunction = game.getUtilityFunction(goal);
+                goalValues = getValues(Settings.ID_NO_LOCATION);
+                for (int offer = 0; offer < goalValues.length; offer++) {
+                    values[offer * numGoals + goal] = goalValues[offer];
+                }
+            }
+            utilityFunction = ownUtilityFunction;
+        }
+        return values;
+    }
+
     /**
      * Calculates the expected value of an offer
      *
@@ -213,6 +419,10 @@ public class PlayerToM extends Player {
     protected double getValue(int makeOfferToSelf) {
         int loc, offerToOther;
         double curValue = 0.0;
+        boolean partnerReceivedOffer = false;
+        List<OfferType> responses;
+
+        countCall(DecisionCounters.Method.GET_VALUE);
 
         if (orderToM == 0) {
             // ToM0 uses only expected value
@@ -220,15 +430,22 @@ public class PlayerToM extends Player {
         }
         if ((confidence - Settings.EPSILON > 0) || confidenceLocked) {
             offerToOther = game.flipOffer(makeOfferToSelf);
-            partnerModel.saveBeliefs();
-            partnerModel.receiveOffer(offerToOther);
             for (loc = 0; loc < game.getNumberOfGoalPositions(); loc++) {
                 if (locationBeliefs[loc] - Settings.EPSILON > 0.0) {
-                    partnerModel.utilityFunction = game.getUtilityFunction(loc);
-                    curValue += locationBeliefs[loc] * getLocationValue(makeOfferToSelf, offerToOther);
+                    if (expectedResponsesEpoch[offerToOther][loc] != currentEpoch) {
+                        // Partner model only has to receive the offer when the response is not known yet
+                        if (!partnerReceivedOffer) {
+                            partnerModel.saveBeliefs();
+                            partnerModel.receiveOffer(offerToOther);
+                            partnerReceivedOffer = true;
+                        }
+                        setExpectedResponses(offerToOther);
+                    }
+                    responses = expectedResponses.get(offerToOther * game.getNumberOfGoalPositions() + loc);
+                    curValue += locationBeliefs[loc] * getLocationValue(makeOfferToSelf, responses);
                 }
             }
-            partnerModel.restoreBeliefs();
+            if (partnerReceivedOffer) partnerModel.restoreBeliefs();
         }
         if ((confidence + Settings.EPSILON >= 1) || confidenceLocked) {
             // fully confident in own theory of mind capabilities
@@ -239,15 +456,37 @@ public class PlayerToM extends Player {
         return curValue * confidence + (1 - confidence) * selfModel.getValue(makeOfferToSelf);
     }
 
+    /**
+     * Computes the expected responses of the partner model to an offer for all locations that the agent believes
+     * possible, and stores them in the memo table. The partner model must have received the offer already.
+     *
+     * @param offerToOther offer from the perspective of the partner.
+     */
+    private void setExpectedResponses(int offerToOther) {
+        int numGoals = game.getNumberOfGoalPositions();
+        boolean[] goals = new boolean[numGoals];
+        for (int loc = 0; loc < numGoals; loc++) {
+            goals[loc] = (locationBeliefs[loc] - Settings.EPSILON > 0.0);
+        }
+        double[] partnerValues = partnerModel.getValuesPerGoal(goals);
+        for (int loc = 0; loc < numGoals; loc++) {
+            if (!goals[loc]) continue;
+            partnerModel.utilityFunction = game.getUtilityFunction(loc);
+            expectedResponses.set(offerToOther * numGoals + loc,
+                    partnerModel.selectBestOffers(offerToOther, partnerValues, loc, numGoals));
+            expectedResponsesEpoch[offerToOther][loc] = currentEpoch;
+        }
+    }
+
     /**
      * Gets the value of making an offer.
      *
-     * @param offerToSelf  offer to agent self
-     * @param offerToOther offer to the other agent
+     * @param offerToSelf       offer to agent self
+     * @param expectedResponses the expected responses of the partner model to the offer
      * @return the value associated to making the offer
      */
-    private double getLocationValue(int offerToSelf, int offerToOther) {
-        List<OfferType> expectedResponses = partnerModel.selectBestOffers(offerToOther);
+    private double getLocationValue(int offerToSelf, List<OfferType> expectedResponses) {
+        countCall(DecisionCounters.Method.GET_LOCATION_VALUE);
         double chance = 1.0 / expectedResponses.size();
         double curValue, totValue;
         int someOffer;
@@ -292,6 +531,7 @@ public class PlayerToM extends Player {
             // Update partner lyingAgents.model for the fact that they had send the offer that was just received
             inverseOffer = this.game.flipOffer(offerToSelf);
             partnerModel.sendOffer(inverseOffer);
+            invalidateExpectedResponses();
         }
     }
 
@@ -319,6 +559,7 @@ public class PlayerToM extends Player {
             // Update the partner lyingAgents.model for receiving the offer that was made
             inverseOffer = game.flipOffer(offerToSelf);
             partnerModel.receiveOffer(inverseOffer);
+            invalidateExpectedResponses();
         }
     }
 
@@ -329,40 +570,56 @@ public class PlayerToM extends Player {
      */
     private void updateLocationBeliefs(int offerReceived) {
         int loc, flippedOfferReceived, utilityOffer, modeledPartnerAlternative;
+        int numGoals = game.getNumberOfGoalPositions();
         double sumAll, maxExpVal, curExpVal, accuracyRating, newBelief, sumAllSavedBeliefs;
+        boolean[] rationalGoals = new boolean[numGoals];
+        boolean anyRationalGoal = false;
+        double[] partnerValues = null;
+        int[] partnerUtilityFunction;
 
+        countCall(DecisionCounters.Method.UPDATE_LOCATION_BELIEFS);
         flippedOfferReceived = game.flipOffer(offerReceived);
+
+        // The values of the partner model are only needed for the locations where offerReceived is rational
+        for (loc = 0; loc < numGoals; loc++) {
+            partnerUtilityFunction = game.getUtilityFunction(loc);
+            rationalGoals[loc] = (partnerUtilityFunction[flippedOfferReceived] + Settings.SCORE_NEGOTIATION_STEP - Settings.EPSILON >
+                    partnerUtilityFunction[partnerModel.chips]);
+            anyRationalGoal |= rationalGoals[loc];
+        }
+        if (anyRationalGoal) partnerValues = partnerModel.getValuesPerGoal(rationalGoals);
+
         sumAll = 0.0;
         sumAllSavedBeliefs = 0.0;
         accuracyRating = 0.0;
         for (loc = 0; loc < game.getNumberOfGoalPositions(); loc++) {
             partnerModel.utilityFunction = game.getUtilityFunction(loc);
             utilityOffer = partnerModel.utilityFunction[flippedOfferReceived] + Settings.SCORE_NEGOTIATION_STEP;
-            if (utilityOffer - Settings.EPSILON > partnerModel.utilityFunction[partnerModel.chips]) {
+            if (rationalGoals[loc]) {
                 // Given loc, offerReceived gives the partner a higher score than the initial situation
-                modeledPartnerAlternative = partnerModel.chooseOffer(Settings.ID_NO_OFFER); // 0 since worst possible offer
+                modeledPartnerAlternative = partnerModel.chooseOffer(Settings.ID_NO_OFFER, partnerValues, loc, numGoals); // 0 since worst possible offer
 
                 if (modeledPartnerAlternative == Settings.ID_WITHDRAW_NEGOTIATION) {
                     maxExpVal = partnerModel.utilityFunction[partnerModel.chips];
                 } else {
                     // Agent's guess for partner's best option given location l
-                    maxExpVal = partnerModel.getValue(modeledPartnerAlternative);
+                    maxExpVal = partnerValues[modeledPartnerAlternative * numGoals + loc];
                 }
-                curExpVal = partnerModel.getValue(flippedOfferReceived);
+                curExpVal = partnerValues[flippedOfferReceived * numGoals + loc];
 
                 // Agent's guess for partner's value of offerReceived
                 if (maxExpVal - Settings.EPSILON > utilityOffer) {
                     newBelief = Math.max(0.0, Math.min(1.0, (1 + curExpVal) / (1 + maxExpVal)));
-                    locationBeliefs[loc] *= newBelief;
-                    if (this.receivedMessage) locationBeliefsWithoutMessage[loc] *= newBelief;
+                    setLocationBelief(loc, locationBeliefs[loc] * newBelief);
+                    if (this.receivedMessage) setLocationBeliefWithoutMessage(loc, locationBeliefsWithoutMessage[loc] * newBelief);
                     accuracyRating += locationBeliefs[loc];
                 } // else: No offer is expected as the maxvalue is not greater than withdrawing from negotiation. Hence, partnerModel is incorrect.
 
             } else {
                 // Making the offer "offerReceived" is not rational, the score would decrease.
                 // This is considered to be impossible; so set belief to zero.
-                locationBeliefs[loc] = 0;
-                if (this.receivedMessage) locationBeliefsWithoutMessage[loc] = 0;
+                setLocationBelief(loc, 0);
+                if (this.receivedMessage) setLocationBeliefWithoutMessage(loc, 0);
             }
             sumAll += locationBeliefs[loc];
             if (receivedMessage) sumAllSavedBeliefs += locationBeliefsWithoutMessage[loc];
@@ -370,13 +627,13 @@ public class PlayerToM extends Player {
         if (sumAll - Settings.EPSILON > 0) {
             sumAll = 1.0 / sumAll;
             for (loc = 0; loc < locationBeliefs.length; loc++) {
-                locationBeliefs[loc] *= sumAll;
+                setLocationBelief(loc, locationBeliefs[loc] * sumAll);
             }
         }
         if (receivedMessage && (sumAllSavedBeliefs - Settings.EPSILON > 0)) {
             sumAllSavedBeliefs = 1.0 / sumAllSavedBeliefs;
             for (loc = 0; loc < locationBeliefs.length; loc++) {
-                locationBeliefsWithoutMessage[loc] *= sumAllSavedBeliefs;
+                setLocationBeliefWithoutMessage(loc, locationBeliefsWithoutMessage[loc] * sumAllSavedBeliefs);
             }
         }
 
@@ -391,10 +648,9 @@ public class PlayerToM extends Player {
      */
     @Override
     public void saveBeliefs() {
+        countCall(DecisionCounters.Method.SAVE_BELIEFS);
         super.saveBeliefs();
         if (orderToM > 0) {
-            savedLocationBeliefs[saveCount - 1] = locationBeliefs.clone();
-            savedLocationBeliefsWithoutMessage[saveCount - 1] = locationBeliefsWithoutMessage.clone();
             partnerModel.saveBeliefs();
             selfModel.saveBeliefs();
         }
@@ -405,15 +661,25 @@ public class PlayerToM extends Player {
      */
     @Override
     public void restoreBeliefs() {
+        countCall(DecisionCounters.Method.RESTORE_BELIEFS);
         super.restoreBeliefs();
         if (orderToM > 0) {
-            locationBeliefs = savedLocationBeliefs[saveCount].clone();
-            locationBeliefsWithoutMessage = savedLocationBeliefsWithoutMessage[saveCount].clone();
             partnerModel.restoreBeliefs();
             selfModel.restoreBeliefs();
+            invalidateExpectedResponses();
         }
     }
 
+    /**
+     * Counts a call of this model if the game counts the calls (see DecisionCounters)
+     *
+     * @param method The called method
+     */
+    protected void countCall(DecisionCounters.Method method) {
+        DecisionCounters decisionCounters = game.getDecisionCounters();
+        if (decisionCounters != null) decisionCounters.increment(agentIdx, orderToM, method);
+    }
+
     @Override
     public void processOfferAccepted(int offerToSelf, boolean offerAcceptedByPartner) {
         if (orderToM == 0) super.processOfferAccepted(offerToSelf, offerAcceptedByPartner);
@@ -434,9 +700,33 @@ public class PlayerToM extends Player {
         if (orderToM > 0) {
             selfModel.setLearningSpeed(newLearningSpeed);
             partnerModel.setLearningSpeed(newLearningSpeed);
+            invalidateExpectedResponses();
         }
     }
 
+    /**
+     * Sets the source of the random numbers of this agent and its models
+     *
+     * @param random The new random source
+     */
+    @Override
+    public void setRandomSource(RandomSource random) {
+        super.setRandomSource(random);
+        if (orderToM > 0) {
+            selfModel.setRandomSource(random);
+            partnerModel.setRandomSource(random);
+        }
+    }
+
+    /**
+     * Sets whether this agent calculates the values of offers in parallel when making a decision.
+     *
+     * @param parallelDecisions True if decisions are made in parallel, false otherwise
+     */
+    public void setParallelDecisions(boolean parallelDecisions) {
+        this.parallelDecisions = parallelDecisions;
+    }
+
     /**
      * Getter for the order of theory of mind of this agent
      *
@@ -593,9 +883,9 @@ public class PlayerToM extends Player {
                 storeLocationBeliefsDueToBelievedMessage();
                 if (locationBeliefs[receivedLoc] - Settings.EPSILON > 0.0) { // agent believes partner
                     for (int loc = 0; loc < game.getNumberOfGoalPositions(); loc++) {
-                        locationBeliefs[loc] = 0.0;
+                        setLocationBelief(loc, 0.0);
                     }
-                    locationBeliefs[receivedLoc] = 1.0;
+                    setLocationBelief(receivedLoc, 1.0);
                 }
             } else {  // already received a message
                 if (locationBeliefs[receivedLoc] - Settings.EPSILON <= 0.0) { // agent does not believe partner
@@ -604,6 +894,7 @@ public class PlayerToM extends Player {
             }
             selfModel.receiveGLMessage(receivedLoc);
             partnerModel.sendGLMessage(receivedLoc);
+            invalidateExpectedResponses();
         } else {
             decreaseColorBeliefMessage(receivedLoc);
         }
@@ -621,6 +912,7 @@ public class PlayerToM extends Player {
         if (orderToM > 0) {
             partnerModel.receiveGLMessage(loc);
             selfModel.sendGLMessage(loc);
+            invalidateExpectedResponses();
         }
     }
 
@@ -634,6 +926,7 @@ public class PlayerToM extends Player {
         if (orderToM > 0) {
             this.selfModel.setHasSentMessage(hasSentMessage);
             this.partnerModel.setHasReceivedMessage(hasSentMessage);
+            invalidateExpectedResponses();
         }
     }
 
@@ -647,6 +940,7 @@ public class PlayerToM extends Player {
         if (orderToM > 0) {
             this.selfModel.setHasReceivedMessage(hasReceivedMessage);
             this.partnerModel.setHasSentMessage(hasReceivedMessage);
+            invalidateExpectedResponses();
         }
     }
 
@@ -654,14 +948,40 @@ public class PlayerToM extends Player {
      * Restores the locationBeliefs to the location beliefs without influence of a message
      */
     private void restoreLocationBeliefsDueToUnbelievedMessage() {
-        locationBeliefs = locationBeliefsWithoutMessage.clone();
+        for (int loc = 0; loc < locationBeliefs.length; loc++) {
+            setLocationBelief(loc, locationBeliefsWithoutMessage[loc]);
+        }
     }
 
     /**
      * Stores the location beliefs in location beliefs without a message
      */
     private void storeLocationBeliefsDueToBelievedMessage() {
-        locationBeliefsWithoutMessage = locationBeliefs.clone();
+        for (int loc = 0; loc < locationBeliefs.length; loc++) {
+            setLocationBeliefWithoutMessage(loc, locationBeliefs[loc]);
+        }
+    }
+
+    /**
+     * Sets the belief of a location and records the old belief in the journal.
+     *
+     * @param loc    The location
+     * @param belief The new belief
+     */
+    private void setLocationBelief(int loc, double belief) {
+        journal.record(locationBeliefs, loc);
+        locationBeliefs[loc] = belief;
+    }
+
+    /**
+     * Sets the belief of a location without influence of a message and records the old belief in the journal.
+     *
+     * @param loc    The location
+     * @param belief The new belief
+     */
+    private void setLocationBeliefWithoutMessage(int loc, double belief) {
+        journal.record(locationBeliefsWithoutMessage, loc);
+        locationBeliefsWithoutMessage[loc] = belief;
     }
 
     public boolean getHasReceivedMessage() {
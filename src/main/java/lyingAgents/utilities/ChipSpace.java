@@ -0,0 +1,125 @@
+package lyingAgents.utilities;
+
+/**
+ * ChipSpace class: lookup tables for the offers of one game setting, built from the chips in the game. Offers are
+ * encoded as indices (see Chips.getIndex). The tables give the number of chips of each color in an offer, the
+ * complementary offer and the type of the difference between two offers without decoding the indices again.
+ */
+public class ChipSpace {
+
+    /**
+     * Number of offers (subsets of the chips in the game)
+     */
+    private final int numOffers;
+
+    /**
+     * Number of chips of each color in each offer, at index offer * CHIP_DIVERSITY + color
+     */
+    private final int[] bins;
+
+    /**
+     * The complementary offer of each offer. That is, offer + complement = binMax
+     */
+    private final int[] complement;
+
+    /**
+     * Number of chips that are in the first offer but not in the second, at index offer1 * numOffers + offer2
+     */
+    private final int[] positiveDifference;
+
+    /**
+     * Number of chips that are in the second offer but not in the first, at index offer1 * numOffers + offer2
+     */
+    private final int[] negativeDifference;
+
+    /**
+     * Constructor
+     *
+     * @param binMax All chips in the game as a bin
+     */
+    public ChipSpace(int[] binMax) {
+        int numOffers = 1;
+        for (int i = 0; i < Settings.CHIP_DIVERSITY; i++) {
+            numOffers *= (binMax[i] + 1);
+        }
+        this.numOffers = numOffers;
+        this.bins = new int[numOffers * Settings.CHIP_DIVERSITY];
+        this.complement = new int[numOffers];
+        this.positiveDifference = new int[numOffers * numOffers];
+        this.negativeDifference = new int[numOffers * numOffers];
+
+        int[] offerBins;
+        for (int offer = 0; offer < numOffers; offer++) {
+            offerBins = Chips.getBins(offer, binMax);
+            System.arraycopy(offerBins, 0, bins, offer * Settings.CHIP_DIVERSITY, Settings.CHIP_DIVERSITY);
+            complement[offer] = Chips.invert(offer, binMax);
+        }
+
+        int difference, pos, neg;
+        for (int offer1 = 0; offer1 < numOffers; offer1++) {
+            for (int offer2 = 0; offer2 < numOffers; offer2++) {
+                pos = 0;
+                neg = 0;
+                for (int color = 0; color < Settings.CHIP_DIVERSITY; color++) {
+                    difference = getChipCount(offer1, color) - getChipCount(offer2, color);
+                    if (difference > 0) pos += difference;
+                    else neg -= difference;
+                }
+                positiveDifference[offer1 * numOffers + offer2] = pos;
+                negativeDifference[offer1 * numOffers + offer2] = neg;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of chips of a color in an offer
+     *
+     * @param offer The offer
+     * @param color The color
+     * @return The number of chips of this color
+     */
+    public int getChipCount(int offer, int color) {
+        return bins[offer * Settings.CHIP_DIVERSITY + color];
+    }
+
+    /**
+     * Gets the complementary offer. That is, offer + output = binMax
+     *
+     * @param offer The offer
+     * @return The complementary offer
+     */
+    public int getComplement(int offer) {
+        return complement[offer];
+    }
+
+    /**
+     * Gets the sum of the positive elements of the bin differences offer1 - offer2
+     *
+     * @param offer1 The first offer
+     * @param offer2 The second offer
+     * @return The number of chips in offer1 that are not in offer2
+     */
+    public int getPositiveDifference(int offer1, int offer2) {
+        return positiveDifference[offer1 * numOffers + offer2];
+    }
+
+    /**
+     * Gets the sum of the negative elements of the bin differences offer1 - offer2
+     *
+     * @param offer1 The first offer
+     * @param offer2 The second offer
+     * @return The number of chips in offer2 that are not in offer1
+     */
+    public int getNegativeDifference(int offer1, int offer2) {
+        return negativeDifference[offer1 * numOffers + offer2];
+    }
+
+    /**
+     * Gets the number of offers
+     *
+     * @return The number of offers
+     */
+    public int getNumberOfOffers() {
+        return numOffers;
+    }
+}
@@ -19,12 +19,13 @@ public class MiscFunc {
      * Parses the value of a text field to an integer
      *
      * @param textField The text field which has to be used for extracting a value
-     * @param rand      True if a random value has to be chosen if value of text field is not an integer, false otherwise
+     * @param random    Source of the random value that is chosen if value of text field is not an integer, or null if 0
+     *                  has to be chosen
      * @return The value of the text field
      */
-    public static int parseIntTextField(JTextField textField, boolean rand) {
+    public static int parseIntTextField(JTextField textField, RandomSource random) {
         int textFieldValue = -1;
-        int someValue = rand ? ((int) (Math.random() * Settings.CHIP_DIVERSITY)) : 0;
+        int someValue = (random != null) ? random.nextInt(Settings.CHIP_DIVERSITY) : 0;
         try {
             textFieldValue = Integer.parseInt(textField.getText());
         } catch (NumberFormatException ignored) {
@@ -9,8 +9,8 @@ public class RandomNumGen {
         this.prob = prob;
     }
 
-    public int random() {
-        double p = Math.random();
+    public int random(RandomSource random) {
+        double p = random.nextDouble();
         double sum = 0.0;
         int i = 0;
         while (sum + Settings.EPSILON < p) {
@@ -0,0 +1,100 @@
+package lyingAgents.utilities;
+
+import java.util.SplittableRandom;
+
+/**
+ * RandomSource class: the source of all random numbers in a game. A random source with a given seed always produces
+ * the same numbers, so a game with a seeded random source can be reproduced exactly. A random source is not
+ * thread-safe: every game (and every thread) uses its own random source, obtained with split() or with a seed made by
+ * mixSeed().
+ */
+public class RandomSource {
+
+    /**
+     * Increment of the seeds of consecutive tasks, the golden ratio as a 64-bit fraction
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * The generator of the random numbers
+     */
+    private final SplittableRandom generator;
+
+    /**
+     * Constructor for a random source with an arbitrary seed
+     */
+    public RandomSource() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructor for a random source with a fixed seed
+     *
+     * @param seed The seed
+     */
+    public RandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param generator The generator of the random numbers
+     */
+    private RandomSource(SplittableRandom generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Makes a new random source whose numbers are independent of the numbers of this random source. This random
+     * source is advanced.
+     *
+     * @return The new random source
+     */
+    public RandomSource split() {
+        return new RandomSource(generator.split());
+    }
+
+    /**
+     * Gets a random number between 0 (inclusive) and 1 (exclusive)
+     *
+     * @return The random number
+     */
+    public double nextDouble() {
+        return generator.nextDouble();
+    }
+
+    /**
+     * Gets a random integer between 0 (inclusive) and bound (exclusive)
+     *
+     * @param bound The upper bound
+     * @return The random integer
+     */
+    public int nextInt(int bound) {
+        return generator.nextInt(bound);
+    }
+
+    /**
+     * Gets a random long, used as seed for other random sources
+     *
+     * @return The random long
+     */
+    public long nextLong() {
+        return generator.nextLong();
+    }
+
+    /**
+     * Makes the seed of task index from a master seed. Seeds of different tasks are unrelated, even for consecutive
+     * indices, and do not depend on the order in which the tasks are run.
+     *
+     * @param seed  The master seed
+     * @param index The index of the task
+     * @return The seed of the task
+     */
+    public static long mixSeed(long seed, long index) {
+        long z = seed + (index + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -80,11 +80,6 @@ public class Settings {
      */
     public static final String ACCEPT_OFFER_MESSAGE = "I accept your offer.";
 
-    /**
-     * the size of the array in which agents can save their beliefs
-     */
-    public static final int SAVE_NUMBER = 3;
-
     /**
      * The error for comparing double values
      */
@@ -2,6 +2,7 @@ package lyingAgents.view.changeSettings;
 
 import lyingAgents.model.Board;
 import lyingAgents.utilities.MiscFunc;
+import lyingAgents.utilities.RandomSource;
 import lyingAgents.utilities.Settings;
 import lyingAgents.view.ViewSettings;
 
@@ -32,6 +33,11 @@ public class GameSettingsBoard extends JComponent {
      */
     private Map<Integer, JTextField> boardTextMap;
 
+    /**
+     * Source of the random colors of fields that are left empty
+     */
+    private final RandomSource random = new RandomSource();
+
 
     /**
      * Constructor of the board panel
@@ -144,7 +150,7 @@ public class GameSettingsBoard extends JComponent {
         for (int x = 0; x < simulationSize.width; x++) {
             for (int y = 0; y < simulationSize.height; y++) {
                 textField = boardTextMap.get(x * Settings.BOARD_WIDTH + y);
-                textFieldValue = MiscFunc.parseIntTextField(textField, false);
+                textFieldValue = MiscFunc.parseIntTextField(textField, null);
                 g2.setColor(Settings.getColor(textFieldValue));
                 g2.fillRect(
                         x * siteSize.width + OFFSET + BORDER_OFFSET, y * siteSize.height + OFFSET + BORDER_OFFSET,
@@ -182,6 +188,6 @@ public class GameSettingsBoard extends JComponent {
      */
     public int getIntColorTile(int row, int col) {
         JTextField textField = boardTextMap.get(row * Settings.BOARD_WIDTH + col);
-        return MiscFunc.parseIntTextField(textField, true);
+        return MiscFunc.parseIntTextField(textField, random);
     }
 }
@@ -1,6 +1,7 @@
 package lyingAgents.view.changeSettings;
 
 import lyingAgents.utilities.MiscFunc;
+import lyingAgents.utilities.RandomSource;
 import lyingAgents.utilities.Settings;
 import lyingAgents.view.ViewSettings;
 
@@ -31,6 +32,11 @@ public class GameSettingsChips extends JComponent {
      */
     private Map<Integer, JTextField> chipTextMap;
 
+    /**
+     * Source of the random colors of fields that are left empty
+     */
+    private final RandomSource random = new RandomSource();
+
     /**
      * Constructor
      */
@@ -134,7 +140,7 @@ public class GameSettingsChips extends JComponent {
 
         for (int i = 0; i < numDiffTokens; i++) {
             textField = chipTextMap.get(i);
-            textFieldValue = MiscFunc.parseIntTextField(textField, false);
+            textFieldValue = MiscFunc.parseIntTextField(textField, null);
             g2.setColor(Settings.getColor(textFieldValue));
             g2.fillOval(i * tokenSize, 0, tokenSize, tokenSize);
         }
@@ -148,6 +154,6 @@ public class GameSettingsChips extends JComponent {
      */
     public int getChip(int idx) {
         JTextField textField = chipTextMap.get(idx);
-        return MiscFunc.parseIntTextField(textField, true);
+        return MiscFunc.parseIntTextField(textField, random);
     }
 }
@@ -3,6 +3,7 @@ package lyingAgents.view.changeSettings;
 import lyingAgents.model.Game;
 import lyingAgents.utilities.Chips;
 import lyingAgents.utilities.MiscFunc;
+import lyingAgents.utilities.RandomSource;
 import lyingAgents.view.Popups;
 import lyingAgents.utilities.Settings;
 
@@ -19,6 +20,11 @@ public class GameSettingsDialog extends JDialog {
      */
     private final GameSettingsBoard gameSettingsBoard;
 
+    /**
+     * Source of the random goal positions of fields that are left empty
+     */
+    private final RandomSource random = new RandomSource();
+
     /**
      * The chips of the initiator where the user can enter values that correspond to the colors of the chips
      */
@@ -196,7 +202,7 @@ public class GameSettingsDialog extends JDialog {
                 Popups.showInvalidGoalPosition(Settings.INITIATOR_NAME, numGoalPos);
                 this.gameHasChanged = false;
             } else {
-                initiatorGPFieldValue = (int) (Math.random() * numGoalPos);
+                initiatorGPFieldValue = random.nextInt(numGoalPos);
             }
         }
 
@@ -211,7 +217,7 @@ public class GameSettingsDialog extends JDialog {
                 Popups.showInvalidGoalPosition(Settings.RESPONDER_NAME, numGoalPos);
                 this.gameHasChanged = false;
             } else {
-                responderGPFieldValue = (int) (Math.random() * numGoalPos);
+                responderGPFieldValue = random.nextInt(numGoalPos);
             }
         }
 
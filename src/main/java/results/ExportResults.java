@@ -0,0 +1,41 @@
+package results;
+
+import results.createResults.BinaryResultReader;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * ExportResults class: converts a binary results file (written with -binary) to a csv file.
+ */
+public class ExportResults {
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2 || args[0].equals("-h") || args[0].equals("--help")) {
+            System.out.println("Usage: java ExportResults <results file> [csv file]");
+            System.out.println("  The csv file defaults to the name of the results file with the extension .csv");
+            System.exit(args.length == 1 ? 0 : -1);
+        }
+
+        File inputFile = new File(args[0]);
+        File csvOutputFile = new File((args.length == 2) ? args[1] : getCsvFileName(args[0]));
+        try {
+            BinaryResultReader reader = new BinaryResultReader(inputFile);
+            try {
+                reader.exportToCsv(csvOutputFile);
+                System.out.println("Exported " + reader.getNumberOfRows() + " rows to " + csvOutputFile);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException exception) {
+            System.out.println("!!! EXPORT DID NOT SUCCEED: " + exception.getMessage() + " !!!");
+            System.exit(-1);
+        }
+    }
+
+    private static String getCsvFileName(String fileName) {
+        int extension = fileName.lastIndexOf('.');
+        if (extension <= fileName.lastIndexOf(File.separatorChar)) extension = fileName.length();
+        return fileName.substring(0, extension) + ".csv";
+    }
+}
@@ -1,15 +1,27 @@
 package results;
 
-import lyingAgents.model.Game;
+import lyingAgents.model.DecisionCounters;
+import lyingAgents.model.DecisionLatencies;
 import lyingAgents.utilities.exceptions.ForbiddenCharacterException;
 import lyingAgents.utilities.exceptions.NameTooLongException;
 import lyingAgents.utilities.exceptions.NameTooShortException;
+import lyingAgents.utilities.RandomSource;
 import lyingAgents.utilities.Settings;
+import results.createResults.BinaryResultWriter;
+import results.createResults.Checkpoint;
+import results.createResults.Coordinator;
+import results.createResults.CostModel;
+import results.createResults.ExperimentConfiguration;
+import results.createResults.ExperimentGrid;
+import results.createResults.ExperimentRunner;
+import results.createResults.ExperimentTask;
 import results.createResults.GetResults;
-import results.createResults.ResultSettings;
+import results.createResults.Shard;
+import results.createResults.Worker;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -18,10 +30,42 @@ public class MainResults {
 
     private static String csvFileName = "results.csv";
     private static String experimentName = "main";
-    private static final List<String> experiment_options = Arrays.asList("main", "determine_prob", "determine_prob_compare", "de_weerd", "lr", "pareto");
+    private static final List<String> experiment_options = ExperimentGrid.BUILT_IN_NAMES;
 
     private static final String FILE_ID = "-file_id";
     private static final String EXPERIMENT_ID = "-experiment";
+    private static final String PARALLEL_DECISIONS_ID = "-parallel_decisions";
+    private static final String THREADS_ID = "-threads";
+    private static final String SEED_ID = "-seed";
+    private static final String BINARY_ID = "-binary";
+    private static final String RESUME_ID = "-resume";
+    private static final String GRID_ID = "-grid";
+    private static final String PRINT_GRID_ID = "-print_grid";
+    private static final String SHARD_ID = "-shard";
+    private static final String COORDINATOR_ID = "-coordinator";
+    private static final String WORKER_ID = "-worker";
+    private static final String COSTS_ID = "-costs";
+    private static final String SUMMARY_ID = "-summary";
+    private static final String SUMMARY_ONLY_ID = "-summary_only";
+    private static final String COUNTERS_ID = "-counters";
+    private static final String LATENCIES_ID = "-latencies";
+
+    private static boolean parallelDecisions = false;
+    private static int numThreads = 1;
+    private static long seed = new RandomSource().nextLong();
+    private static boolean isSeedGiven = false;
+    private static boolean binaryResults = false;
+    private static boolean writeSummary = false;
+    private static boolean writeRows = true;
+    private static boolean writeCounters = false;
+    private static String latenciesFileName = null;
+    private static boolean resume = false;
+    private static String gridFileName = null;
+    private static final List<String> costsFileNames = new ArrayList<>();
+    private static boolean printGrid = false;
+    private static Shard shard = null;
+    private static int coordinatorPort = -1;
+    private static String coordinatorHost = null;
 
     public static void main(String[] args) {
         handleArguments(args);
@@ -46,11 +90,79 @@ public class MainResults {
                     System.out.println("Experiment id is not implemented");
                     System.out.println(-1);
                 }
+            } else if (option.equals(PARALLEL_DECISIONS_ID)) {
+                parallelDecisions = true;
+            } else if (option.equals(THREADS_ID) && (i + 1 < args.length)) {
+                try {
+                    numThreads = Integer.parseInt(args[i + 1]);
+                } catch (NumberFormatException ex) {
+                    numThreads = 0;
+                }
+                if (numThreads < 1) {
+                    System.out.println("Number of threads '" + args[i + 1] + "' not correct.");
+                    System.exit(-1);
+                }
+            } else if (option.equals(SEED_ID) && (i + 1 < args.length)) {
+                try {
+                    seed = Long.parseLong(args[i + 1]);
+                    isSeedGiven = true;
+                } catch (NumberFormatException ex) {
+                    System.out.println("Seed '" + args[i + 1] + "' not correct.");
+                    System.exit(-1);
+                }
+            } else if (option.equals(BINARY_ID)) {
+                binaryResults = true;
+            } else if (option.equals(SUMMARY_ID)) {
+                writeSummary = true;
+            } else if (option.equals(SUMMARY_ONLY_ID)) {
+                writeSummary = true;
+                writeRows = false;
+            } else if (option.equals(COUNTERS_ID)) {
+                writeCounters = true;
+            } else if (option.equals(LATENCIES_ID) && (i + 1 < args.length)) {
+                latenciesFileName = args[i + 1];
+            } else if (option.equals(RESUME_ID)) {
+                resume = true;
+            } else if (option.equals(COSTS_ID) && (i + 1 < args.length)) {
+                costsFileNames.add(args[i + 1]);
+            } else if (option.equals(GRID_ID) && (i + 1 < args.length)) {
+                gridFileName = args[i + 1];
+            } else if (option.equals(PRINT_GRID_ID)) {
+                printGrid = true;
+            } else if (option.equals(SHARD_ID) && (i + 1 < args.length)) {
+                try {
+                    shard = Shard.parse(args[i + 1]);
+                } catch (IllegalArgumentException ex) {
+                    System.out.println(ex.getMessage() + ".");
+                    System.exit(-1);
+                }
+            } else if (option.equals(COORDINATOR_ID) && (i + 1 < args.length)) {
+                coordinatorPort = parsePort(args[i + 1]);
+            } else if (option.equals(WORKER_ID) && (i + 1 < args.length)) {
+                int separator = args[i + 1].lastIndexOf(':');
+                coordinatorHost = (separator < 0) ? "localhost" : args[i + 1].substring(0, separator);
+                coordinatorPort = parsePort(args[i + 1].substring(separator + 1));
             } else if (option.equals("-h") || option.equals("--help")) {
                 printHelpMessage();
                 System.exit(0);
             }
         }
+        if (shard != null && !isSeedGiven) {
+            System.out.println("All shards of an experiment need the same seed, give it with " + SEED_ID + ".");
+            System.exit(-1);
+        }
+    }
+
+    private static int parsePort(String port) {
+        try {
+            int portNumber = Integer.parseInt(port);
+            if (portNumber >= 0 && portNumber <= 65535) return portNumber;
+        } catch (NumberFormatException ex) {
+            // reported below
+        }
+        System.out.println("Port '" + port + "' not correct.");
+        System.exit(-1);
+        return -1;
     }
 
     private static void validate(String filename) throws NameTooLongException, ForbiddenCharacterException, NameTooShortException {
@@ -69,284 +181,128 @@ public class MainResults {
         System.out.println("Options:");
         System.out.println("  " + FILE_ID + " <string>    ID of the results file that will be used as output file (results_ + id + .csv), default = " + csvFileName);
         System.out.println("  " + EXPERIMENT_ID + " <string>    ID of the experiment, default = " + experimentName + ", options = " + experiment_options);
+        System.out.println("  " + PARALLEL_DECISIONS_ID + "    Agents calculate the values of their offers in parallel, default = " + parallelDecisions);
+        System.out.println("  " + THREADS_ID + " <int>    Number of configurations that are simulated at the same time, default = " + numThreads);
+        System.out.println("  " + SEED_ID + " <long>    Seed of the random numbers, default = a random seed");
+        System.out.println("  " + BINARY_ID + "    Write the results in the binary format (" + BinaryResultWriter.FILE_EXTENSION + ") instead of csv, default = " + binaryResults);
+        System.out.println("  " + SUMMARY_ID + "    Also write a summary per configuration (means, variances, quantiles, proportions) to results_<id>_summary.csv, default = " + writeSummary);
+        System.out.println("  " + SUMMARY_ONLY_ID + "    Write only the summary per configuration, not a row per game");
+        System.out.println("  " + COUNTERS_ID + "    Count the calls of the decisions of the agents per agent and order of theory of mind, written as extra columns, default = " + writeCounters);
+        System.out.println("  " + LATENCIES_ID + " <file>    Write histograms of the durations of the decisions per kind of agent (p50, p90, p99, max) to this csv file at the end, in the process that runs the tasks");
+        System.out.println("  " + RESUME_ID + "    Continue the experiment from its checkpoint, running only the cells that are not done, default = " + resume);
+        System.out.println("  " + GRID_ID + " <file>    File with the grid of the experiment, used instead of " + EXPERIMENT_ID);
+        System.out.println("  " + PRINT_GRID_ID + "    Print the grid of the experiment and its configurations and exit");
+        System.out.println("  " + SHARD_ID + " <i/n>    Run only shard i (0 <= i < n) of the tasks, to be merged with MergeShards; needs " + SEED_ID);
+        System.out.println("  " + COORDINATOR_ID + " <port>    Serve the tasks on this local port (0 = any free port) to workers instead of running them");
+        System.out.println("  " + WORKER_ID + " <[host:]port>    Run tasks of the coordinator on this port, " + THREADS_ID + " at the same time, and write no results");
+        System.out.println("  " + COSTS_ID + " <file>    Earlier results file of which the passed time is used to run the most expensive cells first, can be repeated");
         System.out.println("  -h, --help      Print this message and exit");
     }
 
     private static void createResults() {
-        if (experimentName.equals("main")) {
-            performMainExperiment();
-        } else if (experimentName.equals("de_weerd")) {
-            performDeWeerdExperiment();
-        } else if (experimentName.equals("lr")) {
-            performLrExperiment();
-        } else if (experimentName.equals("pareto")) {
-            performParetoExperiment();
-        } else if (experimentName.equals("determine_prob")) {
-            performDetermineProbExperiment();
-        } else if (experimentName.equals("determine_prob_compare")) {
-            performDetermineProbCompareExperiment();
-        } else {
-            System.out.println("No results obtained as experiment name not implemented");
+        DecisionCounters.setEnabled(writeCounters);
+        DecisionLatencies decisionLatencies = (latenciesFileName == null) ? null : new DecisionLatencies();
+        if (coordinatorHost != null) {
+            Worker worker = new Worker(coordinatorHost, coordinatorPort, parallelDecisions);
+            worker.setDecisionLatencies(decisionLatencies);
+            worker.run(numThreads);
+            writeDecisionLatencies(decisionLatencies);
+            return;
         }
-    }
-
-    private static void performDetermineProbExperiment() {
-        GetResults getResults = new GetResults(csvFileName, experimentName);
-
-        // Settings
-        List<Double> tom0probList = Arrays.asList(0.0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0);
-        List<Integer> initTomList = Arrays.asList(0, 1, 2);
-        List<Integer> respTomList = Arrays.asList(0, 1, 2);
-        List<Boolean> initCanLieList = Arrays.asList(true, false);
-        List<Boolean> respCanLieList = Arrays.asList(true, false);
-        boolean initCanSendMessages = true;
-        boolean respCanSendMessages = true;
-
-        int cnt = 0;
-        while (cnt++ < ResultSettings.NUM_REP) {
-            System.out.println("--- Start Repetition " + cnt + " ---");
-            for (int initTom : initTomList) {
-                for (int respTom : respTomList) {
-                    if ((initTom != 0) && (respTom != 0)) continue;
-                    for (double zeroToMProb : tom0probList) {
-                        for (boolean initCanLie : initCanLieList) {
-                            if ((initTom == 0) && !initCanLie) continue;
-                            for (boolean respCanLie : respCanLieList) {
-                                if ((respTom == 0) && !respCanLie) continue;
-
-                                Game game = new Game(initTom, respTom, Settings.STANDARD_LR, Settings.STANDARD_LR, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages);
-                                game.getInitiator().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
-                                game.getResponder().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
-
-                                getResults.generateNewResults(game, false);
-                                System.out.println("\t[i_tom=" + initTom + ", r_tom=" + respTom +
-                                        ", prob=" + zeroToMProb +
-                                        ", i_mess=" + initCanSendMessages + ", r_mess=" + respCanSendMessages +
-                                        ", i_lie=" + initCanLie + ", r_lie=" + respCanLie + "] Done;");
-                            }
-                        }
-                    }
-                }
-            }
-            try {
-                getResults.writeExcel();
-            } catch (IOException exception) {
-                System.out.println("!!! WRITING TO EXCEL DID NOT SUCCEED !!!");
+        ExperimentGrid grid;
+        try {
+            grid = (gridFileName == null) ? ExperimentGrid.getBuiltIn(experimentName) : ExperimentGrid.fromFile(new File(gridFileName));
+        } catch (IOException | IllegalArgumentException exception) {
+            System.out.println("No results obtained as the experiment is not correct: " + exception.getMessage());
+            return;
+        }
+        if (printGrid) {
+            System.out.println(grid.getDefinition());
+            System.out.println("# " + grid.getConfigurations().size() + " configurations, estimated cost per repetition:");
+            for (ExperimentConfiguration configuration : grid.getConfigurations()) {
+                System.out.println("#   " + String.format("%8.0f", configuration.getEstimatedCost()) + " " + configuration);
             }
-            System.out.println("################### Finished iteration " + cnt + " ###################\n");
+            return;
         }
+        runExperiment(grid, decisionLatencies);
     }
 
-    private static void performDetermineProbCompareExperiment() {
-        GetResults getResults = new GetResults(csvFileName, experimentName);
-
-        // Settings
-        List<Integer> initTomList = Arrays.asList(0, 1, 2);
-        List<Integer> respTomList = Arrays.asList(0, 1, 2);
-        List<Boolean> initCanLieList = Arrays.asList(true, false);
-        List<Boolean> respCanLieList = Arrays.asList(true, false);
-        boolean initCanSendMessages = true;
-        boolean respCanSendMessages = true;
-        double zeroToMProb = 0.0;
-
-        int cnt = 0;
-        while (cnt++ < ResultSettings.NUM_REP) {
-            System.out.println("--- Start Repetition " + cnt + " ---");
-            for (int initTom : initTomList) {
-                for (int respTom : respTomList) {
-                    if ((initTom == 0) && (respTom == 0)) continue;
-                    for (boolean initCanLie : initCanLieList) {
-                        if ((initTom == 0) && !initCanLie) continue;
-                        for (boolean respCanLie : respCanLieList) {
-                            if ((respTom == 0) && !respCanLie) continue;
-
-                            Game game = new Game(initTom, respTom, Settings.STANDARD_LR, Settings.STANDARD_LR, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages);
-                            game.getInitiator().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
-                            game.getResponder().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
-
-                            getResults.generateNewResults(game, false);
-                            System.out.println("\t[i_tom=" + initTom + ", r_tom=" + respTom +
-                                    ", prob=" + zeroToMProb +
-                                    ", i_mess=" + initCanSendMessages + ", r_mess=" + respCanSendMessages +
-                                    ", i_lie=" + initCanLie + ", r_lie=" + respCanLie + "] Done;");
-                        }
-                    }
-                }
-            }
-            try {
-                getResults.writeExcel();
-            } catch (IOException exception) {
-                System.out.println("!!! WRITING TO EXCEL DID NOT SUCCEED !!!");
-            }
-            System.out.println("################### Finished iteration " + cnt + " ###################\n");
+    private static void writeDecisionLatencies(DecisionLatencies decisionLatencies) {
+        if (decisionLatencies == null) return;
+        try {
+            decisionLatencies.write(new File(latenciesFileName));
+            System.out.println("Durations of the decisions written to " + latenciesFileName);
+        } catch (IOException exception) {
+            System.out.println("!!! COULD NOT WRITE DURATIONS OF THE DECISIONS: " + exception.getMessage() + " !!!");
         }
     }
 
-    private static void performMainExperiment() {
-        GetResults getResults = new GetResults(csvFileName, experimentName);
-
-        // Settings
-        List<Integer> initTomList = Arrays.asList(0, 1, 2);
-        List<Integer> respTomList = Arrays.asList(0, 1, 2);
-        List<Boolean> initCanLieList = Arrays.asList(true, false);
-        List<Boolean> respCanLieList = Arrays.asList(true, false);
-        boolean initCanSendMessages = true;
-        boolean respCanSendMessages = true;
-        double zeroToMProb = 0.2;
-
-        int cnt = 0;
-        while (cnt++ < ResultSettings.NUM_REP) {
-            System.out.println("--- Start Repetition " + cnt + " ---");
-            for (int initTom : initTomList) {
-                for (int respTom : respTomList) {
-                    for (boolean initCanLie : initCanLieList) {
-                        if ((initTom == 0) && !initCanLie) continue;
-                        for (boolean respCanLie : respCanLieList) {
-                            if ((respTom == 0) && !respCanLie) continue;
-
-                            Game game = new Game(initTom, respTom, Settings.STANDARD_LR, Settings.STANDARD_LR, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages);
-                            game.getInitiator().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
-                            game.getResponder().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
-                            getResults.generateNewResults(game, false);
-
-                            System.out.println("\t[i_tom=" + initTom + ", r_tom=" + respTom +
-                                    ", i_mess=" + initCanSendMessages + ", r_mess=" + respCanSendMessages +
-                                    ", i_lie=" + initCanLie + ", r_lie=" + respCanLie + "] Done;");
-                        }
-                    }
-                }
+    private static void runExperiment(ExperimentGrid grid, DecisionLatencies decisionLatencies) {
+        experimentName = grid.getName();
+        int numConfigurations = grid.getConfigurations().size();
+        List<ExperimentTask> tasks = grid.getTasks();
+        int numTasks = tasks.size();
+        if (shard != null) tasks = shard.select(tasks);
+        File journalFile = Checkpoint.getJournalFile(GetResults.getResultsFile(getResultsFileName(), experimentName));
+        GetResults getResults;
+        Checkpoint checkpoint = null;
+        try {
+            if (resume && journalFile.exists()) {
+                checkpoint = Checkpoint.resume(journalFile, experimentName, numConfigurations, binaryResults,
+                        writeSummary, writeRows, writeCounters);
+                seed = checkpoint.getSeed();
+                System.out.println("Resuming: " + checkpoint.getNumberOfCompletedCells() + " cells already done");
+            } else if (resume) {
+                System.out.println("No checkpoint found, starting a new experiment");
             }
-            try {
-                getResults.writeExcel();
-            } catch (IOException exception) {
-                System.out.println("!!! WRITING TO EXCEL DID NOT SUCCEED !!!");
+            long resumeLength = (checkpoint == null) ? -1 : checkpoint.getResultsLength();
+            getResults = new GetResults(getResultsFileName(), experimentName, binaryResults, writeSummary, writeRows,
+                    writeCounters, resumeLength);
+            if (checkpoint == null) {
+                checkpoint = Checkpoint.create(journalFile, seed, experimentName, numConfigurations, binaryResults,
+                        writeSummary, writeRows, writeCounters);
             }
-            System.out.println("################### Finished iteration " + cnt + " ###################\n");
+        } catch (IOException exception) {
+            System.out.println("!!! COULD NOT OPEN RESULTS FILE: " + exception.getMessage() + " !!!");
+            return;
         }
-    }
-
-    private static void performDeWeerdExperiment() {
-        GetResults getResults = new GetResults(csvFileName, experimentName);
-
-        // Settings
-        List<Integer> initTomList = Arrays.asList(0, 1, 2);
-        List<Integer> respTomList = Arrays.asList(0, 1, 2);
-        boolean initCanLie = false;
-        boolean respCanLie = false;
-        boolean initCanSendMessages = false;
-        boolean respCanSendMessages = false;
-
-        int cnt = 0;
-        while (cnt++ < ResultSettings.NUM_REP) {
-            System.out.println("--- Start Repetition " + cnt + " ---");
-            for (int initTom : initTomList) {
-                for (int respTom : respTomList) {
-
-                    Game game = new Game(initTom, respTom, Settings.STANDARD_LR, Settings.STANDARD_LR, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages);
-                    getResults.generateNewResults(game, false);
-
-                    System.out.println("\t[i_tom=" + initTom + ", r_tom=" + respTom +
-                            ", i_mess=" + initCanSendMessages + ", r_mess=" + respCanSendMessages +
-                            ", i_lie=" + initCanLie + ", r_lie=" + respCanLie + "] Done;");
-                }
-            }
+        CostModel costModel = new CostModel();
+        for (String costsFileName : costsFileNames) {
             try {
-                getResults.writeExcel();
+                costModel.addResultsFile(new File(costsFileName));
             } catch (IOException exception) {
-                System.out.println("!!! WRITING TO EXCEL DID NOT SUCCEED !!!");
+                System.out.println("!!! COULD NOT READ COSTS: " + exception.getMessage() + " !!!");
             }
-            System.out.println("################### Finished iteration " + cnt + " ###################\n");
         }
-    }
-
-    private static void performLrExperiment() {
-        GetResults getResults = new GetResults(csvFileName, experimentName);
-
-        // Settings
-        List<Integer> initTomList = Arrays.asList(0, 1, 2);
-        List<Integer> respTomList = Arrays.asList(0, 1, 2);
-        List<Boolean> initCanLieList = Arrays.asList(true, false);
-        List<Boolean> respCanLieList = Arrays.asList(true, false);
-        List<Double> lrInitList = Arrays.asList(0.1, 0.3, 0.5);
-        List<Double> lrRespList = Arrays.asList(0.1, 0.3, 0.5);
-        boolean initCanSendMessages = true;
-        boolean respCanSendMessages = true;
-        double zeroToMProb = 0.2;
-
-        int cnt = 0;
-        while (cnt++ < ResultSettings.NUM_REP) {
-            System.out.println("--- Start Repetition " + cnt + " ---");
-            for (int initTom : initTomList) {
-                for (int respTom : respTomList) {
-                    for (boolean initCanLie : initCanLieList) {
-                        if ((initTom == 0) && !initCanLie) continue;
-                        for (boolean respCanLie : respCanLieList) {
-                            if ((respTom == 0) && !respCanLie) continue;
-                            for (double initLr : lrInitList) {
-                                for (double respLr : lrRespList) {
-                                    Game game = new Game(initTom, respTom, initLr, respLr, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages);
-                                    game.getInitiator().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
-                                    game.getResponder().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
-                                    getResults.generateNewResults(game, false);
-
-                                    System.out.println("\t[i_tom=" + initTom + ", r_tom=" + respTom +
-                                            ", i_mess=" + initCanSendMessages + ", r_mess=" + respCanSendMessages +
-                                            ", i_lie=" + initCanLie + ", r_lie=" + respCanLie + "] Done;");
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        if (!costsFileNames.isEmpty()) System.out.println("Costs measured for " + costModel.getNumberOfMeasuredKeys() + " kinds of configurations");
+        System.out.println("Experiment: " + experimentName + ", " + numConfigurations + " configurations, "
+                + grid.getRepetitions() + " repetitions, " + numTasks + " tasks");
+        if (shard != null) System.out.println("Shard " + shard + ": " + tasks.size() + " tasks");
+        System.out.println("Seed: " + seed);
+        if (coordinatorPort >= 0) {
+            if (decisionLatencies != null) System.out.println("The durations of the decisions are written by the workers");
             try {
-                getResults.writeExcel();
+                new Coordinator(getResults, checkpoint, tasks, costModel).run(coordinatorPort);
             } catch (IOException exception) {
-                System.out.println("!!! WRITING TO EXCEL DID NOT SUCCEED !!!");
+                System.out.println("!!! COORDINATOR DID NOT SUCCEED: " + exception.getMessage() + " !!!");
             }
-            System.out.println("################### Finished iteration " + cnt + " ###################\n");
+        } else {
+            ExperimentRunner runner = new ExperimentRunner(getResults, numThreads, parallelDecisions, checkpoint, costModel);
+            runner.setDecisionLatencies(decisionLatencies);
+            runner.run(tasks);
+            writeDecisionLatencies(decisionLatencies);
+        }
+        try {
+            getResults.close();
+            checkpoint.close();
+        } catch (IOException exception) {
+            System.out.println("!!! WRITING TO EXCEL DID NOT SUCCEED !!!");
         }
     }
 
-    private static void performParetoExperiment() {
-        GetResults getResults = new GetResults(csvFileName, experimentName);
-
-        // Settings
-        List<Integer> initTomList = Arrays.asList(0, 1, 2);
-        List<Integer> respTomList = Arrays.asList(0, 1, 2);
-        List<Boolean> initCanLieList = Arrays.asList(true, false);
-        List<Boolean> respCanLieList = Arrays.asList(true, false);
-        boolean initCanSendMessages = true;
-        boolean respCanSendMessages = true;
-        double zeroToMProb = 0.2;
-
-        int cnt = 0;
-        while (cnt++ < ResultSettings.NUM_REP) {
-            System.out.println("--- Start Repetition " + cnt + " ---");
-            for (int initTom : initTomList) {
-                for (int respTom : respTomList) {
-                    for (boolean initCanLie : initCanLieList) {
-                        if ((initTom == 0) && !initCanLie) continue;
-                        for (boolean respCanLie : respCanLieList) {
-                            if ((respTom == 0) && !respCanLie) continue;
-
-                            Game game = new Game(initTom, respTom, Settings.STANDARD_LR, Settings.STANDARD_LR, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages);
-                            game.getInitiator().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
-                            game.getResponder().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
-                            getResults.generateNewResults(game, true);
-
-                            System.out.println("\t[i_tom=" + initTom + ", r_tom=" + respTom +
-                                    ", i_mess=" + initCanSendMessages + ", r_mess=" + respCanSendMessages +
-                                    ", i_lie=" + initCanLie + ", r_lie=" + respCanLie + "] Done;");
-                        }
-                    }
-                }
-            }
-            try {
-                getResults.writeExcel();
-            } catch (IOException exception) {
-                System.out.println("!!! WRITING TO EXCEL DID NOT SUCCEED !!!");
-            }
-            System.out.println("################### Finished iteration " + cnt + " ###################\n");
-        }
+    private static String getResultsFileName() {
+        String fileName = csvFileName.substring(0, csvFileName.length() - ".csv".length());
+        if (shard != null) fileName += shard.getFileSuffix();
+        return fileName + (binaryResults ? BinaryResultWriter.FILE_EXTENSION : ".csv");
     }
 }
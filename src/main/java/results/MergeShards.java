@@ -0,0 +1,340 @@
+package results;
+
+import results.createResults.BinaryResultReader;
+import results.createResults.BinaryResultWriter;
+import results.createResults.CsvResultWriter;
+import results.createResults.ExperimentGrid;
+import results.createResults.ResultSettings;
+import results.createResults.ResultSummary;
+import results.createResults.ResultWriter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MergeShards class: merges the results files of the shards of an experiment (written with -shard) into one results
+ * file, ordered by cell index as if the experiment was run in one process. Every shard runs its cells in the order of
+ * their cell index, so the files are merged while reading them, without keeping them in memory. The merge fails if a
+ * cell is in more than one file, or if a cell is missing. Without -experiment or -grid, only the cells before the last
+ * cell in the files can be checked. Summary state files (written with -summary or -summary_only) are merged into one
+ * summary; as a summary has no cells, missing or duplicated cells are not detected for them.
+ */
+public class MergeShards {
+
+    private static final String EXPERIMENT_ID = "-experiment";
+    private static final String GRID_ID = "-grid";
+
+    public static void main(String[] args) {
+        String experimentName = null;
+        String gridFileName = null;
+        List<String> fileNames = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(EXPERIMENT_ID) && (i + 1 < args.length)) {
+                experimentName = args[++i];
+            } else if (args[i].equals(GRID_ID) && (i + 1 < args.length)) {
+                gridFileName = args[++i];
+            } else if (args[i].equals("-h") || args[i].equals("--help")) {
+                printHelpMessage();
+                System.exit(0);
+            } else {
+                fileNames.add(args[i]);
+            }
+        }
+        if (fileNames.size() < 2) {
+            printHelpMessage();
+            System.exit(-1);
+        }
+
+        File outputFile = new File(fileNames.get(0));
+        List<File> shardFiles = new ArrayList<>();
+        for (String fileName : fileNames.subList(1, fileNames.size())) {
+            shardFiles.add(new File(fileName));
+        }
+        if (outputFile.getName().endsWith(ResultSummary.STATE_FILE_EXTENSION)) {
+            mergeSummaries(shardFiles, outputFile);
+            return;
+        }
+
+        long numCells = -1;
+        try {
+            if (gridFileName != null) {
+                numCells = ExperimentGrid.fromFile(new File(gridFileName)).getTasks().size();
+            } else if (experimentName != null) {
+                numCells = ExperimentGrid.getBuiltIn(experimentName).getTasks().size();
+            } else {
+                System.out.println("No experiment given, missing cells after the last merged cell are not detected");
+            }
+        } catch (IOException | IllegalArgumentException exception) {
+            System.out.println("!!! EXPERIMENT NOT CORRECT: " + exception.getMessage() + " !!!");
+            System.exit(-1);
+        }
+
+        try {
+            long numMergedCells = merge(shardFiles, outputFile, numCells);
+            System.out.println("Merged " + numMergedCells + " cells of " + shardFiles.size() + " shards into " + outputFile);
+        } catch (IOException exception) {
+            if (outputFile.exists() && !outputFile.delete()) System.out.println("Could not remove " + outputFile);
+            System.out.println("!!! MERGE DID NOT SUCCEED: " + exception.getMessage() + " !!!");
+            System.exit(-1);
+        }
+    }
+
+    private static void mergeSummaries(List<File> shardFiles, File outputFile) {
+        String outputFileName = outputFile.getPath();
+        File csvOutputFile = new File(outputFileName.substring(0,
+                outputFileName.length() - ResultSummary.STATE_FILE_EXTENSION.length()) + "_summary.csv");
+        try {
+            ResultSummary summary = ResultSummary.readState(shardFiles.get(0));
+            for (File shardFile : shardFiles.subList(1, shardFiles.size())) {
+                summary.merge(ResultSummary.readState(shardFile));
+            }
+            summary.writeState(outputFile, -1);
+            summary.writeCsv(csvOutputFile);
+            System.out.println("Merged " + summary.getNumberOfRows() + " rows of " + summary.getNumberOfConfigurations()
+                    + " configurations of " + shardFiles.size() + " shards into " + csvOutputFile);
+        } catch (IOException | IllegalArgumentException exception) {
+            System.out.println("!!! MERGE DID NOT SUCCEED: " + exception.getMessage() + " !!!");
+            System.exit(-1);
+        }
+    }
+
+    private static void printHelpMessage() {
+        System.out.println("Usage: java MergeShards [options] <output file> <shard file> <shard file> ...");
+        System.out.println("  The shard files are all csv files, all binary (" + BinaryResultWriter.FILE_EXTENSION
+                + ") files or all summary state (" + ResultSummary.STATE_FILE_EXTENSION
+                + ") files, the output file is written in the same format");
+        System.out.println("Options:");
+        System.out.println("  " + EXPERIMENT_ID + " <string>    ID of the experiment of the shards, to check that no cells are missing");
+        System.out.println("  " + GRID_ID + " <file>    File with the grid of the experiment of the shards, used instead of " + EXPERIMENT_ID);
+        System.out.println("  -h, --help      Print this message and exit");
+    }
+
+    /**
+     * Merges the results files of the shards into one results file, ordered by cell index.
+     *
+     * @param shardFiles The results files of the shards
+     * @param outputFile The merged results file
+     * @param numCells   The number of cells of the experiment, or -1 if unknown
+     * @return The number of merged cells
+     * @throws IOException If a file cannot be read or written, or if a cell is missing or in more than one file
+     */
+    public static long merge(List<File> shardFiles, File outputFile, long numCells) throws IOException {
+        boolean binaryResults = shardFiles.get(0).getName().endsWith(BinaryResultWriter.FILE_EXTENSION);
+        List<ShardReader> readers = new ArrayList<>();
+        try {
+            for (File shardFile : shardFiles) {
+                if (shardFile.getName().endsWith(BinaryResultWriter.FILE_EXTENSION) != binaryResults) {
+                    throw new IOException("Shard files are not all of the same format");
+                }
+                readers.add(binaryResults ? new BinaryShardReader(shardFile) : new CsvShardReader(shardFile));
+                if (!Arrays.equals(readers.get(0).columnNames, readers.get(readers.size() - 1).columnNames)) {
+                    throw new IOException("Shard file " + shardFile + " has different columns than " + shardFiles.get(0));
+                }
+            }
+
+            ResultWriter writer = binaryResults
+                    ? new BinaryResultWriter(outputFile, readers.get(0).columnNames)
+                    : new CsvResultWriter(outputFile, readers.get(0).columnNames);
+            long nextCell = 0;
+            try {
+                while (true) {
+                    ShardReader reader = null;
+                    for (ShardReader shardReader : readers) {
+                        if (shardReader.hasRow() && (reader == null || shardReader.getCell() < reader.getCell())) {
+                            reader = shardReader;
+                        }
+                    }
+                    if (reader == null) break;
+
+                    long cell = reader.getCell();
+                    if (cell < nextCell) {
+                        throw new IOException("Cell " + cell + " is more than once in the shards (" + reader.file + ")");
+                    } else if (cell > nextCell) {
+                        throw new IOException(getMissingCellsMessage(nextCell, cell));
+                    }
+                    while (reader.hasRow() && reader.getCell() == cell) {
+                        writer.append(ResultWriter.UNKNOWN_CONFIGURATION, reader.getRow());
+                        reader.next();
+                    }
+                    nextCell++;
+                }
+                if (numCells >= 0 && nextCell < numCells) {
+                    throw new IOException(getMissingCellsMessage(nextCell, numCells));
+                } else if (numCells >= 0 && nextCell > numCells) {
+                    throw new IOException("Shards have " + nextCell + " cells, the experiment has " + numCells);
+                }
+            } finally {
+                writer.close();
+            }
+            return nextCell;
+        } finally {
+            for (ShardReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static String getMissingCellsMessage(long firstMissingCell, long nextPresentCell) {
+        if (nextPresentCell - firstMissingCell == 1) return "Cell " + firstMissingCell + " is missing";
+        return "Cells " + firstMissingCell + " to " + (nextPresentCell - 1) + " are missing";
+    }
+
+    /**
+     * Reads the rows of a results file of a shard one by one, together with their cell index.
+     */
+    private abstract static class ShardReader {
+
+        final File file;
+
+        String[] columnNames;
+
+        int cellColumn;
+
+        ShardReader(File file) {
+            this.file = file;
+        }
+
+        void setColumnNames(String[] columnNames) throws IOException {
+            this.columnNames = columnNames;
+            this.cellColumn = Arrays.asList(columnNames).indexOf(ResultSettings.cellIndex);
+            if (cellColumn < 0) {
+                throw new IOException("Shard file " + file + " has no column " + ResultSettings.cellIndex);
+            }
+        }
+
+        abstract boolean hasRow();
+
+        abstract long getCell();
+
+        abstract Object[] getRow();
+
+        abstract void next() throws IOException;
+
+        abstract void close() throws IOException;
+    }
+
+    /**
+     * Reads a csv results file. The values are kept as text, so they are written to the merged file unchanged.
+     */
+    private static class CsvShardReader extends ShardReader {
+
+        private final BufferedReader reader;
+
+        private String[] row;
+
+        CsvShardReader(File file) throws IOException {
+            super(file);
+            this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+            String header = reader.readLine();
+            if (header == null) throw new IOException("Shard file " + file + " is empty");
+            setColumnNames(header.split(","));
+            next();
+        }
+
+        @Override
+        boolean hasRow() {
+            return row != null;
+        }
+
+        @Override
+        long getCell() {
+            return Long.parseLong(row[cellColumn]);
+        }
+
+        @Override
+        Object[] getRow() {
+            return row;
+        }
+
+        @Override
+        void next() throws IOException {
+            String line = reader.readLine();
+            row = (line == null || line.isEmpty()) ? null : line.split(",", -1);
+            if (row != null && row.length != columnNames.length) {
+                throw new IOException("Shard file " + file + " has a row with " + row.length + " values");
+            }
+        }
+
+        @Override
+        void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads a binary results file row group by row group.
+     */
+    private static class BinaryShardReader extends ShardReader {
+
+        private final BinaryResultReader reader;
+
+        private int rowGroup = -1;
+
+        private Object[] columns;
+
+        private int numRows;
+
+        private int row;
+
+        BinaryShardReader(File file) throws IOException {
+            super(file);
+            this.reader = new BinaryResultReader(file);
+            setColumnNames(reader.getColumnNames());
+            nextRowGroup();
+        }
+
+        @Override
+        boolean hasRow() {
+            return row < numRows;
+        }
+
+        @Override
+        long getCell() {
+            return ((int[]) columns[cellColumn])[row];
+        }
+
+        @Override
+        Object[] getRow() {
+            Object[] values = new Object[columns.length];
+            for (int column = 0; column < columns.length; column++) {
+                Object block = columns[column];
+                if (block instanceof boolean[]) {
+                    values[column] = ((boolean[]) block)[row];
+                } else if (block instanceof int[]) {
+                    values[column] = ((int[]) block)[row];
+                } else {
+                    values[column] = ((double[]) block)[row];
+                }
+            }
+            return values;
+        }
+
+        @Override
+        void next() throws IOException {
+            row++;
+            if (row >= numRows) nextRowGroup();
+        }
+
+        private void nextRowGroup() throws IOException {
+            row = 0;
+            numRows = 0;
+            while (numRows == 0 && rowGroup + 1 < reader.getNumberOfRowGroups()) {
+                rowGroup++;
+                columns = reader.readRowGroup(rowGroup);
+                numRows = reader.getRowGroupSize(rowGroup);
+            }
+        }
+
+        @Override
+        void close() throws IOException {
+            reader.close();
+        }
+    }
+}
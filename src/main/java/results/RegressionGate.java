@@ -0,0 +1,411 @@
+package results;
+
+import lyingAgents.model.Game;
+import lyingAgents.utilities.GameSetting;
+import lyingAgents.utilities.RandomSource;
+import lyingAgents.utilities.Settings;
+import results.createResults.ExperimentConfiguration;
+import results.createResults.ExperimentGrid;
+import results.createResults.GetResults;
+import results.createResults.ResultElement;
+import results.createResults.ResultSettings;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RegressionGate class: checks that a change of the code does not change the behaviour of the agents and does not make
+ * the simulation slower. A corpus of game settings, generated from a seed, is played by every configuration of agents of
+ * a grid: every configuration plays all settings in turn with one game, so the agents learn across the settings as
+ * they do across rounds. For every negotiation, the moves and messages (see Game.getOfferHistory) and the values of
+ * the result element (apart from the passed time) form a trace.
+ * <p>
+ * With -record, the traces are written as golden traces and the throughput (games per second) as baseline. Without
+ * it, the traces are compared to the golden traces and the throughput to the baseline, and the gate fails (exit code
+ * 1) if a trace differs or if the throughput is lower than the baseline by more than the margin. The throughput is the
+ * best of several passes over the corpus, so that the first pass warms up the JVM. A baseline only holds for the
+ * machine on which it is recorded; -record_baseline records it again without changing the golden traces.
+ * <p>
+ * The golden traces in regression are the traces of the original model (commit f365f02, before the optimizations of
+ * the search and the beliefs): played there with Math.random replaced by the seeded RandomSource, which draws the
+ * numbers in the same order, every trace is the same as the recorded one. Traces recorded with -record are snapshots
+ * of the code at hand, so only record them when a change of the behaviour is intended.
+ */
+public class RegressionGate {
+
+    private static final String RECORD_ID = "-record";
+    private static final String RECORD_BASELINE_ID = "-record_baseline";
+    private static final String DIRECTORY_ID = "-dir";
+    private static final String SETTINGS_ID = "-settings";
+    private static final String SEED_ID = "-seed";
+    private static final String MARGIN_ID = "-margin";
+    private static final String PASSES_ID = "-passes";
+    private static final String NO_THROUGHPUT_ID = "-no_throughput";
+
+    private static final String TRACES_FILE_NAME = "golden_traces.txt";
+    private static final String BASELINE_FILE_NAME = "baseline.txt";
+
+    private static final String SEED = "seed";
+    private static final String SETTINGS = "settings";
+    private static final String COLUMNS = "columns";
+    private static final String GRID = "grid";
+    private static final String CASE = "case";
+    private static final String GAMES_PER_SECOND = "games_per_second";
+
+    /**
+     * Largest number of differing traces that is printed
+     */
+    private static final int MAX_PRINTED_DIFFERENCES = 10;
+
+    /**
+     * The agent configurations of the corpus: every pair of orders of theory of mind, with agents that lie, honest
+     * agents that send messages, and agents that send no messages
+     */
+    private static final String CORPUS_GRID = String.join("\n",
+            ResultSettings.initTom + " = 0, 1, 2",
+            ResultSettings.respTom + " = 0, 1, 2",
+            ResultSettings.initCanSendMessages + " = true, false",
+            ResultSettings.respCanSendMessages + " = true, false",
+            ResultSettings.initCanLie + " = true, false",
+            ResultSettings.respCanLie + " = true, false",
+            ExperimentGrid.ZERO_TOM_PROB + " = 0.2",
+            ExperimentGrid.EXCLUDE + " = " + ResultSettings.initCanSendMessages + " == false && " + ResultSettings.respCanSendMessages + " == true",
+            ExperimentGrid.EXCLUDE + " = " + ResultSettings.initCanSendMessages + " == true && " + ResultSettings.respCanSendMessages + " == false",
+            ExperimentGrid.EXCLUDE + " = " + ResultSettings.initCanLie + " == true && " + ResultSettings.respCanLie + " == false",
+            ExperimentGrid.EXCLUDE + " = " + ResultSettings.initCanLie + " == false && " + ResultSettings.respCanLie + " == true",
+            ExperimentGrid.EXCLUDE + " = " + ResultSettings.initCanSendMessages + " == false && " + ResultSettings.initCanLie + " == true");
+
+    private static boolean record = false;
+    private static boolean recordBaseline = false;
+    private static String directoryName = "regression";
+    private static int numSettings = 4;
+    private static long seed = 1;
+    private static double margin = 0.10;
+    private static int numPasses = 3;
+    private static boolean checkThroughput = true;
+
+    public static void main(String[] args) {
+        handleArguments(args);
+        File tracesFile = new File(directoryName, TRACES_FILE_NAME);
+        File baselineFile = new File(directoryName, BASELINE_FILE_NAME);
+        try {
+            if (record) {
+                Corpus corpus = new Corpus(seed, numSettings, CORPUS_GRID);
+                double gamesPerSecond = replay(corpus, null);
+                File directory = new File(directoryName);
+                if (!directory.isDirectory() && !directory.mkdirs()) throw new IOException("Could not make " + directory);
+                corpus.writeTraces(tracesFile);
+                writeBaseline(baselineFile, gamesPerSecond);
+                System.out.println("Recorded " + corpus.traces.size() + " golden traces to " + tracesFile + " and "
+                        + formatNumber(gamesPerSecond) + " games/s to " + baselineFile);
+                return;
+            }
+
+            Corpus golden = Corpus.readTraces(tracesFile);
+            Corpus corpus = new Corpus(golden.seed, golden.numSettings, golden.gridDefinition);
+            double gamesPerSecond = replay(corpus, golden);
+            boolean isPassed = compareTraces(golden, corpus);
+            if (isPassed && recordBaseline) {
+                writeBaseline(baselineFile, gamesPerSecond);
+                System.out.println("Recorded " + formatNumber(gamesPerSecond) + " games/s to " + baselineFile);
+            } else if (checkThroughput) {
+                isPassed &= compareThroughput(readBaseline(baselineFile), gamesPerSecond);
+            }
+            System.out.println(isPassed ? "REGRESSION GATE PASSED" : "!!! REGRESSION GATE FAILED !!!");
+            System.exit(isPassed ? 0 : 1);
+        } catch (IOException | IllegalArgumentException exception) {
+            System.out.println("!!! REGRESSION GATE NOT RUN: " + exception.getMessage() + " !!!");
+            System.exit(-1);
+        }
+    }
+
+    private static void handleArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            try {
+                if (option.equals(RECORD_ID)) {
+                    record = true;
+                } else if (option.equals(RECORD_BASELINE_ID)) {
+                    recordBaseline = true;
+                } else if (option.equals(NO_THROUGHPUT_ID)) {
+                    checkThroughput = false;
+                } else if (option.equals(DIRECTORY_ID) && (i + 1 < args.length)) {
+                    directoryName = args[++i];
+                } else if (option.equals(SETTINGS_ID) && (i + 1 < args.length)) {
+                    numSettings = Integer.parseInt(args[++i]);
+                    if (numSettings < 1) throw new NumberFormatException();
+                } else if (option.equals(SEED_ID) && (i + 1 < args.length)) {
+                    seed = Long.parseLong(args[++i]);
+                } else if (option.equals(MARGIN_ID) && (i + 1 < args.length)) {
+                    margin = Double.parseDouble(args[++i]);
+                    if (!(margin >= 0 && margin < 1)) throw new NumberFormatException();
+                } else if (option.equals(PASSES_ID) && (i + 1 < args.length)) {
+                    numPasses = Integer.parseInt(args[++i]);
+                    if (numPasses < 1) throw new NumberFormatException();
+                } else if (option.equals("-h") || option.equals("--help")) {
+                    printHelpMessage();
+                    System.exit(0);
+                } else {
+                    System.out.println("Option '" + option + "' not correct.");
+                    printHelpMessage();
+                    System.exit(-1);
+                }
+            } catch (NumberFormatException ex) {
+                System.out.println("Value '" + args[i] + "' of " + option + " not correct.");
+                System.exit(-1);
+            }
+        }
+    }
+
+    private static void printHelpMessage() {
+        System.out.println("Usage: java RegressionGate [options]");
+        System.out.println("  Without " + RECORD_ID + ", compares the traces to the golden traces and the throughput to the baseline");
+        System.out.println("Options:");
+        System.out.println("  " + RECORD_ID + "    Record the golden traces and the baseline, replacing the existing ones");
+        System.out.println("  " + RECORD_BASELINE_ID + "    Check the traces, then record only the baseline of this machine");
+        System.out.println("  " + DIRECTORY_ID + " <dir>    Directory of the golden traces and the baseline, default = " + directoryName);
+        System.out.println("  " + SETTINGS_ID + " <int>    Number of game settings of a recorded corpus, default = " + numSettings);
+        System.out.println("  " + SEED_ID + " <long>    Seed of a recorded corpus, default = " + seed);
+        System.out.println("  " + MARGIN_ID + " <double>    Largest allowed relative drop of the throughput, default = " + margin);
+        System.out.println("  " + PASSES_ID + " <int>    Number of passes over the corpus, of which the fastest is the throughput, default = " + numPasses);
+        System.out.println("  " + NO_THROUGHPUT_ID + "    Only compare the traces, not the throughput");
+        System.out.println("  -h, --help      Print this message and exit");
+    }
+
+    /**
+     * Plays the corpus numPasses times, keeping the traces of the first pass.
+     *
+     * @param corpus The corpus, of which the traces are made
+     * @param golden The golden traces, used to report progress, or null
+     * @return The games per second of the fastest pass
+     */
+    private static double replay(Corpus corpus, Corpus golden) {
+        int numGames = corpus.configurations.size() * corpus.settings.length;
+        double bestSeconds = Double.POSITIVE_INFINITY;
+        for (int pass = 0; pass < numPasses; pass++) {
+            long startTime = System.nanoTime();
+            List<String> traces = corpus.play();
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            bestSeconds = Math.min(bestSeconds, seconds);
+            if (pass == 0) corpus.traces.addAll(traces);
+            System.out.println("Pass " + (pass + 1) + ": " + numGames + " games in " + formatNumber(seconds) + " s"
+                    + ((golden != null && pass == 0) ? ", " + golden.traces.size() + " golden traces" : ""));
+        }
+        return numGames / bestSeconds;
+    }
+
+    private static boolean compareTraces(Corpus golden, Corpus corpus) {
+        if (!Arrays.equals(golden.columns, corpus.columns)) {
+            System.out.println("!!! Columns of the results changed: " + String.join(",", golden.columns) + " -> "
+                    + String.join(",", corpus.columns) + "; record the golden traces again if this is intended !!!");
+            return false;
+        }
+        int numDifferences = 0;
+        for (int i = 0; i < Math.max(golden.traces.size(), corpus.traces.size()); i++) {
+            String goldenTrace = (i < golden.traces.size()) ? golden.traces.get(i) : "<none>";
+            String trace = (i < corpus.traces.size()) ? corpus.traces.get(i) : "<none>";
+            if (goldenTrace.equals(trace)) continue;
+            numDifferences++;
+            if (numDifferences <= MAX_PRINTED_DIFFERENCES) {
+                System.out.println("Trace " + i + " differs:");
+                System.out.println("  golden: " + goldenTrace);
+                System.out.println("  now:    " + trace);
+                String difference = getResultDifference(golden.columns, goldenTrace, trace);
+                if (!difference.isEmpty()) System.out.println("  changed values: " + difference);
+            }
+        }
+        System.out.println(numDifferences + " of " + golden.traces.size() + " traces differ from the golden traces");
+        return numDifferences == 0;
+    }
+
+    private static String getResultDifference(String[] columns, String goldenTrace, String trace) {
+        String[] goldenValues = getResultValues(goldenTrace);
+        String[] values = getResultValues(trace);
+        if (goldenValues.length != columns.length || values.length != columns.length) return "";
+        List<String> differences = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            if (!goldenValues[i].equals(values[i])) differences.add(columns[i] + " " + goldenValues[i] + " -> " + values[i]);
+        }
+        return String.join(", ", differences);
+    }
+
+    private static String[] getResultValues(String trace) {
+        int start = trace.indexOf(" result=");
+        return (start < 0) ? new String[0] : trace.substring(start + " result=".length()).split(",", -1);
+    }
+
+    private static boolean compareThroughput(double baseline, double gamesPerSecond) {
+        double change = gamesPerSecond / baseline - 1;
+        System.out.println("Throughput: " + formatNumber(gamesPerSecond) + " games/s, baseline " + formatNumber(baseline)
+                + " games/s (" + String.format(Locale.ROOT, "%+.1f%%", 100 * change) + ", allowed -"
+                + String.format(Locale.ROOT, "%.1f%%", 100 * margin) + ")");
+        if (gamesPerSecond >= baseline * (1 - margin)) return true;
+        System.out.println("!!! Throughput dropped by more than the margin !!!");
+        return false;
+    }
+
+    private static void writeBaseline(File baselineFile, double gamesPerSecond) throws IOException {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(baselineFile), StandardCharsets.UTF_8))) {
+            out.println("# Throughput baseline of the regression gate, only valid on the machine on which it was recorded");
+            out.println(GAMES_PER_SECOND + " " + gamesPerSecond);
+            out.println("java_version " + System.getProperty("java.version"));
+            out.println("available_processors " + Runtime.getRuntime().availableProcessors());
+            if (out.checkError()) throw new IOException("Could not write " + baselineFile);
+        }
+    }
+
+    private static double readBaseline(File baselineFile) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(baselineFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(GAMES_PER_SECOND + " ")) {
+                    return Double.parseDouble(line.substring(GAMES_PER_SECOND.length() + 1).trim());
+                }
+            }
+        } catch (NumberFormatException exception) {
+            throw new IOException("Baseline " + baselineFile + " is not correct");
+        }
+        throw new IOException("Baseline " + baselineFile + " has no " + GAMES_PER_SECOND);
+    }
+
+    private static String formatNumber(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * The corpus of the gate: the seed and number of the game settings, the grid of the agent configurations and the
+     * traces of the negotiations, ordered by configuration and then by game setting.
+     */
+    private static class Corpus {
+
+        final long seed;
+
+        final int numSettings;
+
+        final String gridDefinition;
+
+        final List<ExperimentConfiguration> configurations;
+
+        final GameSetting[] settings;
+
+        /**
+         * The names of the values of the result element in the traces
+         */
+        String[] columns;
+
+        final List<String> traces = new ArrayList<>();
+
+        Corpus(long seed, int numSettings, String gridDefinition) {
+            this.seed = seed;
+            this.numSettings = numSettings;
+            this.gridDefinition = gridDefinition;
+            this.configurations = new ExperimentGrid(gridDefinition, "regression").getConfigurations();
+            this.settings = new GameSetting[numSettings];
+            for (int i = 0; i < numSettings; i++) {
+                Game game = new Game(0, 0, Settings.STANDARD_LR, Settings.STANDARD_LR, false, false, false, false,
+                        new RandomSource(RandomSource.mixSeed(seed, i)));
+                settings[i] = game.getGameSetting();
+            }
+            List<String> valueColumns = new ArrayList<>(Arrays.asList(GetResults.getValueHeaders()));
+            valueColumns.remove(ResultSettings.timePassed);
+            this.columns = valueColumns.toArray(new String[0]);
+        }
+
+        /**
+         * Plays all game settings with every configuration.
+         *
+         * @return The traces of the negotiations
+         */
+        List<String> play() {
+            List<String> traces = new ArrayList<>();
+            int timeColumn = Arrays.asList(GetResults.getValueHeaders()).indexOf(ResultSettings.timePassed);
+            for (int configurationIndex = 0; configurationIndex < configurations.size(); configurationIndex++) {
+                ExperimentConfiguration configuration = configurations.get(configurationIndex);
+                Game game = configuration.createGame(false, new RandomSource(RandomSource.mixSeed(seed, numSettings + configurationIndex)));
+                game.setSimulationOff();
+                for (int settingIndex = 0; settingIndex < settings.length; settingIndex++) {
+                    game.newGameSettings(settings[settingIndex]);
+                    game.playTillEnd();
+
+                    StringBuilder trace = new StringBuilder(CASE + " " + configurationIndex + " " + settingIndex + " moves=");
+                    List<Integer> offers = game.getOfferHistory();
+                    List<Integer> messages = game.getMessageHistory();
+                    for (int move = 0; move < offers.size(); move++) {
+                        if (move > 0) trace.append(',');
+                        trace.append(offers.get(move)).append('/').append(messages.get(move));
+                    }
+                    trace.append(" result=");
+                    Object[] values = GetResults.getValues(new ResultElement(game, 0.0));
+                    for (int i = 0; i < values.length; i++) {
+                        if (i == timeColumn) continue;
+                        if (trace.charAt(trace.length() - 1) != '=') trace.append(',');
+                        trace.append(values[i]);
+                    }
+                    traces.add(trace.toString());
+                }
+            }
+            return traces;
+        }
+
+        void writeTraces(File tracesFile) throws IOException {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(tracesFile), StandardCharsets.UTF_8))) {
+                out.println("# Golden traces of the regression gate, written by RegressionGate " + RECORD_ID);
+                out.println("# A case is: configuration index, game setting index, moves (offer/location message), result values");
+                out.println(SEED + " " + seed);
+                out.println(SETTINGS + " " + numSettings);
+                for (String line : gridDefinition.split("\\R")) {
+                    out.println(GRID + " " + line);
+                }
+                out.println(COLUMNS + " " + String.join(",", columns));
+                for (String trace : traces) {
+                    out.println(trace);
+                }
+                if (out.checkError()) throw new IOException("Could not write " + tracesFile);
+            }
+        }
+
+        static Corpus readTraces(File tracesFile) throws IOException {
+            Long seed = null;
+            Integer numSettings = null;
+            List<String> gridLines = new ArrayList<>();
+            String[] columns = null;
+            List<String> traces = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(tracesFile), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(CASE + " ")) {
+                        traces.add(line);
+                    } else if (line.startsWith(SEED + " ")) {
+                        seed = Long.parseLong(line.substring(SEED.length() + 1).trim());
+                    } else if (line.startsWith(SETTINGS + " ")) {
+                        numSettings = Integer.parseInt(line.substring(SETTINGS.length() + 1).trim());
+                    } else if (line.startsWith(GRID + " ")) {
+                        gridLines.add(line.substring(GRID.length() + 1));
+                    } else if (line.startsWith(COLUMNS + " ")) {
+                        columns = line.substring(COLUMNS.length() + 1).split(",");
+                    }
+                }
+            } catch (NumberFormatException exception) {
+                throw new IOException("Golden traces " + tracesFile + " are not correct");
+            }
+            if (seed == null || numSettings == null || gridLines.isEmpty() || columns == null) {
+                throw new IOException("Golden traces " + tracesFile + " are not complete");
+            }
+            Corpus corpus = new Corpus(seed, numSettings, String.join("\n", gridLines));
+            corpus.columns = columns;
+            corpus.traces.addAll(traces);
+            return corpus;
+        }
+    }
+}
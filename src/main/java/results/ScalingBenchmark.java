@@ -0,0 +1,382 @@
+package results;
+
+import lyingAgents.utilities.RandomSource;
+import results.createResults.Checkpoint;
+import results.createResults.CostModel;
+import results.createResults.ExperimentGrid;
+import results.createResults.ExperimentRunner;
+import results.createResults.ExperimentTask;
+import results.createResults.GetResults;
+import results.createResults.QuantileSketch;
+import results.createResults.ResultSettings;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ScalingBenchmark class: measures how the experiment runner scales with the number of threads. A fixed slice of the
+ * cells of an experiment, chosen with a fixed seed (see getSlice), is run with 1, 2, 4, ... up to the maximum number
+ * of threads, in the same way as MainResults runs an experiment (results file, checkpoint and cost model included):
+ * <ul>
+ * <li>strong scaling: the same cells for every number of threads;</li>
+ * <li>weak scaling: a number of cells proportional to the number of threads.</li>
+ * </ul>
+ * For every run, the number of games per second, the distribution of the times of the cells and the parallel
+ * efficiency (games per second relative to the number of threads times the games per second of one thread) are
+ * written to a json report, so that reports of different versions of the code can be compared. Every cell plays its
+ * warm-up rounds and kept rounds, which are counted as games. Before the measured runs, a run that is not reported
+ * warms up the JVM.
+ */
+public class ScalingBenchmark {
+
+    private static final String EXPERIMENT_ID = "-experiment";
+    private static final String GRID_ID = "-grid";
+    private static final String SEED_ID = "-seed";
+    private static final String MAX_THREADS_ID = "-max_threads";
+    private static final String CELLS_PER_THREAD_ID = "-cells_per_thread";
+    private static final String CELLS_ID = "-cells";
+    private static final String WARMUP_ROUNDS_ID = "-warmup_rounds";
+    private static final String KEEP_ROUNDS_ID = "-keep_rounds";
+    private static final String MODE_ID = "-mode";
+    private static final String OUTPUT_ID = "-output";
+
+    private static final String STRONG = "strong";
+    private static final String WEAK = "weak";
+    private static final String BOTH = "both";
+
+    /**
+     * Name of the experiment under which the results of the runs are written (and removed afterwards)
+     */
+    private static final String BENCHMARK_EXPERIMENT_NAME = "scaling_benchmark";
+
+    private static final double[] REPORTED_QUANTILES = {0.5, 0.9, 0.99};
+
+    private static String experimentName = "main";
+    private static String gridFileName = null;
+    private static long seed = 1;
+    private static int maxThreads = Runtime.getRuntime().availableProcessors();
+    private static int cellsPerThread = 4;
+    private static int strongCells = -1;
+    private static int warmupRounds = 10;
+    private static int keepRounds = ResultSettings.KEEP_RESULTS_NR_ROUNDS;
+    private static String mode = BOTH;
+    private static String outputFileName = "scaling_report.json";
+
+    public static void main(String[] args) {
+        handleArguments(args);
+        if (strongCells < 0) strongCells = cellsPerThread * maxThreads;
+
+        ExperimentGrid grid;
+        List<ExperimentTask> slice;
+        try {
+            ExperimentGrid baseGrid = (gridFileName == null)
+                    ? ExperimentGrid.getBuiltIn(experimentName) : ExperimentGrid.fromFile(new File(gridFileName));
+            int numCells = Math.max(mode.equals(WEAK) ? 0 : strongCells, mode.equals(STRONG) ? 0 : cellsPerThread * maxThreads);
+            int numBlocks = (numCells + cellsPerThread - 1) / cellsPerThread;
+            int repetitions = numBlocks * getRepetitionsPerBlock(baseGrid.getConfigurations().size());
+            grid = new ExperimentGrid(String.join("\n", baseGrid.getDefinition(),
+                    "# Settings of the scaling benchmark",
+                    ExperimentGrid.REPETITIONS + " = " + repetitions,
+                    ExperimentGrid.WARMUP_ROUNDS + " = " + warmupRounds,
+                    ExperimentGrid.KEEP_ROUNDS + " = " + keepRounds), baseGrid.getName());
+            slice = getSlice(grid, numCells);
+        } catch (IOException | IllegalArgumentException exception) {
+            System.out.println("!!! EXPERIMENT NOT CORRECT: " + exception.getMessage() + " !!!");
+            System.exit(-1);
+            return;
+        }
+        System.out.println("Scaling benchmark of " + grid.getName() + ": " + slice.size() + " cells of "
+                + grid.getConfigurations().size() + " configurations, seed " + seed + ", up to " + maxThreads + " threads");
+
+        try {
+            runMeasured(grid, slice.subList(0, Math.min(cellsPerThread, slice.size())), maxThreads);
+
+            List<RunReport> strongRuns = new ArrayList<>();
+            List<RunReport> weakRuns = new ArrayList<>();
+            for (int numThreads : getThreadCounts()) {
+                if (!mode.equals(WEAK)) {
+                    strongRuns.add(runMeasured(grid, slice.subList(0, strongCells), numThreads));
+                    printRun(STRONG, strongRuns);
+                }
+                if (!mode.equals(STRONG)) {
+                    weakRuns.add(runMeasured(grid, slice.subList(0, cellsPerThread * numThreads), numThreads));
+                    printRun(WEAK, weakRuns);
+                }
+            }
+            writeReport(new File(outputFileName), grid, strongRuns, weakRuns);
+            System.out.println("Report written to " + outputFileName);
+        } catch (IOException exception) {
+            System.out.println("!!! SCALING BENCHMARK DID NOT SUCCEED: " + exception.getMessage() + " !!!");
+            System.exit(-1);
+        }
+    }
+
+    private static void handleArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("-h") || option.equals("--help")) {
+                printHelpMessage();
+                System.exit(0);
+            } else if (i + 1 >= args.length) {
+                System.out.println("Option '" + option + "' not correct.");
+                printHelpMessage();
+                System.exit(-1);
+            }
+
+            String value = args[++i];
+            try {
+                if (option.equals(EXPERIMENT_ID)) {
+                    experimentName = value;
+                } else if (option.equals(GRID_ID)) {
+                    gridFileName = value;
+                } else if (option.equals(SEED_ID)) {
+                    seed = Long.parseLong(value);
+                } else if (option.equals(MAX_THREADS_ID)) {
+                    maxThreads = parsePositive(value);
+                } else if (option.equals(CELLS_PER_THREAD_ID)) {
+                    cellsPerThread = parsePositive(value);
+                } else if (option.equals(CELLS_ID)) {
+                    strongCells = parsePositive(value);
+                } else if (option.equals(WARMUP_ROUNDS_ID)) {
+                    warmupRounds = Integer.parseInt(value);
+                    if (warmupRounds < 0) throw new NumberFormatException();
+                } else if (option.equals(KEEP_ROUNDS_ID)) {
+                    keepRounds = parsePositive(value);
+                } else if (option.equals(MODE_ID) && (value.equals(STRONG) || value.equals(WEAK) || value.equals(BOTH))) {
+                    mode = value;
+                } else if (option.equals(OUTPUT_ID)) {
+                    outputFileName = value;
+                } else {
+                    System.out.println("Option '" + option + " " + value + "' not correct.");
+                    printHelpMessage();
+                    System.exit(-1);
+                }
+            } catch (NumberFormatException ex) {
+                System.out.println("Value '" + value + "' of " + option + " not correct.");
+                System.exit(-1);
+            }
+        }
+    }
+
+    private static int parsePositive(String value) {
+        int number = Integer.parseInt(value);
+        if (number < 1) throw new NumberFormatException();
+        return number;
+    }
+
+    private static void printHelpMessage() {
+        System.out.println("Usage: java ScalingBenchmark [options]");
+        System.out.println("Options:");
+        System.out.println("  " + EXPERIMENT_ID + " <string>    ID of the experiment of which cells are run, default = " + experimentName + ", options = " + ExperimentGrid.BUILT_IN_NAMES);
+        System.out.println("  " + GRID_ID + " <file>    File with the grid of the experiment, used instead of " + EXPERIMENT_ID + "; must not set the rounds");
+        System.out.println("  " + SEED_ID + " <long>    Seed of the choice of the cells and of their random numbers, default = " + seed);
+        System.out.println("  " + MAX_THREADS_ID + " <int>    Largest number of threads, default = the number of processors (" + maxThreads + ")");
+        System.out.println("  " + CELLS_PER_THREAD_ID + " <int>    Number of cells per thread of the weak scaling runs, default = " + cellsPerThread);
+        System.out.println("  " + CELLS_ID + " <int>    Number of cells of the strong scaling runs, default = " + CELLS_PER_THREAD_ID + " times " + MAX_THREADS_ID);
+        System.out.println("  " + WARMUP_ROUNDS_ID + " <int>    Warm-up rounds of every cell, default = " + warmupRounds);
+        System.out.println("  " + KEEP_ROUNDS_ID + " <int>    Kept rounds of every cell, default = " + keepRounds);
+        System.out.println("  " + MODE_ID + " <" + STRONG + "|" + WEAK + "|" + BOTH + ">    Scaling runs to do, default = " + mode);
+        System.out.println("  " + OUTPUT_ID + " <file>    File of the json report, default = " + outputFileName);
+        System.out.println("  -h, --help      Print this message and exit");
+    }
+
+    /**
+     * Chooses the cells of the benchmark. A random choice of cellsPerThread configurations, fixed by the seed, is taken
+     * in the first repetitions, then again in the next repetitions, and so on, and a run takes the first cells. Every
+     * block of cellsPerThread cells thus has the same configurations, so the work of the weak scaling runs is
+     * proportional to the number of threads, while every cell has its own random numbers. The cells of a run are
+     * ordered by cell index, as the runner expects.
+     *
+     * @param grid     The grid of the experiment, with enough repetitions
+     * @param numCells The number of cells to choose
+     * @return The chosen tasks, in the order in which runs take them
+     */
+    private static List<ExperimentTask> getSlice(ExperimentGrid grid, int numCells) {
+        List<Integer> configurationIndices = new ArrayList<>();
+        for (int i = 0; i < grid.getConfigurations().size(); i++) {
+            configurationIndices.add(i);
+        }
+        RandomSource random = new RandomSource(seed);
+        for (int i = configurationIndices.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            configurationIndices.set(i, configurationIndices.set(j, configurationIndices.get(i)));
+        }
+
+        int repetitionsPerBlock = getRepetitionsPerBlock(grid.getConfigurations().size());
+        List<ExperimentTask> tasks = new ArrayList<>();
+        for (int n = 0; n < numCells; n++) {
+            int block = n / cellsPerThread;
+            int position = n % cellsPerThread;
+            int rep = block * repetitionsPerBlock + position / configurationIndices.size() + 1;
+            int configurationIndex = configurationIndices.get(position % configurationIndices.size());
+            tasks.add(new ExperimentTask(grid.getCellIndex(rep, configurationIndex), rep, configurationIndex,
+                    grid.getConfigurations().get(configurationIndex)));
+        }
+        return tasks;
+    }
+
+    /**
+     * Gives the number of repetitions of a block of cellsPerThread cells, more than one if there are fewer
+     * configurations than cells per thread.
+     */
+    private static int getRepetitionsPerBlock(int numConfigurations) {
+        return (cellsPerThread + numConfigurations - 1) / numConfigurations;
+    }
+
+    private static List<Integer> getThreadCounts() {
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int numThreads = 1; numThreads < maxThreads; numThreads *= 2) {
+            threadCounts.add(numThreads);
+        }
+        threadCounts.add(maxThreads);
+        return threadCounts;
+    }
+
+    /**
+     * Runs cells with the experiment runner and measures the run. The results are written to a scratch results file,
+     * which is removed after the run.
+     *
+     * @param grid       The grid of the cells
+     * @param cells      The cells to run
+     * @param numThreads The number of threads
+     * @return The measurements of the run
+     * @throws IOException If the results cannot be written
+     */
+    private static RunReport runMeasured(ExperimentGrid grid, List<ExperimentTask> cells, int numThreads) throws IOException {
+        List<ExperimentTask> tasks = new ArrayList<>(cells);
+        tasks.sort(Comparator.comparingLong(ExperimentTask::getCellIndex));
+        String fileName = "results_" + numThreads + "_threads.csv";
+        File resultsFile = GetResults.getResultsFile(fileName, BENCHMARK_EXPERIMENT_NAME);
+        File journalFile = Checkpoint.getJournalFile(resultsFile);
+        if (!resultsFile.getParentFile().isDirectory() && !resultsFile.getParentFile().mkdirs()) {
+            throw new IOException("Could not make the directory " + resultsFile.getParentFile());
+        }
+
+        RunReport report = new RunReport(numThreads, tasks.size());
+        for (ExperimentTask task : tasks) {
+            report.numGames += task.getConfiguration().getWarmupRounds() + task.getConfiguration().getKeepRounds();
+        }
+        System.gc();
+        GetResults getResults = new GetResults(fileName, BENCHMARK_EXPERIMENT_NAME, false, false, true, -1);
+        Checkpoint checkpoint = Checkpoint.create(journalFile, seed, grid.getName(), grid.getConfigurations().size(),
+                false, false, true, false);
+        ExperimentRunner runner = new ExperimentRunner(getResults, numThreads, false, checkpoint, new CostModel());
+        runner.setCellTimes(report.cellTimes);
+
+        long startTime = System.nanoTime();
+        runner.run(tasks);
+        getResults.close();
+        report.seconds = (System.nanoTime() - startTime) / 1e9;
+        checkpoint.close();
+        if (checkpoint.getNumberOfCompletedCells() != tasks.size()) {
+            throw new IOException(checkpoint.getNumberOfCompletedCells() + " of " + tasks.size() + " cells were run");
+        }
+
+        if (!resultsFile.delete() || !journalFile.delete()) {
+            System.out.println("Could not remove " + resultsFile + " or " + journalFile);
+        }
+        return report;
+    }
+
+    private static void printRun(String scaling, List<RunReport> runs) {
+        RunReport run = runs.get(runs.size() - 1);
+        System.out.println(String.format(Locale.ROOT, "%s scaling, %d threads: %d cells, %.2f games/s, efficiency %.2f, cell time p50 %.3f s, max %.3f s",
+                scaling, run.numThreads, run.numCells, run.getGamesPerSecond(), run.getEfficiency(runs.get(0)),
+                run.cellTimes.getQuantile(0.5), run.cellTimes.getQuantile(1.0)));
+    }
+
+    private static void writeReport(File outputFile, ExperimentGrid grid, List<RunReport> strongRuns,
+                                     List<RunReport> weakRuns) throws IOException {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8))) {
+            out.println("{");
+            out.println("  \"experiment\": \"" + grid.getName() + "\",");
+            out.println("  \"seed\": " + seed + ",");
+            out.println("  \"warmup_rounds\": " + warmupRounds + ",");
+            out.println("  \"keep_rounds\": " + keepRounds + ",");
+            out.println("  \"max_threads\": " + maxThreads + ",");
+            out.println("  \"available_processors\": " + Runtime.getRuntime().availableProcessors() + ",");
+            out.println("  \"java_version\": \"" + System.getProperty("java.version") + "\",");
+            out.println("  \"strong\": {");
+            out.println("    \"cells\": " + (strongRuns.isEmpty() ? 0 : strongCells) + ",");
+            writeRuns(out, strongRuns);
+            out.println("  },");
+            out.println("  \"weak\": {");
+            out.println("    \"cells_per_thread\": " + (weakRuns.isEmpty() ? 0 : cellsPerThread) + ",");
+            writeRuns(out, weakRuns);
+            out.println("  }");
+            out.println("}");
+            if (out.checkError()) throw new IOException("Could not write " + outputFile);
+        }
+    }
+
+    private static void writeRuns(PrintWriter out, List<RunReport> runs) {
+        out.println("    \"runs\": [");
+        for (int i = 0; i < runs.size(); i++) {
+            RunReport run = runs.get(i);
+            StringBuilder line = new StringBuilder("      {");
+            line.append("\"threads\": ").append(run.numThreads);
+            line.append(", \"cells\": ").append(run.numCells);
+            line.append(", \"games\": ").append(run.numGames);
+            line.append(", \"seconds\": ").append(formatNumber(run.seconds));
+            line.append(", \"games_per_second\": ").append(formatNumber(run.getGamesPerSecond()));
+            line.append(", \"efficiency\": ").append(formatNumber(run.getEfficiency(runs.get(0))));
+            line.append(", \"cell_seconds\": {");
+            for (double quantile : REPORTED_QUANTILES) {
+                line.append("\"p").append(Math.round(quantile * 100)).append("\": ")
+                        .append(formatNumber(run.cellTimes.getQuantile(quantile))).append(", ");
+            }
+            line.append("\"max\": ").append(formatNumber(run.cellTimes.getQuantile(1.0))).append("}}");
+            if (i + 1 < runs.size()) line.append(",");
+            out.println(line);
+        }
+        out.println("    ]");
+    }
+
+    private static String formatNumber(double value) {
+        return Double.isFinite(value) ? String.format(Locale.ROOT, "%.6g", value) : "null";
+    }
+
+    /**
+     * The measurements of one run of the benchmark.
+     */
+    private static class RunReport {
+
+        final int numThreads;
+
+        final int numCells;
+
+        long numGames = 0;
+
+        double seconds;
+
+        final QuantileSketch cellTimes = new QuantileSketch(ResultSettings.SUMMARY_RELATIVE_ACCURACY);
+
+        RunReport(int numThreads, int numCells) {
+            this.numThreads = numThreads;
+            this.numCells = numCells;
+        }
+
+        double getGamesPerSecond() {
+            return numGames / seconds;
+        }
+
+        /**
+         * Gives the parallel efficiency of this run: the games per second relative to the number of threads times the
+         * games per second of the run with one thread.
+         *
+         * @param singleThreadRun The run of the same kind with one thread
+         * @return The parallel efficiency, 1 if the run scales perfectly
+         */
+        double getEfficiency(RunReport singleThreadRun) {
+            return getGamesPerSecond() / (numThreads * singleThreadRun.getGamesPerSecond() / singleThreadRun.numThreads);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package results.createResults;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * BinaryResultReader class: reads a results file written by BinaryResultWriter. The row groups are found with the
+ * footer or, if the file has no footer, by reading the file row group by row group. A row group is returned column by
+ * column: a boolean[], int[] or double[] for every column.
+ */
+public class BinaryResultReader {
+
+    private final RandomAccessFile file;
+
+    private final String[] columnNames;
+
+    private final List<Long> rowGroupOffsets = new ArrayList<>();
+    private final List<Integer> rowGroupSizes = new ArrayList<>();
+
+    /**
+     * Position in the file after the last row group
+     */
+    private long dataEnd;
+
+    /**
+     * Constructor. Reads the column names and the row group index.
+     *
+     * @param inputFile The file to read
+     * @throws IOException If the file cannot be read or is not a results file
+     */
+    public BinaryResultReader(File inputFile) throws IOException {
+        this.file = new RandomAccessFile(inputFile, "r");
+        try {
+            byte[] magic = new byte[BinaryResultWriter.MAGIC.length];
+            file.readFully(magic);
+            if (!Arrays.equals(magic, BinaryResultWriter.MAGIC)) throw new IOException("Not a binary results file: " + inputFile);
+            int version = file.readInt();
+            if (version != BinaryResultWriter.VERSION) throw new IOException("Unsupported version " + version + " of " + inputFile);
+            columnNames = new String[file.readInt()];
+            for (int i = 0; i < columnNames.length; i++) {
+                columnNames[i] = file.readUTF();
+            }
+            long dataStart = file.getFilePointer();
+            if (!readFooter(dataStart)) scanRowGroups(dataStart);
+        } catch (IOException exception) {
+            file.close();
+            throw exception;
+        }
+    }
+
+    public String[] getColumnNames() {
+        return columnNames.clone();
+    }
+
+    public int getNumberOfRowGroups() {
+        return rowGroupOffsets.size();
+    }
+
+    public long getRowGroupOffset(int rowGroup) {
+        return rowGroupOffsets.get(rowGroup);
+    }
+
+    public int getRowGroupSize(int rowGroup) {
+        return rowGroupSizes.get(rowGroup);
+    }
+
+    /**
+     * Gives the position in the file after the last row group, which is the start of the footer if there is one.
+     *
+     * @return The position after the last row group
+     */
+    public long getDataEnd() {
+        return dataEnd;
+    }
+
+    public long getNumberOfRows() {
+        long numRows = 0;
+        for (int size : rowGroupSizes) numRows += size;
+        return numRows;
+    }
+
+    /**
+     * Reads a row group.
+     *
+     * @param rowGroup The index of the row group
+     * @return For every column, a boolean[], int[] or double[] with the values of the rows in the row group
+     * @throws IOException If reading fails
+     */
+    public Object[] readRowGroup(int rowGroup) throws IOException {
+        file.seek(rowGroupOffsets.get(rowGroup));
+        int numRows = file.readInt();
+        byte[] compressed = new byte[file.readInt()];
+        byte[] blocks = new byte[file.readInt()];
+        file.readFully(compressed);
+        decompress(compressed, blocks);
+        ByteBuffer buffer = ByteBuffer.wrap(blocks);
+
+        Object[] columns = new Object[columnNames.length];
+        for (int column = 0; column < columnNames.length; column++) {
+            byte type = buffer.get();
+            if (type == BinaryResultWriter.TYPE_BOOLEAN) {
+                boolean[] values = new boolean[numRows];
+                byte[] bits = new byte[(numRows + 7) / 8];
+                buffer.get(bits);
+                for (int i = 0; i < numRows; i++) {
+                    values[i] = (bits[i >> 3] & (1 << (i & 7))) != 0;
+                }
+                columns[column] = values;
+            } else if (type == BinaryResultWriter.TYPE_INT) {
+                columns[column] = readIntegers(buffer, numRows);
+            } else if (type == BinaryResultWriter.TYPE_DOUBLE) {
+                double[] values = new double[numRows];
+                int decimals = buffer.get();
+                if (decimals == BinaryResultWriter.RAW_DOUBLES) {
+                    for (int i = 0; i < numRows; i++) {
+                        values[i] = buffer.getDouble();
+                    }
+                } else {
+                    double scale = Math.pow(10, decimals);
+                    int[] scaledValues = readIntegers(buffer, numRows);
+                    for (int i = 0; i < numRows; i++) {
+                        values[i] = scaledValues[i] / scale;
+                    }
+                }
+                columns[column] = values;
+            } else {
+                throw new IOException("Unknown column type " + type + " in row group " + rowGroup);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Writes all rows to a csv file, in the same format as written by CsvResultWriter.
+     *
+     * @param csvOutputFile The csv file
+     * @throws IOException If reading or writing fails
+     */
+    public void exportToCsv(File csvOutputFile) throws IOException {
+        CsvResultWriter csvResultWriter = new CsvResultWriter(csvOutputFile, columnNames);
+        try {
+            for (int rowGroup = 0; rowGroup < getNumberOfRowGroups(); rowGroup++) {
+                Object[] columns = readRowGroup(rowGroup);
+                for (int i = 0; i < getRowGroupSize(rowGroup); i++) {
+                    Object[] row = new Object[columns.length];
+                    for (int column = 0; column < columns.length; column++) {
+                        row[column] = getValue(columns[column], i);
+                    }
+                    csvResultWriter.append(row);
+                }
+            }
+        } finally {
+            csvResultWriter.close();
+        }
+    }
+
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private static int[] readIntegers(ByteBuffer buffer, int numRows) {
+        int[] values = new int[numRows];
+        int min = buffer.getInt();
+        int width = buffer.get();
+        for (int i = 0; i < numRows; i++) {
+            if (width == 0) {
+                values[i] = min;
+            } else if (width == 1) {
+                values[i] = min + (buffer.get() & 0xff);
+            } else if (width == 2) {
+                values[i] = min + (buffer.getShort() & 0xffff);
+            } else {
+                values[i] = (int) (min + (buffer.getInt() & 0xffffffffL));
+            }
+        }
+        return values;
+    }
+
+    private static void decompress(byte[] compressed, byte[] blocks) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < blocks.length && !inflater.finished()) {
+                int inflated = inflater.inflate(blocks, length, blocks.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                length += inflated;
+            }
+            if (length != blocks.length) throw new IOException("Row group is corrupt");
+        } catch (DataFormatException exception) {
+            throw new IOException("Row group is corrupt", exception);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static Object getValue(Object column, int row) {
+        if (column instanceof boolean[]) return ((boolean[]) column)[row];
+        if (column instanceof int[]) return ((int[]) column)[row];
+        return ((double[]) column)[row];
+    }
+
+    /**
+     * Reads the row group index from the footer.
+     *
+     * @param dataStart The offset of the first row group
+     * @return False if the file has no valid footer
+     * @throws IOException If reading fails
+     */
+    private boolean readFooter(long dataStart) throws IOException {
+        long length = file.length();
+        if (length - dataStart < 8 + BinaryResultWriter.MAGIC.length + 4) return false;
+
+        byte[] magic = new byte[BinaryResultWriter.MAGIC.length];
+        file.seek(length - magic.length);
+        file.readFully(magic);
+        if (!Arrays.equals(magic, BinaryResultWriter.MAGIC)) return false;
+        file.seek(length - magic.length - 8);
+        long footerOffset = file.readLong();
+        if (footerOffset < dataStart || footerOffset > length - magic.length - 8) return false;
+
+        file.seek(footerOffset);
+        int numRowGroups = file.readInt();
+        for (int i = 0; i < numRowGroups; i++) {
+            rowGroupOffsets.add(file.readLong());
+            rowGroupSizes.add(file.readInt());
+        }
+        dataEnd = footerOffset;
+        return true;
+    }
+
+    /**
+     * Finds the row groups by reading the file row group by row group. A row group that is only partly written is
+     * ignored.
+     *
+     * @param dataStart The offset of the first row group
+     * @throws IOException If reading fails
+     */
+    private void scanRowGroups(long dataStart) throws IOException {
+        long length = file.length();
+        long offset = dataStart;
+        while (offset + 12 <= length) {
+            file.seek(offset);
+            int numRows = file.readInt();
+            long end = offset + 12 + file.readInt();
+            if (numRows <= 0 || end <= offset + 12 || end > length) break;
+
+            rowGroupOffsets.add(offset);
+            rowGroupSizes.add(numRows);
+            offset = end;
+        }
+        dataEnd = offset;
+    }
+}
@@ -0,0 +1,379 @@
+package results.createResults;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * BinaryResultWriter class: writes the results column by column in a compact binary file. The rows are stored in row
+ * groups; within a row group, the values of every column are stored together in a typed block:
+ * <ul>
+ *     <li>booleans are packed into bits (row i is bit i % 8 of byte i / 8);</li>
+ *     <li>integers are stored as the minimum of the block followed by the difference with the minimum of every row,
+ *     using 0, 1, 2 or 4 bytes per value depending on the range of the block;</li>
+ *     <li>doubles that all have at most MAX_DECIMALS decimals (e.g. learning rates and times in seconds) are stored
+ *     as the number of decimals followed by an integer block of the values times 10^decimals; other doubles are
+ *     stored as 8 bytes per value.</li>
+ * </ul>
+ * The blocks of a row group are compressed together with Deflater.
+ * File layout (big-endian, as written by DataOutputStream):
+ * <pre>
+ * "CTRB", version, number of columns, column names (modified UTF-8)
+ * row group: number of rows, compressed size, uncompressed size, compressed blocks (for every column: type, block)
+ * ...
+ * footer: number of row groups, then for every row group: offset, number of rows
+ * offset of the footer, "CTRB"
+ * </pre>
+ * The file is only appended to: sync() writes the collected rows as a row group, so every length of the file that was
+ * synced ends with a complete row group, and bytes that a checkpoint recorded as written are never rewritten. A sync is
+ * only due when a full row group is written (see isSyncDue()), so only the syncs at the end of a repetition or of the
+ * experiment write a smaller row group; a resumed experiment continues after the last synced row group and runs the
+ * cells after it again. The footer is written by close(). A file without footer (e.g. of an
+ * experiment that did not finish) can still be read row group by row group, as every row group describes its own
+ * size.
+ */
+public class BinaryResultWriter extends ResultWriter {
+
+    public static final String FILE_EXTENSION = ".ctrb";
+    static final byte[] MAGIC = {'C', 'T', 'R', 'B'};
+    static final int VERSION = 1;
+
+    static final byte TYPE_BOOLEAN = 0;
+    static final byte TYPE_INT = 1;
+    static final byte TYPE_DOUBLE = 2;
+
+    /**
+     * Largest number of decimals for which doubles are stored as integers, RAW_DOUBLES marks 8 bytes per value
+     */
+    static final int MAX_DECIMALS = 6;
+    static final byte RAW_DOUBLES = -1;
+
+    private final RandomAccessFile file;
+
+    private final int numColumns;
+
+    /**
+     * Rows that are not yet written in a row group
+     */
+    private final List<Object[]> rows = new ArrayList<>();
+
+    /**
+     * Offsets and sizes of the row groups written so far
+     */
+    private final List<Long> rowGroupOffsets = new ArrayList<>();
+    private final List<Integer> rowGroupSizes = new ArrayList<>();
+
+    /**
+     * Position in the file after the last row group, where the next row group is written
+     */
+    private long position;
+
+    /**
+     * Number of row groups in the file at the last sync
+     */
+    private int syncedRowGroups = 0;
+
+    /**
+     * Constructor. Creates the file, or empties it if it already exists, and writes the column names.
+     *
+     * @param outputFile The file to write to
+     * @param header     The names of the columns
+     * @throws IOException If the file cannot be opened
+     */
+    public BinaryResultWriter(File outputFile, String[] header) throws IOException {
+        this(outputFile, header, -1);
+    }
+
+    /**
+     * Constructor. If resumeLength is -1, creates the file, or empties it if it already exists, and writes the column
+     * names. Otherwise, continues the file after its first resumeLength bytes, which must end with a complete row
+     * group, as every length after sync() does.
+     *
+     * @param outputFile   The file to write to
+     * @param header       The names of the columns
+     * @param resumeLength The length of the file to continue, or -1 to start a new file
+     * @throws IOException If the file cannot be opened, is not a results file with the same columns, or its first
+     *                     resumeLength bytes do not end with a complete row group
+     */
+    public BinaryResultWriter(File outputFile, String[] header, long resumeLength) throws IOException {
+        this.numColumns = header.length;
+        if (resumeLength >= 0) {
+            if (outputFile.length() < resumeLength) {
+                throw new IOException("Results file " + outputFile + " is shorter than recorded in the checkpoint");
+            }
+            try (RandomAccessFile resumedFile = new RandomAccessFile(outputFile, "rw")) {
+                resumedFile.setLength(resumeLength);
+            }
+            BinaryResultReader reader = new BinaryResultReader(outputFile);
+            try {
+                if (!Arrays.equals(reader.getColumnNames(), header)) {
+                    throw new IOException("Results file " + outputFile + " has different columns");
+                }
+                for (int rowGroup = 0; rowGroup < reader.getNumberOfRowGroups(); rowGroup++) {
+                    rowGroupOffsets.add(reader.getRowGroupOffset(rowGroup));
+                    rowGroupSizes.add(reader.getRowGroupSize(rowGroup));
+                }
+                if (reader.getDataEnd() != resumeLength) {
+                    throw new IOException("Results file " + outputFile + " has no complete row group at the length"
+                            + " recorded in the checkpoint");
+                }
+            } finally {
+                reader.close();
+            }
+            this.file = new RandomAccessFile(outputFile, "rw");
+            this.position = resumeLength;
+            this.syncedRowGroups = rowGroupOffsets.size();
+            return;
+        }
+
+        this.file = new RandomAccessFile(outputFile, "rw");
+        file.setLength(0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(numColumns);
+        for (String name : header) {
+            out.writeUTF(name);
+        }
+        write(bytes);
+    }
+
+    /**
+     * Appends a row; the configuration is not kept.
+     */
+    @Override
+    public void append(int configurationIndex, Object[] row) throws IOException {
+        append(row);
+    }
+
+    /**
+     * Appends a row. The rows are written when ResultSettings.ROW_GROUP_SIZE rows are collected.
+     *
+     * @param row The values of the row
+     * @throws IOException If writing fails
+     */
+    public void append(Object[] row) throws IOException {
+        if (row.length != numColumns) {
+            throw new IllegalArgumentException("Row has " + row.length + " values, expected " + numColumns);
+        }
+        rows.add(row);
+        if (rows.size() >= ResultSettings.ROW_GROUP_SIZE) writeRowGroup();
+    }
+
+    @Override
+    protected void syncFile() throws IOException {
+        writeRowGroup();
+        file.getFD().sync();
+        syncedRowGroups = rowGroupOffsets.size();
+    }
+
+    @Override
+    protected boolean hasFullBatch() {
+        return rowGroupOffsets.size() > syncedRowGroups;
+    }
+
+    /**
+     * Gives no interval, as a sync after an interval would write a small row group.
+     *
+     * @return Long.MAX_VALUE
+     */
+    @Override
+    protected long getSyncIntervalMillis() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeRowGroup();
+            writeFooter();
+            file.getFD().sync();
+        } finally {
+            file.close();
+        }
+    }
+
+    @Override
+    public long getLength() throws IOException {
+        return file.length();
+    }
+
+    /**
+     * Writes the collected rows as a row group at the end of the file.
+     *
+     * @throws IOException If writing fails
+     */
+    private void writeRowGroup() throws IOException {
+        if (rows.isEmpty()) return;
+
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(blocks);
+        for (int column = 0; column < numColumns; column++) {
+            Object value = rows.get(0)[column];
+            if (value instanceof Boolean) {
+                writeBooleanBlock(out, column);
+            } else if (value instanceof Integer) {
+                writeIntBlock(out, column);
+            } else if (value instanceof Double) {
+                writeDoubleBlock(out, column);
+            } else {
+                throw new IllegalArgumentException("Column " + column + " has unsupported value " + value);
+            }
+        }
+
+        byte[] compressed = compress(blocks.toByteArray());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeInt(rows.size());
+        header.writeInt(compressed.length);
+        header.writeInt(blocks.size());
+        header.write(compressed);
+
+        rowGroupOffsets.add(position);
+        rowGroupSizes.add(rows.size());
+        write(bytes);
+        rows.clear();
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(bytes);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return compressed.toByteArray();
+    }
+
+    private void writeBooleanBlock(DataOutputStream out, int column) throws IOException {
+        byte[] bits = new byte[(rows.size() + 7) / 8];
+        for (int i = 0; i < rows.size(); i++) {
+            if ((Boolean) rows.get(i)[column]) bits[i >> 3] |= (byte) (1 << (i & 7));
+        }
+        out.writeByte(TYPE_BOOLEAN);
+        out.write(bits);
+    }
+
+    private void writeIntBlock(DataOutputStream out, int column) throws IOException {
+        long[] values = new long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            values[i] = (Integer) rows.get(i)[column];
+        }
+        out.writeByte(TYPE_INT);
+        writeIntegers(out, values);
+    }
+
+    private void writeDoubleBlock(DataOutputStream out, int column) throws IOException {
+        double[] values = new double[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            values[i] = (Double) rows.get(i)[column];
+        }
+        out.writeByte(TYPE_DOUBLE);
+
+        for (int decimals = 0; decimals <= MAX_DECIMALS; decimals++) {
+            long[] scaledValues = getScaledValues(values, decimals);
+            if (scaledValues != null) {
+                out.writeByte(decimals);
+                writeIntegers(out, scaledValues);
+                return;
+            }
+        }
+        out.writeByte(RAW_DOUBLES);
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    /**
+     * Gives the values times 10^decimals, if that gives back exactly the same doubles and fits in an int.
+     *
+     * @param values   The values
+     * @param decimals The number of decimals
+     * @return The scaled values, or null if the values cannot be stored with this number of decimals
+     */
+    private static long[] getScaledValues(double[] values, int decimals) {
+        double scale = Math.pow(10, decimals);
+        long[] scaledValues = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            double scaledValue = Math.rint(values[i] * scale);
+            if (Math.abs(scaledValue) > Integer.MAX_VALUE || scaledValue / scale != values[i]
+                    || Double.doubleToRawLongBits(values[i]) == Double.doubleToRawLongBits(-0.0)) {
+                return null;
+            }
+            scaledValues[i] = (long) scaledValue;
+        }
+        return scaledValues;
+    }
+
+    /**
+     * Writes integers (in the range of int) as their minimum followed by the difference with the minimum of every
+     * value, using 0, 1, 2 or 4 bytes per value.
+     *
+     * @param out    The stream to write to
+     * @param values The values
+     * @throws IOException If writing fails
+     */
+    private static void writeIntegers(DataOutputStream out, long[] values) throws IOException {
+        long min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+        for (long value : values) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        long range = max - min;
+        int width = (range == 0) ? 0 : (range < (1 << 8)) ? 1 : (range < (1 << 16)) ? 2 : 4;
+
+        out.writeInt((int) min);
+        out.writeByte(width);
+        for (long value : values) {
+            int difference = (int) (value - min);
+            if (width == 1) {
+                out.writeByte(difference);
+            } else if (width == 2) {
+                out.writeShort(difference);
+            } else if (width == 4) {
+                out.writeInt(difference);
+            }
+        }
+    }
+
+    private void writeFooter() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        long footerOffset = position;
+        out.writeInt(rowGroupOffsets.size());
+        for (int i = 0; i < rowGroupOffsets.size(); i++) {
+            out.writeLong(rowGroupOffsets.get(i));
+            out.writeInt(rowGroupSizes.get(i));
+        }
+        out.writeLong(footerOffset);
+        out.write(MAGIC);
+        write(bytes);
+    }
+
+    /**
+     * Writes bytes at the end of the written part of the file, and removes everything after them from the file.
+     *
+     * @param bytes The bytes to write
+     * @throws IOException If writing fails
+     */
+    private void write(ByteArrayOutputStream bytes) throws IOException {
+        FileChannel channel = file.getChannel();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        channel.truncate(position);
+    }
+}
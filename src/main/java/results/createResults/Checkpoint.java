@@ -0,0 +1,246 @@
+package results.createResults;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checkpoint class: a journal of the cells of an experiment that are done, kept next to the results file. The journal
+ * starts with the settings of the experiment, followed by a line for every sync of the results:
+ * <pre>
+ * seed 123456789
+ * experiment main
+ * configurations 144
+ * binary false
+ * summary false
+ * rows true
+ * counters false
+ * cells 0-11 10342
+ * cells 12-13,15 10597
+ * ...
+ * </pre>
+ * A cells line holds the indices of the cells that were synced together, as ranges, and the length of the results
+ * file after their results were forced to disk. (Older journals have a "cell index length" line per cell.) The random source of a cell is made from the seed and the index of the cell, so the seed is all that
+ * is needed to continue an experiment with the same random numbers. A line is only used if it is complete, so a line
+ * that was being written when the process stopped is ignored.
+ */
+public class Checkpoint {
+
+    private static final String JOURNAL_EXTENSION = ".journal";
+
+    private static final String SEED = "seed";
+    private static final String EXPERIMENT = "experiment";
+    private static final String CONFIGURATIONS = "configurations";
+    private static final String BINARY = "binary";
+    private static final String SUMMARY = "summary";
+    private static final String ROWS = "rows";
+    private static final String COUNTERS = "counters";
+    private static final String CELL = "cell";
+    private static final String CELLS = "cells";
+
+    private final FileOutputStream outputStream;
+
+    private final long seed;
+
+    private final Set<Long> completedCells;
+
+    /**
+     * Length of the results file after the last cell that is done, -1 if no cell is done
+     */
+    private long resultsLength;
+
+    private Checkpoint(FileOutputStream outputStream, long seed, Set<Long> completedCells, long resultsLength) {
+        this.outputStream = outputStream;
+        this.seed = seed;
+        this.completedCells = completedCells;
+        this.resultsLength = resultsLength;
+    }
+
+    /**
+     * Starts a new journal, replacing an existing journal.
+     *
+     * @param journalFile       The journal file
+     * @param seed              The master seed of the experiment
+     * @param experimentName    The name of the experiment
+     * @param numConfigurations The number of configurations of the experiment
+     * @param binaryResults     True if the results are written in the binary format
+     * @param writeSummary      True if a summary of the results is written
+     * @param writeRows         True if the rows of the results are written
+     * @param writeCounters     True if the results have the counts of the calls of the agents
+     * @return The checkpoint
+     * @throws IOException If the journal cannot be written
+     */
+    public static Checkpoint create(File journalFile, long seed, String experimentName, int numConfigurations,
+                                    boolean binaryResults, boolean writeSummary, boolean writeRows,
+                                    boolean writeCounters) throws IOException {
+        Checkpoint checkpoint = new Checkpoint(new FileOutputStream(journalFile), seed, new HashSet<>(), -1);
+        checkpoint.writeLine(SEED + " " + seed + "\n"
+                + EXPERIMENT + " " + experimentName + "\n"
+                + CONFIGURATIONS + " " + numConfigurations + "\n"
+                + BINARY + " " + binaryResults + "\n"
+                + SUMMARY + " " + writeSummary + "\n"
+                + ROWS + " " + writeRows + "\n"
+                + COUNTERS + " " + writeCounters);
+        return checkpoint;
+    }
+
+    /**
+     * Reads an existing journal to continue the experiment.
+     *
+     * @param journalFile       The journal file
+     * @param experimentName    The name of the experiment, must be the same as in the journal
+     * @param numConfigurations The number of configurations, must be the same as in the journal
+     * @param binaryResults     True if the results are written in the binary format, must be the same as in the journal
+     * @param writeSummary      True if a summary of the results is written, must be the same as in the journal
+     * @param writeRows         True if the rows of the results are written, must be the same as in the journal
+     * @param writeCounters     True if the results have the counts of the calls of the agents, must be the same as in
+     *                          the journal
+     * @return The checkpoint
+     * @throws IOException If the journal cannot be read or belongs to a different experiment
+     */
+    public static Checkpoint resume(File journalFile, String experimentName, int numConfigurations,
+                                    boolean binaryResults, boolean writeSummary, boolean writeRows,
+                                    boolean writeCounters) throws IOException {
+        Long seed = null;
+        String journalExperimentName = null;
+        int journalNumConfigurations = -1;
+        Boolean journalBinaryResults = null;
+        boolean journalWriteSummary = false;
+        boolean journalWriteRows = true;
+        boolean journalWriteCounters = false;
+        Set<Long> completedCells = new HashSet<>();
+        long resultsLength = -1;
+
+        String journal = new String(Files.readAllBytes(journalFile.toPath()), StandardCharsets.UTF_8);
+        journal = journal.substring(0, journal.lastIndexOf('\n') + 1);
+        for (String line : journal.split("\n")) {
+            String[] fields = line.split(" ");
+            try {
+                if (fields[0].equals(SEED) && fields.length == 2) {
+                    seed = Long.parseLong(fields[1]);
+                } else if (fields[0].equals(EXPERIMENT) && fields.length == 2) {
+                    journalExperimentName = fields[1];
+                } else if (fields[0].equals(CONFIGURATIONS) && fields.length == 2) {
+                    journalNumConfigurations = Integer.parseInt(fields[1]);
+                } else if (fields[0].equals(BINARY) && fields.length == 2) {
+                    journalBinaryResults = Boolean.parseBoolean(fields[1]);
+                } else if (fields[0].equals(SUMMARY) && fields.length == 2) {
+                    journalWriteSummary = Boolean.parseBoolean(fields[1]);
+                } else if (fields[0].equals(ROWS) && fields.length == 2) {
+                    journalWriteRows = Boolean.parseBoolean(fields[1]);
+                } else if (fields[0].equals(COUNTERS) && fields.length == 2) {
+                    journalWriteCounters = Boolean.parseBoolean(fields[1]);
+                } else if (fields[0].equals(CELL) && fields.length == 3) {
+                    long cellIndex = Long.parseLong(fields[1]);
+                    long length = Long.parseLong(fields[2]);
+                    completedCells.add(cellIndex);
+                    resultsLength = length;
+                } else if (fields[0].equals(CELLS) && fields.length == 3) {
+                    long length = Long.parseLong(fields[2]);
+                    for (String range : fields[1].split(",")) {
+                        int dash = range.indexOf('-');
+                        long first = Long.parseLong(dash < 0 ? range : range.substring(0, dash));
+                        long last = (dash < 0) ? first : Long.parseLong(range.substring(dash + 1));
+                        for (long cellIndex = first; cellIndex <= last; cellIndex++) {
+                            completedCells.add(cellIndex);
+                        }
+                    }
+                    resultsLength = length;
+                }
+            } catch (NumberFormatException exception) {
+                break;
+            }
+        }
+
+        if (seed == null || journalBinaryResults == null) {
+            throw new IOException("Checkpoint " + journalFile + " is incomplete");
+        }
+        if (!experimentName.equals(journalExperimentName) || numConfigurations != journalNumConfigurations
+                || binaryResults != journalBinaryResults || writeSummary != journalWriteSummary
+                || writeRows != journalWriteRows || writeCounters != journalWriteCounters) {
+            throw new IOException("Checkpoint " + journalFile + " is of experiment " + journalExperimentName
+                    + " with " + journalNumConfigurations + " configurations (binary = " + journalBinaryResults
+                    + ", summary = " + journalWriteSummary + ", rows = " + journalWriteRows
+                    + ", counters = " + journalWriteCounters + ")");
+        }
+        return new Checkpoint(new FileOutputStream(journalFile, true), seed, completedCells, resultsLength);
+    }
+
+    /**
+     * Gives the journal file of a results file.
+     *
+     * @param resultsFile The results file
+     * @return The journal file, next to the results file
+     */
+    public static File getJournalFile(File resultsFile) {
+        return new File(resultsFile.getPath() + JOURNAL_EXTENSION);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getNumberOfCompletedCells() {
+        return completedCells.size();
+    }
+
+    public long getResultsLength() {
+        return resultsLength;
+    }
+
+    public boolean isCompleted(long cellIndex) {
+        return completedCells.contains(cellIndex);
+    }
+
+    /**
+     * Marks a cell as done. The results of the cell must already be forced to disk.
+     *
+     * @param cellIndex     The index of the cell
+     * @param resultsLength The length of the results file after the results of the cell
+     * @throws IOException If the journal cannot be written
+     */
+    public void markCompleted(long cellIndex, long resultsLength) throws IOException {
+        markCompleted(Collections.singletonList(cellIndex), resultsLength);
+    }
+
+    /**
+     * Marks cells as done, with a single line in the journal, so that either all or none of the cells are done when
+     * the experiment is resumed. The results of the cells must already be forced to disk.
+     *
+     * @param cellIndices   The indices of the cells
+     * @param resultsLength The length of the results file after the results of the cells
+     * @throws IOException If the journal cannot be written
+     */
+    public void markCompleted(List<Long> cellIndices, long resultsLength) throws IOException {
+        if (cellIndices.isEmpty()) return;
+        StringBuilder ranges = new StringBuilder();
+        int i = 0;
+        while (i < cellIndices.size()) {
+            long first = cellIndices.get(i);
+            int j = i;
+            while (j + 1 < cellIndices.size() && cellIndices.get(j + 1) == cellIndices.get(j) + 1) j++;
+            if (ranges.length() > 0) ranges.append(',');
+            ranges.append(first);
+            if (j > i) ranges.append('-').append(cellIndices.get(j));
+            i = j + 1;
+        }
+        completedCells.addAll(cellIndices);
+        this.resultsLength = resultsLength;
+        writeLine(CELLS + " " + ranges + " " + resultsLength);
+    }
+
+    public void close() throws IOException {
+        outputStream.close();
+    }
+
+    private void writeLine(String line) throws IOException {
+        outputStream.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        outputStream.getFD().sync();
+    }
+}
@@ -0,0 +1,392 @@
+package results.createResults;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinator class: serves the tasks of an experiment over a loopback TCP socket to any number of worker processes
+ * (see Worker), which ask for a task whenever they are idle. As in ExperimentRunner, only the tasks within
+ * ExperimentRunner.MAX_QUEUED_TASKS positions after the next task of which the results are written are served, the
+ * task that the cost model estimates to be the most expensive first, so that the memory use is bounded and the
+ * checkpoint keeps up with the workers. A worker sends heartbeats while it runs a task; if a worker is not heard from
+ * for ResultSettings.HEARTBEAT_TIMEOUT_MILLIS or its connection is lost, its task is served again to another worker.
+ * If a task fails on a worker, the experiment stops with its error. The results are written in the order of the
+ * tasks, exactly as ExperimentRunner writes them, so the results file and the checkpoint do not depend on which
+ * worker ran which task.
+ */
+public class Coordinator {
+
+    private final GetResults getResults;
+
+    private final Checkpoint checkpoint;
+
+    private final long masterSeed;
+
+    /**
+     * The tasks in the order in which their results are written
+     */
+    private final List<ExperimentTask> tasks;
+
+    /**
+     * The position of every task in tasks, by cell index
+     */
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    /**
+     * Tasks that are waiting for a worker, within ExperimentRunner.MAX_QUEUED_TASKS positions after nextPosition
+     */
+    private final List<ExperimentTask> queue = new ArrayList<>();
+
+    /**
+     * Position of the first task that is not yet queued
+     */
+    private int queueEnd = 0;
+
+    private final CostModel costModel;
+
+    /**
+     * Results of tasks that are done but not yet written, by position
+     */
+    private final Map<Integer, List<ResultElement>> doneResults = new HashMap<>();
+
+    private final boolean[] isDone;
+
+    /**
+     * Cells of which the results are written but not yet synced and marked as done in the checkpoint
+     */
+    private final List<Long> unsyncedCells = new ArrayList<>();
+
+    /**
+     * The number of tasks that were not done when the coordinator started
+     */
+    private final int numTasksToDo;
+
+    private final List<Connection> connections = new ArrayList<>();
+
+    /**
+     * Position of the next task of which the results are written
+     */
+    private int nextPosition = 0;
+
+    private boolean isStopped = false;
+
+    /**
+     * The error that stopped the experiment (writing the results failed, or a task failed on a worker), null if none
+     */
+    private IOException failure = null;
+
+    /**
+     * Constructor
+     *
+     * @param getResults Collects and writes the results
+     * @param checkpoint The journal of the cells that are done, holding the seed from which the seeds of all cells are
+     *                   made
+     * @param tasks      The tasks of the experiment, ordered by repetition
+     * @param costModel  Estimates the time of the tasks, refined with every task that is done
+     */
+    public Coordinator(GetResults getResults, Checkpoint checkpoint, List<ExperimentTask> tasks, CostModel costModel) {
+        this.getResults = getResults;
+        this.checkpoint = checkpoint;
+        this.masterSeed = checkpoint.getSeed();
+        this.tasks = tasks;
+        this.costModel = costModel;
+        this.isDone = new boolean[tasks.size()];
+        int numTasksToDo = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            ExperimentTask task = tasks.get(i);
+            positions.put(task.getCellIndex(), i);
+            isDone[i] = checkpoint.isCompleted(task.getCellIndex());
+            if (!isDone[i]) numTasksToDo++;
+        }
+        this.numTasksToDo = numTasksToDo;
+        queueTasks();
+    }
+
+    /**
+     * Serves the tasks until the results of all tasks are written.
+     *
+     * @param port The port on the loopback address to listen on, 0 for any free port
+     * @throws IOException If the socket cannot be opened or the results cannot be written
+     */
+    public void run(int port) throws IOException {
+        ScheduledExecutorService heartbeatMonitor = Executors.newSingleThreadScheduledExecutor();
+        try (ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.out.println("Coordinator listening on port " + serverSocket.getLocalPort() + ", "
+                    + numTasksToDo + " tasks to do");
+            Thread acceptThread = new Thread(() -> acceptWorkers(serverSocket), "coordinator-accept");
+            acceptThread.setDaemon(true);
+            acceptThread.start();
+            heartbeatMonitor.scheduleAtFixedRate(this::checkHeartbeats, ResultSettings.HEARTBEAT_INTERVAL_MILLIS,
+                    ResultSettings.HEARTBEAT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+            writeResults();
+            synchronized (this) {
+                while (nextPosition < tasks.size() && failure == null) {
+                    wait();
+                }
+                if (failure != null) throw failure;
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            System.out.println("!!! EXPERIMENT INTERRUPTED !!!");
+        } finally {
+            heartbeatMonitor.shutdownNow();
+            stop();
+        }
+    }
+
+    private void acceptWorkers(ServerSocket serverSocket) {
+        try {
+            while (true) {
+                Socket socket = serverSocket.accept();
+                Connection connection = new Connection(socket);
+                synchronized (this) {
+                    if (isStopped) {
+                        socket.close();
+                        continue;
+                    }
+                    connections.add(connection);
+                }
+                Thread thread = new Thread(connection, "coordinator-" + socket.getRemoteSocketAddress());
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } catch (IOException exception) {
+            // the server socket is closed when all tasks are done
+        }
+    }
+
+    /**
+     * Tells the workers that wait for a task that all tasks are done, and closes the connections of the other workers.
+     */
+    private void stop() {
+        List<Connection> openConnections;
+        synchronized (this) {
+            isStopped = true;
+            notifyAll();
+            openConnections = new ArrayList<>(connections);
+        }
+        for (Connection connection : openConnections) {
+            connection.awaitFinished();
+        }
+    }
+
+    /**
+     * Queues the tasks that are not done, up to ExperimentRunner.MAX_QUEUED_TASKS positions after the next task of
+     * which the results are written.
+     */
+    private synchronized void queueTasks() {
+        int startQueueEnd = queueEnd;
+        while (queueEnd < tasks.size() && queueEnd < nextPosition + ExperimentRunner.MAX_QUEUED_TASKS) {
+            if (!isDone[queueEnd]) queue.add(tasks.get(queueEnd));
+            queueEnd++;
+        }
+        if (queueEnd != startQueueEnd) notifyAll();
+    }
+
+    /**
+     * Gives the next task to a worker, waiting until a task is available. Returns null when no task is left.
+     *
+     * @param connection The connection of the worker
+     * @return The task, or null
+     * @throws InterruptedException If the thread is interrupted while waiting
+     */
+    private synchronized ExperimentTask takeTask(Connection connection) throws InterruptedException {
+        while (queue.isEmpty() && !isStopped) {
+            wait();
+        }
+        if (isStopped) return null;
+        ExperimentTask task = costModel.getMostExpensiveTask(queue);
+        queue.remove(task);
+        connection.task = task;
+        connection.lastHeard = System.currentTimeMillis();
+        return task;
+    }
+
+    private synchronized void completeTask(Connection connection, ExperimentTask task, List<ResultElement> results) {
+        if (connection.task != null && connection.task.getCellIndex() == task.getCellIndex()) connection.task = null;
+        Integer position = positions.get(task.getCellIndex());
+        if (position == null || isDone[position]) return;
+        isDone[position] = true;
+        queue.removeIf(queuedTask -> queuedTask.getCellIndex() == task.getCellIndex());
+        doneResults.put(position, results);
+        costModel.addMeasurement(task.getConfiguration(), results);
+        System.out.println("\t" + task + " Done;");
+        try {
+            writeResults();
+        } catch (IOException exception) {
+            failure = exception;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Stops the experiment because a task failed on a worker.
+     *
+     * @param connection The connection of the worker
+     * @param task       The task that failed
+     * @param error      The error of the task
+     */
+    private synchronized void failTask(Connection connection, ExperimentTask task, String error) {
+        connection.task = null;
+        System.out.println("!!! TASK FAILED: " + task + ": " + error + " !!!");
+        if (failure == null) failure = new IOException("Task " + task + " failed on a worker: " + error);
+        notifyAll();
+    }
+
+    /**
+     * Writes the results of the done tasks that are next in the order of the tasks, and syncs them and marks their
+     * cells as done in the checkpoint when a sync is due or the results of all tasks are written.
+     *
+     * @throws IOException If writing fails
+     */
+    private synchronized void writeResults() throws IOException {
+        int startPosition = nextPosition;
+        while (nextPosition < tasks.size() && isDone[nextPosition]) {
+            List<ResultElement> results = doneResults.remove(nextPosition);
+            if (results != null) {
+                ExperimentTask task = tasks.get(nextPosition);
+                getResults.addResults(task, results);
+                unsyncedCells.add(task.getCellIndex());
+            }
+            nextPosition++;
+        }
+        if (!unsyncedCells.isEmpty() && (nextPosition == tasks.size() || getResults.isSyncDue())) {
+            getResults.syncResults();
+            checkpoint.markCompleted(unsyncedCells, getResults.getResultsLength());
+            unsyncedCells.clear();
+        }
+        if (nextPosition != startPosition) {
+            queueTasks();
+            notifyAll();
+        }
+    }
+
+    /**
+     * Serves the task of a worker again if the worker did not finish it.
+     *
+     * @param connection The connection of the worker
+     */
+    private synchronized void releaseTask(Connection connection) {
+        connections.remove(connection);
+        ExperimentTask task = connection.task;
+        connection.task = null;
+        if (task == null || isDone[positions.get(task.getCellIndex())]) return;
+        if (queue.stream().noneMatch(queuedTask -> queuedTask.getCellIndex() == task.getCellIndex())) queue.add(task);
+        System.out.println("\t" + task + " Reassigned;");
+        notifyAll();
+    }
+
+    private synchronized void checkHeartbeats() {
+        long now = System.currentTimeMillis();
+        for (Connection connection : connections) {
+            if (connection.task != null && now - connection.lastHeard > ResultSettings.HEARTBEAT_TIMEOUT_MILLIS) {
+                System.out.println("!!! NO HEARTBEAT FROM " + connection.socket.getRemoteSocketAddress() + " !!!");
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * The connection with one worker, handled on its own thread.
+     */
+    private class Connection implements Runnable {
+
+        private final Socket socket;
+
+        /**
+         * The task that the worker runs, null if none. Guarded by the coordinator.
+         */
+        private ExperimentTask task;
+
+        /**
+         * Time of the last message of the worker. Guarded by the coordinator.
+         */
+        private long lastHeard;
+
+        private boolean isFinished = false;
+
+        Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            try {
+                ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out.flush();
+                ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+                in.setObjectInputFilter(WorkMessage.FILTER);
+                while (true) {
+                    WorkMessage message = (WorkMessage) in.readObject();
+                    synchronized (Coordinator.this) {
+                        lastHeard = System.currentTimeMillis();
+                    }
+                    if (message.getType() == WorkMessage.Type.REQUEST) {
+                        ExperimentTask nextTask = takeTask(this);
+                        out.writeObject(nextTask == null ? WorkMessage.finished() : WorkMessage.task(nextTask, masterSeed));
+                        out.reset();
+                        out.flush();
+                        if (nextTask == null) break;
+                    } else if (message.getType() == WorkMessage.Type.RESULT) {
+                        completeTask(this, message.getTask(), message.getResults());
+                    } else if (message.getType() == WorkMessage.Type.FAILED) {
+                        failTask(this, message.getTask(), message.getError());
+                    }
+                }
+            } catch (EOFException | SocketException exception) {
+                // the worker is gone, its task is served again
+            } catch (IOException | ClassNotFoundException | ClassCastException exception) {
+                System.out.println("!!! LOST CONNECTION WITH WORKER " + socket.getRemoteSocketAddress() + ": "
+                        + exception + " !!!");
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } finally {
+                releaseTask(this);
+                close();
+                synchronized (this) {
+                    isFinished = true;
+                    notifyAll();
+                }
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException exception) {
+                // already closed
+            }
+        }
+
+        /**
+         * Waits shortly until the worker is told that all tasks are done, and closes the connection if it is not.
+         */
+        private synchronized void awaitFinished() {
+            long deadline = System.currentTimeMillis() + ResultSettings.HEARTBEAT_INTERVAL_MILLIS;
+            try {
+                while (!isFinished && System.currentTimeMillis() < deadline) {
+                    wait(ResultSettings.HEARTBEAT_INTERVAL_MILLIS);
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            if (!isFinished) close();
+        }
+    }
+}
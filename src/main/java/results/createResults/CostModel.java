@@ -0,0 +1,220 @@
+package results.createResults;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CostModel class: estimates the time it takes to simulate a task, in seconds per round, for every cost key of a
+ * configuration (the orders of theory of mind and whether the agents can lie and send messages). The estimates start
+ * from the passed time of the rows of earlier results files and are refined with every task that is done. For a cost
+ * key that is not measured yet, the rough estimate of ExperimentConfiguration is used, scaled to seconds with the
+ * ratio between measured and rough estimates of the measured keys. The estimates are used to run the most expensive
+ * tasks first, so that no long task is left when the other threads or workers are idle. The estimate of a configuration
+ * is cached until the next measurement, so picking a task does not build a cost key for every queued task.
+ */
+public class CostModel {
+
+    /**
+     * Total measured seconds and number of measured rounds, by cost key
+     */
+    private final Map<String, double[]> measurements = new HashMap<>();
+
+    /**
+     * Rough estimate of the cost of a round, by cost key, for the measured keys
+     */
+    private final Map<String, Double> roughRoundCosts = new HashMap<>();
+
+    /**
+     * Estimated cost by configuration (the tasks of a configuration share the instance), cleared by every measurement
+     */
+    private final Map<ExperimentConfiguration, Double> estimatedCosts = new IdentityHashMap<>();
+
+    private double totalMeasuredSeconds = 0.0;
+
+    private double totalRoughCost = 0.0;
+
+    /**
+     * Adds the passed time of the rows of a results file (csv or binary) to the estimates. The rows are assumed to be
+     * written with the default number of warm-up rounds and kept rounds of ResultSettings, as the passed time of the
+     * first kept round of a cell includes the warm-up rounds.
+     *
+     * @param resultsFile The results file
+     * @throws IOException If the file cannot be read or has no passed time
+     */
+    public void addResultsFile(File resultsFile) throws IOException {
+        double roundsPerRow = (ResultSettings.WARMUP_ROUNDS + ResultSettings.KEEP_RESULTS_NR_ROUNDS)
+                / (double) ResultSettings.KEEP_RESULTS_NR_ROUNDS;
+        if (resultsFile.getName().endsWith(BinaryResultWriter.FILE_EXTENSION)) {
+            addBinaryResultsFile(resultsFile, roundsPerRow);
+        } else {
+            addCsvResultsFile(resultsFile, roundsPerRow);
+        }
+    }
+
+    private void addCsvResultsFile(File resultsFile, double roundsPerRow) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(resultsFile),
+                StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) return;
+            String[] columnNames = header.split(",");
+            int[] columns = getCostColumns(columnNames, resultsFile);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",", -1);
+                if (values.length != columnNames.length) continue;
+                addMeasurement(Integer.parseInt(values[columns[0]]), Integer.parseInt(values[columns[1]]),
+                        Boolean.parseBoolean(values[columns[2]]), Boolean.parseBoolean(values[columns[3]]),
+                        Boolean.parseBoolean(values[columns[4]]), Boolean.parseBoolean(values[columns[5]]),
+                        Double.parseDouble(values[columns[6]]), roundsPerRow);
+            }
+        } catch (NumberFormatException exception) {
+            throw new IOException("Results file " + resultsFile + " has a value that is not a number");
+        }
+    }
+
+    private void addBinaryResultsFile(File resultsFile, double roundsPerRow) throws IOException {
+        BinaryResultReader reader = new BinaryResultReader(resultsFile);
+        try {
+            int[] columns = getCostColumns(reader.getColumnNames(), resultsFile);
+            for (int rowGroup = 0; rowGroup < reader.getNumberOfRowGroups(); rowGroup++) {
+                Object[] blocks = reader.readRowGroup(rowGroup);
+                for (int i = 0; i < reader.getRowGroupSize(rowGroup); i++) {
+                    addMeasurement(((int[]) blocks[columns[0]])[i], ((int[]) blocks[columns[1]])[i],
+                            ((boolean[]) blocks[columns[2]])[i], ((boolean[]) blocks[columns[3]])[i],
+                            ((boolean[]) blocks[columns[4]])[i], ((boolean[]) blocks[columns[5]])[i],
+                            ((double[]) blocks[columns[6]])[i], roundsPerRow);
+                }
+            }
+        } catch (ClassCastException exception) {
+            throw new IOException("Results file " + resultsFile + " has a column of an unexpected type");
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Gives the columns of the settings of the cost key and of the passed time.
+     *
+     * @param columnNames The names of the columns of a results file
+     * @param resultsFile The results file
+     * @return The indices of the columns
+     * @throws IOException If a column is missing
+     */
+    private static int[] getCostColumns(String[] columnNames, File resultsFile) throws IOException {
+        List<String> names = Arrays.asList(columnNames);
+        String[] costColumnNames = {ResultSettings.initTom, ResultSettings.respTom,
+                ResultSettings.initCanLie, ResultSettings.respCanLie,
+                ResultSettings.initCanSendMessages, ResultSettings.respCanSendMessages, ResultSettings.timePassed};
+        int[] columns = new int[costColumnNames.length];
+        for (int i = 0; i < costColumnNames.length; i++) {
+            columns[i] = names.indexOf(costColumnNames[i]);
+            if (columns[i] < 0) {
+                throw new IOException("Results file " + resultsFile + " has no column " + costColumnNames[i]);
+            }
+        }
+        return columns;
+    }
+
+    private void addMeasurement(int initToM, int respToM, boolean initCanLie, boolean respCanLie,
+                                boolean initCanSendMessages, boolean respCanSendMessages,
+                                double seconds, double rounds) {
+        addMeasurement(ExperimentConfiguration.getCostKey(initToM, respToM, initCanLie, respCanLie,
+                        initCanSendMessages, respCanSendMessages),
+                ExperimentConfiguration.getEstimatedRoundCost(initToM, respToM, initCanLie, respCanLie,
+                        initCanSendMessages, respCanSendMessages),
+                seconds, rounds);
+    }
+
+    /**
+     * Adds the measured time of a task that is done to the estimates.
+     *
+     * @param configuration The configuration of the task
+     * @param results       The results of the task
+     */
+    public void addMeasurement(ExperimentConfiguration configuration, List<ResultElement> results) {
+        double seconds = 0.0;
+        for (ResultElement resultElement : results) {
+            seconds += resultElement.getTimePassed();
+        }
+        addMeasurement(configuration.getCostKey(), configuration.getEstimatedRoundCost(), seconds,
+                configuration.getWarmupRounds() + configuration.getKeepRounds());
+    }
+
+    private synchronized void addMeasurement(String costKey, double roughRoundCost, double seconds, double rounds) {
+        double[] measurement = measurements.computeIfAbsent(costKey, key -> new double[2]);
+        if (!roughRoundCosts.containsKey(costKey)) {
+            roughRoundCosts.put(costKey, roughRoundCost);
+        } else {
+            totalMeasuredSeconds -= measurement[0] / measurement[1];
+            totalRoughCost -= roughRoundCost;
+        }
+        measurement[0] += seconds;
+        measurement[1] += rounds;
+        totalMeasuredSeconds += measurement[0] / measurement[1];
+        totalRoughCost += roughRoundCost;
+        estimatedCosts.clear();
+    }
+
+    /**
+     * Gives the estimated time it takes to simulate a configuration.
+     *
+     * @param configuration The configuration
+     * @return The estimated time in seconds, or in the unit of ExperimentConfiguration if nothing is measured yet
+     */
+    public synchronized double getEstimatedCost(ExperimentConfiguration configuration) {
+        Double estimatedCost = estimatedCosts.get(configuration);
+        if (estimatedCost == null) {
+            estimatedCost = calculateEstimatedCost(configuration);
+            estimatedCosts.put(configuration, estimatedCost);
+        }
+        return estimatedCost;
+    }
+
+    private double calculateEstimatedCost(ExperimentConfiguration configuration) {
+        double rounds = configuration.getWarmupRounds() + configuration.getKeepRounds();
+        double[] measurement = measurements.get(configuration.getCostKey());
+        if (measurement != null && measurement[1] > 0) return rounds * measurement[0] / measurement[1];
+        double secondsPerRoughCost = (totalRoughCost > 0 && totalMeasuredSeconds > 0)
+                ? totalMeasuredSeconds / totalRoughCost : 1.0;
+        return rounds * configuration.getEstimatedRoundCost() * secondsPerRoughCost;
+    }
+
+    /**
+     * Gives the task with the highest estimated cost, the task with the lowest cell index if several tasks have the
+     * same estimate.
+     *
+     * @param tasks The tasks to choose from
+     * @return The most expensive task, or null if there are no tasks
+     */
+    public synchronized ExperimentTask getMostExpensiveTask(Collection<ExperimentTask> tasks) {
+        ExperimentTask mostExpensiveTask = null;
+        double highestCost = -1.0;
+        for (ExperimentTask task : tasks) {
+            double cost = getEstimatedCost(task.getConfiguration());
+            if (cost > highestCost || (cost == highestCost && task.getCellIndex() < mostExpensiveTask.getCellIndex())) {
+                mostExpensiveTask = task;
+                highestCost = cost;
+            }
+        }
+        return mostExpensiveTask;
+    }
+
+    /**
+     * Gives the number of cost keys that are measured.
+     *
+     * @return The number of measured cost keys
+     */
+    public synchronized int getNumberOfMeasuredKeys() {
+        return measurements.size();
+    }
+}
@@ -0,0 +1,161 @@
+package results.createResults;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * CsvResultWriter class: appends rows to a csv file. The header is written once, when the file is opened. Rows are
+ * collected in a buffer that is written to the file when it is full or when it has not been written for some time, so
+ * only the rows that have not been written yet are kept in memory. sync() forces everything that was written to disk;
+ * it is due when a full buffer of rows is not synced yet, or ResultSettings.FLUSH_INTERVAL_MILLIS milliseconds after
+ * the last sync.
+ */
+public class CsvResultWriter extends ResultWriter {
+
+    private final FileOutputStream outputStream;
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private long lastFlushTime;
+
+    /**
+     * Number of bytes written to the file since the last sync
+     */
+    private long unsyncedBytes = 0;
+
+    /**
+     * Constructor. Creates the file, or empties it if it already exists, and writes the header.
+     *
+     * @param csvOutputFile The file to write to
+     * @param header        The names of the columns
+     * @throws IOException If the file cannot be opened
+     */
+    public CsvResultWriter(File csvOutputFile, String[] header) throws IOException {
+        this(csvOutputFile, header, -1);
+    }
+
+    /**
+     * Constructor. If resumeLength is -1, creates the file, or empties it if it already exists, and writes the header.
+     * Otherwise, continues the file after its first resumeLength bytes.
+     *
+     * @param csvOutputFile The file to write to
+     * @param header        The names of the columns
+     * @param resumeLength  The length of the file to continue, or -1 to start a new file
+     * @throws IOException If the file cannot be opened or is shorter than resumeLength
+     */
+    public CsvResultWriter(File csvOutputFile, String[] header, long resumeLength) throws IOException {
+        boolean isResumed = resumeLength >= 0;
+        if (isResumed && csvOutputFile.length() < resumeLength) {
+            throw new IOException("Results file " + csvOutputFile + " is shorter than recorded in the checkpoint");
+        }
+        this.outputStream = new FileOutputStream(csvOutputFile, isResumed);
+        this.lastFlushTime = System.currentTimeMillis();
+        if (isResumed) {
+            outputStream.getChannel().truncate(resumeLength);
+        } else {
+            appendLine(header);
+            flush();
+        }
+    }
+
+    /**
+     * Appends a row; the configuration is not kept.
+     */
+    @Override
+    public void append(int configurationIndex, Object[] row) throws IOException {
+        append(row);
+    }
+
+    /**
+     * Appends a row. The row is written to the file when the buffer is full or has not been written for
+     * ResultSettings.FLUSH_INTERVAL_MILLIS milliseconds.
+     *
+     * @param row The values of the row
+     * @throws IOException If writing fails
+     */
+    public void append(Object[] row) throws IOException {
+        String[] line = new String[row.length];
+        for (int i = 0; i < row.length; i++) {
+            line[i] = String.valueOf(row[i]);
+        }
+        appendLine(line);
+    }
+
+    private void appendLine(String[] line) throws IOException {
+        buffer.append(convertToCSV(line)).append(System.lineSeparator());
+        if (buffer.length() >= ResultSettings.FLUSH_BUFFER_SIZE
+                || System.currentTimeMillis() - lastFlushTime >= ResultSettings.FLUSH_INTERVAL_MILLIS) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered rows to the file.
+     *
+     * @throws IOException If writing fails
+     */
+    public void flush() throws IOException {
+        if (buffer.length() > 0) {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            outputStream.write(bytes);
+            unsyncedBytes += bytes.length;
+            buffer.setLength(0);
+        }
+        lastFlushTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes the buffered rows to the file and forces the file to disk.
+     *
+     * @throws IOException If writing fails
+     */
+    @Override
+    protected void syncFile() throws IOException {
+        flush();
+        outputStream.getFD().sync();
+        unsyncedBytes = 0;
+    }
+
+    @Override
+    protected boolean hasFullBatch() {
+        return unsyncedBytes + buffer.length() >= ResultSettings.FLUSH_BUFFER_SIZE;
+    }
+
+    @Override
+    public long getLength() throws IOException {
+        return outputStream.getChannel().size();
+    }
+
+    /**
+     * Writes the buffered rows, forces the file to disk and closes it.
+     *
+     * @throws IOException If writing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private String convertToCSV(String[] data) {
+        return Stream.of(data)
+                .map(this::escapeSpecialCharacters)
+                .collect(Collectors.joining(","));
+    }
+
+    private String escapeSpecialCharacters(String data) {
+        String escapedData = data.replaceAll("\\R", " ");
+        if (data.contains(",") || data.contains("\"") || data.contains("'")) {
+            data = data.replace("\"", "\"\"");
+            escapedData = "\"" + data + "\"";
+        }
+        return escapedData;
+    }
+}
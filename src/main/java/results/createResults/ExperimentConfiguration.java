@@ -0,0 +1,179 @@
+package results.createResults;
+
+import lyingAgents.model.DecisionLatencies;
+import lyingAgents.model.Game;
+import lyingAgents.utilities.RandomSource;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * ExperimentConfiguration class: the settings of the agents in one cell of an experiment.
+ */
+public class ExperimentConfiguration implements Serializable {
+
+    /**
+     * Serializable version
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Rough relative cost of a round for an agent, by order of theory of mind, for an agent that cannot and can lie.
+     * Lying agents of order 1 or 2 also consider the location messages they can send, which makes them much slower.
+     */
+    private static final double[][] AGENT_COST = {{0.0, 0.0}, {1.0, 4.0}, {8.0, 60.0}};
+
+    private final int initToM;
+    private final int respToM;
+
+    private final double initLR;
+    private final double respLR;
+
+    private final boolean initCanLie;
+    private final boolean respCanLie;
+
+    private final boolean initCanSendMessages;
+    private final boolean respCanSendMessages;
+
+    private final double zeroToMProb;
+
+    private final boolean isPareto;
+
+    private final int warmupRounds;
+
+    private final int keepRounds;
+
+    public ExperimentConfiguration(int initToM, int respToM, double initLR, double respLR,
+                                   boolean initCanLie, boolean respCanLie,
+                                   boolean initCanSendMessages, boolean respCanSendMessages,
+                                   double zeroToMProb, boolean isPareto) {
+        this(initToM, respToM, initLR, respLR, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages,
+                zeroToMProb, isPareto, ResultSettings.WARMUP_ROUNDS, ResultSettings.KEEP_RESULTS_NR_ROUNDS);
+    }
+
+    public ExperimentConfiguration(int initToM, int respToM, double initLR, double respLR,
+                                   boolean initCanLie, boolean respCanLie,
+                                   boolean initCanSendMessages, boolean respCanSendMessages,
+                                   double zeroToMProb, boolean isPareto, int warmupRounds, int keepRounds) {
+        this.initToM = initToM;
+        this.respToM = respToM;
+        this.initLR = initLR;
+        this.respLR = respLR;
+        this.initCanLie = initCanLie;
+        this.respCanLie = respCanLie;
+        this.initCanSendMessages = initCanSendMessages;
+        this.respCanSendMessages = respCanSendMessages;
+        this.zeroToMProb = zeroToMProb;
+        this.isPareto = isPareto;
+        this.warmupRounds = warmupRounds;
+        this.keepRounds = keepRounds;
+    }
+
+    /**
+     * Makes a new game with the settings of this configuration.
+     *
+     * @param parallelDecisions True if the agents calculate the values of their offers in parallel
+     * @param random            The source of the random numbers of the game
+     * @return The new game
+     */
+    public Game createGame(boolean parallelDecisions, RandomSource random) {
+        Game game = new Game(initToM, respToM, initLR, respLR, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages, random);
+        game.getInitiator().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
+        game.getResponder().setPROB_TOM0_SEND_MESSAGE(zeroToMProb);
+        game.setParallelDecisions(parallelDecisions);
+        return game;
+    }
+
+    /**
+     * Simulates the rounds of this configuration.
+     *
+     * @param parallelDecisions True if the agents calculate the values of their offers in parallel
+     * @param random            The source of the random numbers of the game
+     * @return The results of the kept rounds
+     */
+    public List<ResultElement> simulate(boolean parallelDecisions, RandomSource random) {
+        return simulate(parallelDecisions, random, null);
+    }
+
+    /**
+     * Simulates the rounds of this configuration, recording the durations of the decisions of the agents.
+     *
+     * @param parallelDecisions True if the agents calculate the values of their offers in parallel
+     * @param random            The source of the random numbers of the game
+     * @param decisionLatencies The latencies to which the durations of the decisions are added, or null
+     * @return The results of the kept rounds
+     */
+    public List<ResultElement> simulate(boolean parallelDecisions, RandomSource random,
+                                        DecisionLatencies decisionLatencies) {
+        Game game = createGame(parallelDecisions, random);
+        game.setDecisionLatencies(decisionLatencies);
+        return GetResults.simulate(game, isPareto, warmupRounds, keepRounds);
+    }
+
+    /**
+     * Gives a rough estimate of the time it takes to simulate this configuration, relative to the other
+     * configurations. Only the order of the estimates is meaningful, not their unit.
+     *
+     * @return The estimated cost
+     */
+    public double getEstimatedCost() {
+        return (warmupRounds + keepRounds) * getEstimatedRoundCost();
+    }
+
+    /**
+     * Gives a rough estimate of the time it takes to play one round with this configuration, in the unit of
+     * getEstimatedCost().
+     *
+     * @return The estimated cost of a round
+     */
+    public double getEstimatedRoundCost() {
+        return getEstimatedRoundCost(initToM, respToM, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages);
+    }
+
+    static double getEstimatedRoundCost(int initToM, int respToM, boolean initCanLie, boolean respCanLie,
+                                        boolean initCanSendMessages, boolean respCanSendMessages) {
+        return 1.0 + getAgentCost(initToM, initCanLie && initCanSendMessages)
+                + getAgentCost(respToM, respCanLie && respCanSendMessages);
+    }
+
+    /**
+     * Gives the settings that determine the time it takes to play a round, i.e. the orders of theory of mind and
+     * whether the agents can lie and send messages. Configurations with the same key take about the same time.
+     *
+     * @return The key
+     */
+    public String getCostKey() {
+        return getCostKey(initToM, respToM, initCanLie, respCanLie, initCanSendMessages, respCanSendMessages);
+    }
+
+    static String getCostKey(int initToM, int respToM, boolean initCanLie, boolean respCanLie,
+                             boolean initCanSendMessages, boolean respCanSendMessages) {
+        return initToM + "," + respToM + "," + initCanLie + "," + respCanLie + ","
+                + initCanSendMessages + "," + respCanSendMessages;
+    }
+
+    private static double getAgentCost(int tom, boolean canLie) {
+        return AGENT_COST[Math.min(tom, AGENT_COST.length - 1)][canLie ? 1 : 0];
+    }
+
+    public boolean isPareto() {
+        return isPareto;
+    }
+
+    public int getWarmupRounds() {
+        return warmupRounds;
+    }
+
+    public int getKeepRounds() {
+        return keepRounds;
+    }
+
+    @Override
+    public String toString() {
+        return "[i_tom=" + initToM + ", r_tom=" + respToM +
+                ", i_lr=" + initLR + ", r_lr=" + respLR +
+                ", prob=" + zeroToMProb +
+                ", i_mess=" + initCanSendMessages + ", r_mess=" + respCanSendMessages +
+                ", i_lie=" + initCanLie + ", r_lie=" + respCanLie + "]";
+    }
+}
@@ -0,0 +1,393 @@
+package results.createResults;
+
+import lyingAgents.utilities.Settings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * ExperimentGrid class: the definition of an experiment as a grid of settings. A grid is defined in a text file with
+ * one setting per line:
+ * <pre>
+ * # comment
+ * name = main
+ * repetitions = 10
+ * init_tom = 0, 1, 2
+ * resp_tom = 0, 1, 2
+ * init_canLie = true, false
+ * exclude = init_tom == 0 &amp;&amp; init_canLie == false
+ * </pre>
+ * A setting with several values is an axis of the grid. The configurations of the experiment are all combinations of
+ * the values of the axes, in the order in which the axes are given (the first axis changes slowest), except for the
+ * combinations that match one of the exclude rules. An exclude rule is a conjunction of conditions of the form
+ * "setting == value" or "setting != value". Settings that are not given have their default value.
+ * The configurations are expanded into a flat list of tasks, one for every configuration in every repetition.
+ */
+public class ExperimentGrid {
+
+    public static final String NAME = "name";
+    public static final String REPETITIONS = "repetitions";
+    public static final String EXCLUDE = "exclude";
+
+    public static final String WARMUP_ROUNDS = "warmup_rounds";
+    public static final String KEEP_ROUNDS = "keep_rounds";
+    public static final String PARETO = "pareto";
+    public static final String ZERO_TOM_PROB = "zeroToMProb";
+
+    private static final List<String> INT_SETTINGS = Arrays.asList(ResultSettings.initTom, ResultSettings.respTom,
+            WARMUP_ROUNDS, KEEP_ROUNDS);
+    private static final List<String> DOUBLE_SETTINGS = Arrays.asList(ResultSettings.initLR, ResultSettings.respLR,
+            ZERO_TOM_PROB);
+    private static final List<String> BOOLEAN_SETTINGS = Arrays.asList(ResultSettings.initCanLie, ResultSettings.respCanLie,
+            ResultSettings.initCanSendMessages, ResultSettings.respCanSendMessages, PARETO);
+
+    /**
+     * Highest order of theory of mind, as in the agent settings of the GUI
+     */
+    private static final int MAX_TOM_ORDER = 2;
+
+    /**
+     * Names of the experiments that are defined in the code
+     */
+    public static final List<String> BUILT_IN_NAMES = Arrays.asList("main", "determine_prob", "determine_prob_compare",
+            "de_weerd", "lr", "pareto");
+
+    private static final String EXCLUDE_ZERO_ORDER_HONEST = String.join("\n",
+            "# Zero-order agents are only simulated as agents that can lie",
+            EXCLUDE + " = " + ResultSettings.initTom + " == 0 && " + ResultSettings.initCanLie + " == false",
+            EXCLUDE + " = " + ResultSettings.respTom + " == 0 && " + ResultSettings.respCanLie + " == false");
+
+    private static final String MAIN_GRID = String.join("\n",
+            ResultSettings.initTom + " = 0, 1, 2",
+            ResultSettings.respTom + " = 0, 1, 2",
+            ResultSettings.initCanLie + " = true, false",
+            ResultSettings.respCanLie + " = true, false",
+            ResultSettings.initCanSendMessages + " = true",
+            ResultSettings.respCanSendMessages + " = true",
+            ZERO_TOM_PROB + " = 0.2",
+            EXCLUDE_ZERO_ORDER_HONEST);
+
+    private static final String DETERMINE_PROB_GRID = String.join("\n",
+            ResultSettings.initTom + " = 0, 1, 2",
+            ResultSettings.respTom + " = 0, 1, 2",
+            ZERO_TOM_PROB + " = 0.0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0",
+            ResultSettings.initCanLie + " = true, false",
+            ResultSettings.respCanLie + " = true, false",
+            ResultSettings.initCanSendMessages + " = true",
+            ResultSettings.respCanSendMessages + " = true",
+            "# At least one of the agents is a zero-order agent",
+            EXCLUDE + " = " + ResultSettings.initTom + " != 0 && " + ResultSettings.respTom + " != 0",
+            EXCLUDE_ZERO_ORDER_HONEST);
+
+    private static final String DETERMINE_PROB_COMPARE_GRID = String.join("\n",
+            ResultSettings.initTom + " = 0, 1, 2",
+            ResultSettings.respTom + " = 0, 1, 2",
+            ResultSettings.initCanLie + " = true, false",
+            ResultSettings.respCanLie + " = true, false",
+            ResultSettings.initCanSendMessages + " = true",
+            ResultSettings.respCanSendMessages + " = true",
+            ZERO_TOM_PROB + " = 0.0",
+            "# At least one of the agents is not a zero-order agent",
+            EXCLUDE + " = " + ResultSettings.initTom + " == 0 && " + ResultSettings.respTom + " == 0",
+            EXCLUDE_ZERO_ORDER_HONEST);
+
+    private static final String DE_WEERD_GRID = String.join("\n",
+            ResultSettings.initTom + " = 0, 1, 2",
+            ResultSettings.respTom + " = 0, 1, 2",
+            ResultSettings.initCanLie + " = false",
+            ResultSettings.respCanLie + " = false",
+            ResultSettings.initCanSendMessages + " = false",
+            ResultSettings.respCanSendMessages + " = false",
+            "# The default probability of the agents, which is not used as they cannot send messages",
+            ZERO_TOM_PROB + " = 0.25");
+
+    private static final String LR_GRID = String.join("\n",
+            ResultSettings.initTom + " = 0, 1, 2",
+            ResultSettings.respTom + " = 0, 1, 2",
+            ResultSettings.initCanLie + " = true, false",
+            ResultSettings.respCanLie + " = true, false",
+            ResultSettings.initLR + " = 0.1, 0.3, 0.5",
+            ResultSettings.respLR + " = 0.1, 0.3, 0.5",
+            ResultSettings.initCanSendMessages + " = true",
+            ResultSettings.respCanSendMessages + " = true",
+            ZERO_TOM_PROB + " = 0.2",
+            EXCLUDE_ZERO_ORDER_HONEST);
+
+    private static final String PARETO_GRID = String.join("\n",
+            MAIN_GRID,
+            "# Only rounds in which a Pareto improvement is possible",
+            PARETO + " = true");
+
+    private static final List<String> BUILT_IN_GRIDS = Arrays.asList(MAIN_GRID, DETERMINE_PROB_GRID,
+            DETERMINE_PROB_COMPARE_GRID, DE_WEERD_GRID, LR_GRID, PARETO_GRID);
+
+    private String name;
+
+    private int repetitions = ResultSettings.NUM_REP;
+
+    /**
+     * The names of the settings that are given, in the order in which they are given
+     */
+    private final List<String> settingNames = new ArrayList<>();
+
+    private final Map<String, List<Object>> settingValues = new HashMap<>();
+
+    /**
+     * The exclude rules, every rule is a list of conditions that must all hold
+     */
+    private final List<List<Condition>> excludeRules = new ArrayList<>();
+
+    private final String definition;
+
+    private final List<ExperimentConfiguration> configurations;
+
+    /**
+     * Constructor
+     *
+     * @param definition  The definition of the grid
+     * @param defaultName The name of the experiment if the definition does not give one
+     * @throws IllegalArgumentException If the definition is not valid
+     */
+    public ExperimentGrid(String definition, String defaultName) {
+        this.definition = definition;
+        this.name = defaultName;
+        String[] lines = definition.split("\\R");
+        for (int i = 0; i < lines.length; i++) {
+            try {
+                parseLine(lines[i]);
+            } catch (IllegalArgumentException exception) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": " + exception.getMessage());
+            }
+        }
+        if (!name.matches("[A-Za-z0-9-_.]+")) throw new IllegalArgumentException("Name '" + name + "' not correct");
+
+        this.configurations = new ArrayList<>();
+        expand(0, getDefaultValues());
+    }
+
+    /**
+     * Gives the grid of an experiment that is defined in the code.
+     *
+     * @param name The name of the experiment, one of BUILT_IN_NAMES
+     * @return The grid
+     * @throws IllegalArgumentException If there is no experiment with this name
+     */
+    public static ExperimentGrid getBuiltIn(String name) {
+        int index = BUILT_IN_NAMES.indexOf(name);
+        if (index < 0) throw new IllegalArgumentException("Experiment '" + name + "' is not implemented");
+        return new ExperimentGrid(BUILT_IN_GRIDS.get(index), name);
+    }
+
+    /**
+     * Reads the grid of an experiment from a file. The name of the experiment defaults to the name of the file
+     * without extension.
+     *
+     * @param gridFile The file
+     * @return The grid
+     * @throws IOException              If the file cannot be read
+     * @throws IllegalArgumentException If the definition is not valid
+     */
+    public static ExperimentGrid fromFile(File gridFile) throws IOException {
+        String definition = new String(Files.readAllBytes(gridFile.toPath()), StandardCharsets.UTF_8);
+        String defaultName = gridFile.getName();
+        if (defaultName.lastIndexOf('.') > 0) defaultName = defaultName.substring(0, defaultName.lastIndexOf('.'));
+        return new ExperimentGrid(definition, defaultName);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public String getDefinition() {
+        return definition;
+    }
+
+    public List<ExperimentConfiguration> getConfigurations() {
+        return Collections.unmodifiableList(configurations);
+    }
+
+    /**
+     * Gives all tasks of the experiment: every configuration in every repetition, ordered by repetition and then by
+     * configuration.
+     *
+     * @return The tasks
+     */
+    public List<ExperimentTask> getTasks() {
+        List<ExperimentTask> tasks = new ArrayList<>();
+        for (int rep = 1; rep <= repetitions; rep++) {
+            for (int i = 0; i < configurations.size(); i++) {
+                tasks.add(new ExperimentTask(getCellIndex(rep, i), rep, i, configurations.get(i)));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Gives the index of a cell, which is the position of the cell in the list of all tasks.
+     *
+     * @param rep                The repetition, starting at 1
+     * @param configurationIndex The index of the configuration
+     * @return The index of the cell
+     */
+    public long getCellIndex(int rep, int configurationIndex) {
+        return (long) (rep - 1) * configurations.size() + configurationIndex;
+    }
+
+    private void parseLine(String line) {
+        if (line.contains("#")) line = line.substring(0, line.indexOf('#'));
+        line = line.trim();
+        if (line.isEmpty()) return;
+
+        int separator = line.indexOf('=');
+        if (separator < 0) throw new IllegalArgumentException("Expected 'setting = values', found '" + line + "'");
+        String key = line.substring(0, separator).trim();
+        String value = line.substring(separator + 1).trim();
+
+        if (key.equals(NAME)) {
+            name = value;
+        } else if (key.equals(REPETITIONS)) {
+            repetitions = (Integer) parseValue(REPETITIONS, value, true);
+            if (repetitions < 1) throw new IllegalArgumentException("Number of repetitions must be at least 1");
+        } else if (key.equals(EXCLUDE)) {
+            excludeRules.add(parseExcludeRule(value));
+        } else {
+            if (!isSetting(key)) throw new IllegalArgumentException("Unknown setting '" + key + "'");
+            if (settingValues.containsKey(key)) throw new IllegalArgumentException("Setting '" + key + "' is given twice");
+            List<Object> values = new ArrayList<>();
+            for (String valueString : value.split(",")) {
+                Object settingValue = parseValue(key, valueString.trim(), false);
+                validateValue(key, settingValue);
+                if (values.contains(settingValue)) throw new IllegalArgumentException("Value " + settingValue + " of '" + key + "' is given twice");
+                values.add(settingValue);
+            }
+            settingNames.add(key);
+            settingValues.put(key, values);
+        }
+    }
+
+    private List<Condition> parseExcludeRule(String rule) {
+        List<Condition> conditions = new ArrayList<>();
+        for (String conditionString : rule.split("&&")) {
+            boolean isEqual = conditionString.contains("==");
+            String[] parts = conditionString.split(isEqual ? "==" : "!=");
+            if (parts.length != 2) throw new IllegalArgumentException("Expected 'setting == value' or 'setting != value', found '" + conditionString.trim() + "'");
+            String key = parts[0].trim();
+            if (!isSetting(key)) throw new IllegalArgumentException("Unknown setting '" + key + "'");
+            conditions.add(new Condition(key, isEqual, parseValue(key, parts[1].trim(), false)));
+        }
+        return conditions;
+    }
+
+    private static boolean isSetting(String key) {
+        return INT_SETTINGS.contains(key) || DOUBLE_SETTINGS.contains(key) || BOOLEAN_SETTINGS.contains(key);
+    }
+
+    private static Object parseValue(String key, String value, boolean isInt) {
+        try {
+            if (isInt || INT_SETTINGS.contains(key)) return Integer.parseInt(value);
+            if (DOUBLE_SETTINGS.contains(key)) return Double.parseDouble(value);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Value '" + value + "' of '" + key + "' is not a number");
+        }
+        if (value.equals("true") || value.equals("false")) return Boolean.parseBoolean(value);
+        throw new IllegalArgumentException("Value '" + value + "' of '" + key + "' is not true or false");
+    }
+
+    private static void validateValue(String key, Object value) {
+        if (key.equals(ResultSettings.initTom) || key.equals(ResultSettings.respTom)) {
+            int tom = (Integer) value;
+            if (tom < 0 || tom > MAX_TOM_ORDER) throw new IllegalArgumentException("Order of theory of mind " + tom + " not correct");
+        } else if (key.equals(WARMUP_ROUNDS) && (Integer) value < 0) {
+            throw new IllegalArgumentException("Number of warm-up rounds must be at least 0");
+        } else if (key.equals(KEEP_ROUNDS) && (Integer) value < 1) {
+            throw new IllegalArgumentException("Number of kept rounds must be at least 1");
+        } else if (DOUBLE_SETTINGS.contains(key) && ((Double) value < 0.0 || (Double) value > 1.0)) {
+            throw new IllegalArgumentException("Value " + value + " of '" + key + "' must be between 0 and 1");
+        }
+    }
+
+    private Map<String, Object> getDefaultValues() {
+        Map<String, Object> values = new HashMap<>();
+        values.put(ResultSettings.initTom, 0);
+        values.put(ResultSettings.respTom, 0);
+        values.put(ResultSettings.initLR, Settings.STANDARD_LR);
+        values.put(ResultSettings.respLR, Settings.STANDARD_LR);
+        values.put(ResultSettings.initCanLie, false);
+        values.put(ResultSettings.respCanLie, false);
+        values.put(ResultSettings.initCanSendMessages, false);
+        values.put(ResultSettings.respCanSendMessages, false);
+        values.put(ZERO_TOM_PROB, 0.0);
+        values.put(PARETO, false);
+        values.put(WARMUP_ROUNDS, ResultSettings.WARMUP_ROUNDS);
+        values.put(KEEP_ROUNDS, ResultSettings.KEEP_RESULTS_NR_ROUNDS);
+        return values;
+    }
+
+    /**
+     * Adds the configurations of all combinations of the values of the settings from the given setting onwards.
+     *
+     * @param settingIndex The index of the setting in settingNames
+     * @param values       The values of the settings before settingIndex
+     */
+    private void expand(int settingIndex, Map<String, Object> values) {
+        if (settingIndex == settingNames.size()) {
+            if (!isExcluded(values)) configurations.add(createConfiguration(values));
+            return;
+        }
+        String key = settingNames.get(settingIndex);
+        for (Object value : settingValues.get(key)) {
+            values.put(key, value);
+            expand(settingIndex + 1, values);
+        }
+    }
+
+    private boolean isExcluded(Map<String, Object> values) {
+        for (List<Condition> rule : excludeRules) {
+            boolean allHold = true;
+            for (Condition condition : rule) {
+                if (!condition.holds(values)) {
+                    allHold = false;
+                    break;
+                }
+            }
+            if (allHold) return true;
+        }
+        return false;
+    }
+
+    private static ExperimentConfiguration createConfiguration(Map<String, Object> values) {
+        return new ExperimentConfiguration(
+                (Integer) values.get(ResultSettings.initTom), (Integer) values.get(ResultSettings.respTom),
+                (Double) values.get(ResultSettings.initLR), (Double) values.get(ResultSettings.respLR),
+                (Boolean) values.get(ResultSettings.initCanLie), (Boolean) values.get(ResultSettings.respCanLie),
+                (Boolean) values.get(ResultSettings.initCanSendMessages), (Boolean) values.get(ResultSettings.respCanSendMessages),
+                (Double) values.get(ZERO_TOM_PROB), (Boolean) values.get(PARETO),
+                (Integer) values.get(WARMUP_ROUNDS), (Integer) values.get(KEEP_ROUNDS));
+    }
+
+    /**
+     * Condition class: a condition "setting == value" or "setting != value" of an exclude rule.
+     */
+    private static class Condition {
+        private final String key;
+        private final boolean isEqual;
+        private final Object value;
+
+        Condition(String key, boolean isEqual, Object value) {
+            this.key = key;
+            this.isEqual = isEqual;
+            this.value = value;
+        }
+
+        boolean holds(Map<String, Object> values) {
+            return values.get(key).equals(value) == isEqual;
+        }
+    }
+}
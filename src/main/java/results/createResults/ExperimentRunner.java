@@ -0,0 +1,313 @@
+package results.createResults;
+
+import lyingAgents.model.DecisionLatencies;
+import lyingAgents.utilities.RandomSource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ExperimentRunner class: runs the tasks of an experiment, i.e. every (repetition, configuration) cell, possibly on
+ * several threads. The tasks are independent, so a pool of worker threads runs the tasks ahead of time, taking the
+ * task that the cost model estimates to be the most expensive first, so that no long task is left at the end when
+ * the other threads are idle. The results are added in the order of the tasks, so the results file is ordered in the
+ * same way as with a single thread.
+ * Every cell has its own random source, seeded by the master seed and the index of the cell, so the results of a cell
+ * do not depend on the number of threads, and an experiment that is resumed from a checkpoint continues with the same
+ * random numbers.
+ */
+public class ExperimentRunner {
+
+    /**
+     * Largest number of tasks that are queued or done but not yet added to the results when running on several
+     * threads, which bounds the memory use
+     */
+    static final int MAX_QUEUED_TASKS = 1024;
+
+    private final GetResults getResults;
+
+    private final int numThreads;
+
+    private final boolean parallelDecisions;
+
+    private final Checkpoint checkpoint;
+
+    private final long masterSeed;
+
+    private final CostModel costModel;
+
+    /**
+     * Tasks that may be started by the worker threads, i.e. tasks that are not started yet within MAX_QUEUED_TASKS of
+     * the next task of which the results are added
+     */
+    private final List<ExperimentTask> queuedTasks = new ArrayList<>();
+
+    /**
+     * Results of the tasks that are done but not yet added, by cell index
+     */
+    private final Map<Long, List<ResultElement>> doneResults = new HashMap<>();
+
+    /**
+     * Cells of which the results are added but not yet synced and marked as done in the checkpoint
+     */
+    private final List<Long> unsyncedCells = new ArrayList<>();
+
+    /**
+     * Position of the first task that is not yet queued
+     */
+    private int queueEnd;
+
+    private boolean isStopped;
+
+    /**
+     * The error of a task that failed, null if none
+     */
+    private Throwable failure;
+
+    /**
+     * The repetition of the last task that was added to the results, 0 if there is none
+     */
+    private int currentRepetition;
+
+    /**
+     * The times in seconds of the simulations of the cells, null if they are not recorded
+     */
+    private QuantileSketch cellTimes;
+
+    /**
+     * The durations of the decisions of the agents of all cells, null if they are not recorded
+     */
+    private DecisionLatencies decisionLatencies;
+
+    /**
+     * Constructor
+     *
+     * @param getResults        Collects and writes the results
+     * @param numThreads        Number of worker threads, 1 runs all cells on the calling thread
+     * @param parallelDecisions True if the agents calculate the values of their offers in parallel
+     * @param checkpoint        The journal of the cells that are done, holding the seed from which the seeds of all
+     *                          cells are made
+     * @param costModel         Estimates the time of the tasks, refined with every task that is done
+     */
+    public ExperimentRunner(GetResults getResults, int numThreads, boolean parallelDecisions, Checkpoint checkpoint,
+                            CostModel costModel) {
+        this.getResults = getResults;
+        this.numThreads = numThreads;
+        this.parallelDecisions = parallelDecisions;
+        this.checkpoint = checkpoint;
+        this.masterSeed = checkpoint.getSeed();
+        this.costModel = costModel;
+    }
+
+    /**
+     * Records the time of the simulation of every cell that is run from now on, without the time of writing its
+     * results.
+     *
+     * @param cellTimes Gets the times of the cells in seconds, or null to stop recording
+     */
+    public void setCellTimes(QuantileSketch cellTimes) {
+        this.cellTimes = cellTimes;
+    }
+
+    /**
+     * Records the durations of the decisions of the agents in every round of every cell that is run from now on. Every
+     * cell records into its own latencies, which are added to the given latencies when the cell is done.
+     *
+     * @param decisionLatencies Gets the durations of the decisions, or null to stop recording
+     */
+    public void setDecisionLatencies(DecisionLatencies decisionLatencies) {
+        this.decisionLatencies = decisionLatencies;
+    }
+
+    /**
+     * Runs the tasks, skipping the cells that the checkpoint marks as done. The results of a cell are appended to the
+     * results file when the cell is done, and forced to disk when a sync is due (see GetResults.isSyncDue()) and at
+     * the end of every repetition, after which the cells are marked as done in the checkpoint.
+     * With several threads, at most MAX_QUEUED_TASKS tasks are queued at the same time, so the memory use does not
+     * grow with the number of tasks.
+     *
+     * @param tasks The tasks, ordered by repetition
+     */
+    public void run(List<ExperimentTask> tasks) {
+        currentRepetition = 0;
+        unsyncedCells.clear();
+        try {
+            if (numThreads <= 1) {
+                for (ExperimentTask task : tasks) {
+                    startTask(task);
+                    if (checkpoint.isCompleted(task.getCellIndex())) {
+                        System.out.println("\t" + task.getConfiguration() + " Already done;");
+                        continue;
+                    }
+                    addCell(task, runCell(task));
+                    System.out.println("\t" + task.getConfiguration() + " Done;");
+                }
+            } else {
+                runInPool(tasks);
+            }
+            if (currentRepetition != 0) finishRepetition(currentRepetition);
+        } catch (IOException exception) {
+            System.out.println("!!! WRITING TO EXCEL DID NOT SUCCEED !!!");
+        }
+    }
+
+    private void runInPool(List<ExperimentTask> tasks) throws IOException {
+        queuedTasks.clear();
+        doneResults.clear();
+        queueEnd = 0;
+        isStopped = false;
+        failure = null;
+        queueTasks(tasks, 0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        try {
+            for (int i = 0; i < numThreads; i++) {
+                pool.submit(this::runQueuedTasks);
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                ExperimentTask task = tasks.get(i);
+                startTask(task);
+                if (checkpoint.isCompleted(task.getCellIndex())) {
+                    System.out.println("\t" + task.getConfiguration() + " Already done;");
+                } else {
+                    addCell(task, awaitResults(task));
+                    System.out.println("\t" + task.getConfiguration() + " Done;");
+                }
+                queueTasks(tasks, i + 1);
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            System.out.println("!!! EXPERIMENT INTERRUPTED !!!");
+        } catch (ExecutionException exception) {
+            System.out.println("!!! EXPERIMENT FAILED: " + exception.getCause() + " !!!");
+        } finally {
+            synchronized (this) {
+                isStopped = true;
+                notifyAll();
+            }
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues the tasks that are not done, up to MAX_QUEUED_TASKS positions after the next task of which the results
+     * are added.
+     *
+     * @param tasks        The tasks
+     * @param nextPosition The position of the next task of which the results are added
+     */
+    private synchronized void queueTasks(List<ExperimentTask> tasks, int nextPosition) {
+        while (queueEnd < tasks.size() && queueEnd < nextPosition + MAX_QUEUED_TASKS) {
+            ExperimentTask task = tasks.get(queueEnd);
+            if (!checkpoint.isCompleted(task.getCellIndex())) queuedTasks.add(task);
+            queueEnd++;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Runs the queued tasks on a worker thread, the most expensive first, until the runner stops.
+     */
+    private void runQueuedTasks() {
+        while (true) {
+            ExperimentTask task;
+            synchronized (this) {
+                try {
+                    while (queuedTasks.isEmpty() && !isStopped) {
+                        wait();
+                    }
+                } catch (InterruptedException exception) {
+                    return;
+                }
+                if (isStopped) return;
+                task = costModel.getMostExpensiveTask(queuedTasks);
+                queuedTasks.remove(task);
+            }
+
+            try {
+                List<ResultElement> results = runCell(task);
+                synchronized (this) {
+                    doneResults.put(task.getCellIndex(), results);
+                    notifyAll();
+                }
+            } catch (RuntimeException | Error exception) {
+                synchronized (this) {
+                    failure = exception;
+                    notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private synchronized List<ResultElement> awaitResults(ExperimentTask task)
+            throws InterruptedException, ExecutionException {
+        while (!doneResults.containsKey(task.getCellIndex()) && failure == null) {
+            wait();
+        }
+        if (failure != null) throw new ExecutionException(failure);
+        return doneResults.remove(task.getCellIndex());
+    }
+
+    /**
+     * Simulates one cell of the experiment.
+     *
+     * @param task The task of the cell
+     * @return The results of the cell
+     */
+    private List<ResultElement> runCell(ExperimentTask task) {
+        RandomSource random = new RandomSource(RandomSource.mixSeed(masterSeed, task.getCellIndex()));
+        DecisionLatencies decisionLatencies = this.decisionLatencies;
+        DecisionLatencies cellLatencies = (decisionLatencies == null) ? null : new DecisionLatencies();
+        long startTime = System.nanoTime();
+        List<ResultElement> results = task.getConfiguration().simulate(parallelDecisions, random, cellLatencies);
+        QuantileSketch cellTimes = this.cellTimes;
+        if (cellTimes != null) {
+            synchronized (cellTimes) {
+                cellTimes.add((System.nanoTime() - startTime) / 1e9);
+            }
+        }
+        if (decisionLatencies != null) {
+            synchronized (decisionLatencies) {
+                decisionLatencies.merge(cellLatencies);
+            }
+        }
+        return results;
+    }
+
+    private void addCell(ExperimentTask task, List<ResultElement> results) throws IOException {
+        costModel.addMeasurement(task.getConfiguration(), results);
+        getResults.addResults(task, results);
+        unsyncedCells.add(task.getCellIndex());
+        if (getResults.isSyncDue()) syncResults();
+    }
+
+    /**
+     * Forces the added results to disk and marks their cells as done in the checkpoint.
+     *
+     * @throws IOException If writing fails
+     */
+    private void syncResults() throws IOException {
+        getResults.syncResults();
+        checkpoint.markCompleted(unsyncedCells, getResults.getResultsLength());
+        unsyncedCells.clear();
+    }
+
+    private void startTask(ExperimentTask task) throws IOException {
+        if (task.getRepetition() == currentRepetition) return;
+        if (currentRepetition != 0) finishRepetition(currentRepetition);
+        currentRepetition = task.getRepetition();
+        System.out.println("--- Start Repetition " + currentRepetition + " ---");
+    }
+
+    private void finishRepetition(int rep) throws IOException {
+        syncResults();
+        System.out.println("################### Finished iteration " + rep + " ###################\n");
+    }
+}
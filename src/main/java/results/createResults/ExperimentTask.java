@@ -0,0 +1,55 @@
+package results.createResults;
+
+import java.io.Serializable;
+
+/**
+ * ExperimentTask class: one cell of an experiment, i.e. one configuration in one repetition. The index of the cell
+ * identifies the cell in the results, the checkpoint and the seed of its random source.
+ */
+public class ExperimentTask implements Serializable {
+
+    /**
+     * Serializable version
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final long cellIndex;
+
+    private final int repetition;
+
+    private final int configurationIndex;
+
+    private final ExperimentConfiguration configuration;
+
+    public ExperimentTask(long cellIndex, int repetition, int configurationIndex, ExperimentConfiguration configuration) {
+        this.cellIndex = cellIndex;
+        this.repetition = repetition;
+        this.configurationIndex = configurationIndex;
+        this.configuration = configuration;
+    }
+
+    public long getCellIndex() {
+        return cellIndex;
+    }
+
+    public int getRepetition() {
+        return repetition;
+    }
+
+    public int getConfigurationIndex() {
+        return configurationIndex;
+    }
+
+    public ExperimentConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public double getEstimatedCost() {
+        return configuration.getEstimatedCost();
+    }
+
+    @Override
+    public String toString() {
+        return "cell " + cellIndex + " (repetition " + repetition + ") " + configuration;
+    }
+}
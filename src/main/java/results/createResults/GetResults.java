@@ -1,27 +1,76 @@
 package results.createResults;
 
+import lyingAgents.model.DecisionCounters;
 import lyingAgents.model.Game;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class GetResults {
     String saveDirectory;
 
-    private final List<ResultElement> data = new ArrayList<>();
-
-    private List<String[]> dataString;
-
-    private final String csvFileName;
+    private final ResultWriter resultWriter;
+
+    /**
+     * True if the rows get a column per counter of DecisionCounters
+     */
+    private final boolean writeCounters;
+
+    /**
+     * Constructor for results without the columns of the counters
+     *
+     * @param fileName       The name of the results file
+     * @param experimentName The name of the experiment, which is the directory of the results file
+     * @param binaryResults  True if the rows are written in the binary format
+     * @param writeSummary   True if the rows are also summarized per configuration (see ResultSummary)
+     * @param writeRows      True if the rows are written, false if only the summary is written
+     * @param resumeLength   The length of the results to continue, or -1 to start new results
+     * @throws IOException If the results cannot be opened
+     */
+    public GetResults(String fileName, String experimentName, boolean binaryResults, boolean writeSummary,
+                      boolean writeRows, long resumeLength) throws IOException {
+        this(fileName, experimentName, binaryResults, writeSummary, writeRows, false, resumeLength);
+    }
 
-    public GetResults(String csvFileName, String experimentName) {
-        this.csvFileName = csvFileName;
+    /**
+     * Constructor
+     *
+     * @param fileName       The name of the results file
+     * @param experimentName The name of the experiment, which is the directory of the results file
+     * @param binaryResults  True if the rows are written in the binary format
+     * @param writeSummary   True if the rows are also summarized per configuration (see ResultSummary)
+     * @param writeRows      True if the rows are written, false if only the summary is written
+     * @param writeCounters  True if the rows get the calls counted during the game (see DecisionCounters), which
+     *                       are -1 for games that did not count the calls
+     * @param resumeLength   The length of the results to continue, or -1 to start new results
+     * @throws IOException If the results cannot be opened
+     */
+    public GetResults(String fileName, String experimentName, boolean binaryResults, boolean writeSummary,
+                      boolean writeRows, boolean writeCounters, long resumeLength) throws IOException {
+        this.writeCounters = writeCounters;
         this.saveDirectory = "tmp_results" + File.separator + experimentName;
         makeFolder();
+        File outputFile = getResultsFile(fileName, experimentName);
+        ResultWriter rowWriter = null;
+        if (writeRows && binaryResults) {
+            rowWriter = new BinaryResultWriter(outputFile, getHeaders(), resumeLength);
+        } else if (writeRows) {
+            rowWriter = new CsvResultWriter(outputFile, getHeaders(), resumeLength);
+        }
+        if (writeSummary) {
+            String baseName = outputFile.getPath();
+            if (baseName.lastIndexOf('.') > baseName.lastIndexOf(File.separatorChar)) {
+                baseName = baseName.substring(0, baseName.lastIndexOf('.'));
+            }
+            this.resultWriter = new SummaryResultWriter(rowWriter, new File(baseName), getHeaders(), resumeLength);
+        } else {
+            this.resultWriter = rowWriter;
+        }
+    }
+
+    public static File getResultsFile(String fileName, String experimentName) {
+        return new File("tmp_results" + File.separator + experimentName + File.separator + fileName);
     }
 
     private void makeFolder() {
@@ -32,28 +81,37 @@ public class GetResults {
         }
     }
 
-    private String convertToCSV(String[] data) {
-        return Stream.of(data)
-                .map(this::escapeSpecialCharacters)
-                .collect(Collectors.joining(","));
-    }
-
-    private String escapeSpecialCharacters(String data) {
-        String escapedData = data.replaceAll("\\R", " ");
-        if (data.contains(",") || data.contains("\"") || data.contains("'")) {
-            data = data.replace("\"", "\"\"");
-            escapedData = "\"" + data + "\"";
+    /**
+     * Appends the results of a cell to the results file. Every row gets the repetition and the index of the cell, so
+     * that the results of several shards can be merged. Safe to call from several threads.
+     *
+     * @param task    The task of the cell
+     * @param results The results to add
+     * @throws IOException If writing fails
+     */
+    public synchronized void addResults(ExperimentTask task, List<ResultElement> results) throws IOException {
+        for (ResultElement resultElement : results) {
+            resultWriter.append(task.getConfigurationIndex(), getDataLine(resultElement, task));
         }
-        return escapedData;
     }
 
-    public void generateNewResults(Game game, Boolean isPareto) {
+    /**
+     * Plays the warm-up rounds and the rounds that are kept in the results, without adding the results.
+     *
+     * @param game         The game to simulate
+     * @param isPareto     True if only rounds with a Pareto improvement are kept
+     * @param warmupRounds The number of rounds that are played before the kept rounds
+     * @param keepRounds   The number of rounds that are kept in the results
+     * @return The results of the kept rounds
+     */
+    public static List<ResultElement> simulate(Game game, boolean isPareto, int warmupRounds, int keepRounds) {
+        List<ResultElement> data = new ArrayList<>();
         int i;
         ResultElement resultElement;
         long endTime, startTime;
 
         startTime = System.currentTimeMillis();
-        for (i = 0; i < ResultSettings.WARMUP_ROUNDS; i++) {
+        for (i = 0; i < warmupRounds; i++) {
             game.playTillEnd();
             game.newRound();
         }
@@ -75,23 +133,64 @@ public class GetResults {
             data.add(resultElement);
             startTime = System.currentTimeMillis();
             i++;
-        } while (i < ResultSettings.KEEP_RESULTS_NR_ROUNDS);
+        } while (i < keepRounds);
+        return data;
     }
 
-    public void writeExcel() throws IOException {
-        this.dataString = new ArrayList<>();
-        addHeaders();
-        createDataString();
-        File csvOutputFile = new File(saveDirectory + File.separator + csvFileName);
-        try (PrintWriter pw = new PrintWriter(csvOutputFile)) {
-            dataString.stream()
-                    .map(this::convertToCSV)
-                    .forEach(pw::println);
-        }
+    /**
+     * Writes all added results to the results file and forces it to disk.
+     *
+     * @throws IOException If writing fails
+     */
+    public synchronized void syncResults() throws IOException {
+        resultWriter.sync();
     }
 
-    private void addHeaders() {
-        String[] cell_headers = new String[]{
+    /**
+     * Tells whether the added results should be synced now, see ResultWriter.isSyncDue().
+     *
+     * @return True if syncResults() should be called now
+     */
+    public synchronized boolean isSyncDue() {
+        return resultWriter.isSyncDue();
+    }
+
+    /**
+     * Gives the length of the results file. After syncResults(), this is the length of the results file on disk.
+     *
+     * @return The length of the results file in bytes
+     * @throws IOException If the length cannot be read
+     */
+    public synchronized long getResultsLength() throws IOException {
+        return resultWriter.getLength();
+    }
+
+    /**
+     * Writes all added results to the results file and closes it.
+     *
+     * @throws IOException If writing or closing fails
+     */
+    public synchronized void close() throws IOException {
+        resultWriter.close();
+    }
+
+    private String[] getHeaders() {
+        String[] valueHeaders = getValueHeaders();
+        String[] counterHeaders = writeCounters ? DecisionCounters.getCounterNames() : new String[0];
+        String[] headers = Arrays.copyOf(valueHeaders, valueHeaders.length + counterHeaders.length + 2);
+        System.arraycopy(counterHeaders, 0, headers, valueHeaders.length, counterHeaders.length);
+        headers[headers.length - 2] = ResultSettings.repetition;
+        headers[headers.length - 1] = ResultSettings.cellIndex;
+        return headers;
+    }
+
+    /**
+     * Gives the names of the values of a result element (see getValues).
+     *
+     * @return The names of the values
+     */
+    public static String[] getValueHeaders() {
+        return new String[]{
                 ResultSettings.initTom, ResultSettings.respTom,
                 ResultSettings.initLR, ResultSettings.respLR,
                 ResultSettings.initCanSendMessages, ResultSettings.respCanSendMessages,
@@ -112,69 +211,83 @@ public class GetResults {
                 ResultSettings.isBestSWFromStrictPE,
                 ResultSettings.isNewOfferAccepted, ResultSettings.thereIsABetterOutcomeThanInitialSitu,
                 ResultSettings.reachedMaxNumOffers, ResultSettings.timePassed};
-        dataString.add(cell_headers);
     }
 
-    private void createDataString() {
-        String[] dataLine;
+    private Object[] getDataLine(ResultElement resultElement, ExperimentTask task) {
+        Object[] values = getValues(resultElement);
+        int numCounters = writeCounters ? DecisionCounters.getNumberOfCounters() : 0;
+        Object[] dataLine = Arrays.copyOf(values, values.length + numCounters + 2);
+        long[] counts = resultElement.getDecisionCounts();
+        for (int i = 0; i < numCounters; i++) {
+            dataLine[values.length + i] = (counts == null) ? -1 : (int) Math.min(counts[i], Integer.MAX_VALUE);
+        }
+        dataLine[dataLine.length - 2] = task.getRepetition();
+        dataLine[dataLine.length - 1] = Math.toIntExact(task.getCellIndex());
+        return dataLine;
+    }
 
-        for (ResultElement resultElement : data) {
-            dataLine = new String[]{
-                    String.valueOf(resultElement.getInitToM()),
-                    String.valueOf(resultElement.getRespToM()),
+    /**
+     * Gives the values of a result element, in the order of getValueHeaders(); the rows of the results file are these
+     * values followed by the counts of the calls (if written), the repetition and the index of the cell.
+     *
+     * @param resultElement The result element
+     * @return The values
+     */
+    public static Object[] getValues(ResultElement resultElement) {
+        return new Object[]{
+                resultElement.getInitToM(),
+                resultElement.getRespToM(),
 
-                    String.valueOf(resultElement.getInitLR()),
-                    String.valueOf(resultElement.getRespLR()),
+                resultElement.getInitLR(),
+                resultElement.getRespLR(),
 
-                    String.valueOf(resultElement.isInitCanSendMessages()),
-                    String.valueOf(resultElement.isRespCanSendMessages()),
+                resultElement.isInitCanSendMessages(),
+                resultElement.isRespCanSendMessages(),
 
-                    String.valueOf(resultElement.isInitCanLie()),
-                    String.valueOf(resultElement.isRespCanLie()),
+                resultElement.isInitCanLie(),
+                resultElement.isRespCanLie(),
 
-                    String.valueOf(resultElement.getInitInitialPoints()),
-                    String.valueOf(resultElement.getRespInitialPoints()),
+                resultElement.getInitInitialPoints(),
+                resultElement.getRespInitialPoints(),
 
-                    String.valueOf(resultElement.getInitFinalPoints()),
-                    String.valueOf(resultElement.getRespFinalPoints()),
+                resultElement.getInitFinalPoints(),
+                resultElement.getRespFinalPoints(),
 
-                    String.valueOf(resultElement.getInitGain()),
-                    String.valueOf(resultElement.getRespGain()),
+                resultElement.getInitGain(),
+                resultElement.getRespGain(),
 
-                    String.valueOf(resultElement.isInitCanInitiallyReachGP()),
-                    String.valueOf(resultElement.isRespCanInitiallyReachGP()),
+                resultElement.isInitCanInitiallyReachGP(),
+                resultElement.isRespCanInitiallyReachGP(),
 
-                    String.valueOf(resultElement.getInitZeroToMProb()),
-                    String.valueOf(resultElement.getRespZeroToMProb()),
+                resultElement.getInitZeroToMProb(),
+                resultElement.getRespZeroToMProb(),
 
-                    String.valueOf(resultElement.getInitNumberOfMessagesSent()),
-                    String.valueOf(resultElement.getRespNumberOfMessagesSent()),
+                resultElement.getInitNumberOfMessagesSent(),
+                resultElement.getRespNumberOfMessagesSent(),
 
-                    String.valueOf(resultElement.getInitNumberOfTimesLied()),
-                    String.valueOf(resultElement.getRespNumberOfTimesLied()),
+                resultElement.getInitNumberOfTimesLied(),
+                resultElement.getRespNumberOfTimesLied(),
 
-                    String.valueOf(resultElement.getInitHighestValueParetoOutcome()),
-                    String.valueOf(resultElement.getRespHighestValueParetoOutcome()),
+                resultElement.getInitHighestValueParetoOutcome(),
+                resultElement.getRespHighestValueParetoOutcome(),
 
-                    String.valueOf(resultElement.getInitHighestValueStrictParetoOutcome()),
-                    String.valueOf(resultElement.getRespHighestValueStrictParetoOutcome()),
+                resultElement.getInitHighestValueStrictParetoOutcome(),
+                resultElement.getRespHighestValueStrictParetoOutcome(),
 
-                    String.valueOf(resultElement.getInitNrFinalChips()),
-                    String.valueOf(resultElement.getRespNrFinalChips()),
+                resultElement.getInitNrFinalChips(),
+                resultElement.getRespNrFinalChips(),
 
-                    String.valueOf(resultElement.getHighestSWStrictPE()),
-                    String.valueOf(resultElement.getHighestSWPE()),
+                resultElement.getHighestSWStrictPE(),
+                resultElement.getHighestSWPE(),
 
-                    String.valueOf(resultElement.getNrOffers()),
-                    String.valueOf(resultElement.isStrictPE()),
-                    String.valueOf(resultElement.isPE()),
-                    String.valueOf(resultElement.isBestSW()),
-                    String.valueOf(resultElement.isNewOfferAccepted()),
-                    String.valueOf(resultElement.isThereIsBetterOutcomeThanInitialSituForBothAgents()),
-                    String.valueOf(resultElement.isReachedMaxNumOffers()),
-                    String.valueOf(resultElement.getTimePassed())
-            };
-            dataString.add(dataLine);
-        }
+                resultElement.getNrOffers(),
+                resultElement.isStrictPE(),
+                resultElement.isPE(),
+                resultElement.isBestSW(),
+                resultElement.isNewOfferAccepted(),
+                resultElement.isThereIsBetterOutcomeThanInitialSituForBothAgents(),
+                resultElement.isReachedMaxNumOffers(),
+                resultElement.getTimePassed()
+        };
     }
 }
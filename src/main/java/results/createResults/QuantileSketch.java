@@ -0,0 +1,145 @@
+package results.createResults;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * QuantileSketch class: estimates quantiles of a column without keeping the values, in the way of DDSketch. A value is
+ * counted in a bucket of which the bounds grow by a factor gamma = (1 + accuracy) / (1 - accuracy), separately for
+ * positive and negative values; zeros are counted exactly. A quantile is estimated by the middle of its bucket, which
+ * is within the relative accuracy of the exact quantile. The number of buckets grows with the logarithm of the range of
+ * the values, not with the number of values, and two sketches with the same accuracy are merged by adding the counts of
+ * their buckets.
+ */
+public class QuantileSketch {
+
+    private final double relativeAccuracy;
+
+    private final double logGamma;
+
+    /**
+     * Number of values in every bucket, by bucket index
+     */
+    private final TreeMap<Integer, Long> positiveBuckets = new TreeMap<>();
+    private final TreeMap<Integer, Long> negativeBuckets = new TreeMap<>();
+
+    private long zeroCount = 0;
+
+    private long count = 0;
+
+    /**
+     * Constructor
+     *
+     * @param relativeAccuracy The largest relative difference between an estimated and an exact quantile
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+    }
+
+    public void add(double value) {
+        count++;
+        if (value > 0) {
+            positiveBuckets.merge(getBucket(value), 1L, Long::sum);
+        } else if (value < 0) {
+            negativeBuckets.merge(getBucket(-value), 1L, Long::sum);
+        } else {
+            zeroCount++;
+        }
+    }
+
+    /**
+     * Adds the values of another sketch with the same accuracy to this sketch.
+     *
+     * @param other The sketch to add
+     */
+    public void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Sketches with accuracy " + relativeAccuracy + " and "
+                    + other.relativeAccuracy + " cannot be merged");
+        }
+        other.positiveBuckets.forEach((bucket, bucketCount) -> positiveBuckets.merge(bucket, bucketCount, Long::sum));
+        other.negativeBuckets.forEach((bucket, bucketCount) -> negativeBuckets.merge(bucket, bucketCount, Long::sum));
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    /**
+     * Estimates a quantile.
+     *
+     * @param quantile The quantile, from 0 to 1
+     * @return The estimated value of the quantile, NaN if there are no values
+     */
+    public double getQuantile(double quantile) {
+        if (count == 0) return Double.NaN;
+        long rank = (long) Math.floor(quantile * (count - 1));
+
+        long seen = 0;
+        for (Map.Entry<Integer, Long> bucket : negativeBuckets.descendingMap().entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) return -getValue(bucket.getKey());
+        }
+        seen += zeroCount;
+        if (seen > rank) return 0.0;
+        for (Map.Entry<Integer, Long> bucket : positiveBuckets.entrySet()) {
+            seen += bucket.getValue();
+            if (seen > rank) return getValue(bucket.getKey());
+        }
+        return getValue(positiveBuckets.lastKey());
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gives the bucket of a positive value: bucket i holds the values in (gamma^(i-1), gamma^i].
+     */
+    private int getBucket(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    /**
+     * Gives the value in the middle of a bucket, relative to its bounds.
+     */
+    private double getValue(int bucket) {
+        return 2 * Math.exp(bucket * logGamma) / (1 + Math.exp(logGamma));
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeDouble(relativeAccuracy);
+        out.writeLong(zeroCount);
+        writeBuckets(out, positiveBuckets);
+        writeBuckets(out, negativeBuckets);
+    }
+
+    static QuantileSketch read(DataInputStream in) throws IOException {
+        QuantileSketch sketch = new QuantileSketch(in.readDouble());
+        sketch.zeroCount = in.readLong();
+        sketch.count = sketch.zeroCount + readBuckets(in, sketch.positiveBuckets) + readBuckets(in, sketch.negativeBuckets);
+        return sketch;
+    }
+
+    private static void writeBuckets(DataOutputStream out, TreeMap<Integer, Long> buckets) throws IOException {
+        out.writeInt(buckets.size());
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            out.writeInt(bucket.getKey());
+            out.writeLong(bucket.getValue());
+        }
+    }
+
+    private static long readBuckets(DataInputStream in, TreeMap<Integer, Long> buckets) throws IOException {
+        long total = 0;
+        int numBuckets = in.readInt();
+        for (int i = 0; i < numBuckets; i++) {
+            int bucket = in.readInt();
+            long bucketCount = in.readLong();
+            buckets.put(bucket, bucketCount);
+            total += bucketCount;
+        }
+        return total;
+    }
+}
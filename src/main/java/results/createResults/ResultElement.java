@@ -1,5 +1,6 @@
 package results.createResults;
 
+import lyingAgents.model.DecisionCounters;
 import lyingAgents.model.Game;
 import lyingAgents.model.player.PlayerLying;
 import lyingAgents.utilities.Chips;
@@ -7,10 +8,16 @@ import lyingAgents.utilities.MiscFunc;
 import lyingAgents.utilities.OfferOutcome;
 import lyingAgents.utilities.Settings;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.List;
 
-public class ResultElement {
+public class ResultElement implements Serializable {
+
+    /**
+     * Serializable version
+     */
+    private static final long serialVersionUID = 1L;
 
     private final int initToM;
     private final int respToM;
@@ -64,6 +71,12 @@ public class ResultElement {
     private final boolean reachedMaxNumOffers;
     private final double timePassed;
 
+    /**
+     * The calls counted during the negotiation, in the order of DecisionCounters.getCounterNames(), or null if the game
+     * did not count the calls
+     */
+    private final long[] decisionCounts;
+
     public ResultElement(Game game, double timePassed) {
         PlayerLying init = game.getInitiator();
         PlayerLying resp = game.getResponder();
@@ -117,6 +130,8 @@ public class ResultElement {
         highestSWPE = map.get("sw");
 
         this.timePassed = timePassed;
+        DecisionCounters decisionCounters = game.getDecisionCounters();
+        this.decisionCounts = (decisionCounters == null) ? null : decisionCounters.getCounts();
     }
 
     public int getInitGain() {
@@ -179,6 +194,10 @@ public class ResultElement {
         return timePassed;
     }
 
+    public long[] getDecisionCounts() {
+        return decisionCounts;
+    }
+
     public boolean isBestSW() {
         return isBestSW;
     }
@@ -39,7 +39,17 @@ public class ResultSettings {
     public static final String timePassed = "passed_time";
     public static final String thereIsABetterOutcomeThanInitialSitu = "there_is_better_outcome_than_initial_situ";
     public static final String reachedMaxNumOffers = "reached_max_num_offers";
+    public static final String repetition = "repetition";
+    public static final String cellIndex = "cell";
+    public static final String summaryCount = "count";
+    public static final String configuration = "configuration";
     public static final int NUM_REP = 1;
     public static final int WARMUP_ROUNDS = 100;
     public static final int KEEP_RESULTS_NR_ROUNDS = 1;
+    public static final int FLUSH_BUFFER_SIZE = 1 << 16;
+    public static final long FLUSH_INTERVAL_MILLIS = 10_000;
+    public static final int ROW_GROUP_SIZE = 4096;
+    public static final long HEARTBEAT_INTERVAL_MILLIS = 1_000;
+    public static final long HEARTBEAT_TIMEOUT_MILLIS = 15_000;
+    public static final double SUMMARY_RELATIVE_ACCURACY = 0.01;
 }
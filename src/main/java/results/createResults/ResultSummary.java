@@ -0,0 +1,373 @@
+package results.createResults;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ResultSummary class: summarizes the rows of the results per configuration while they are written, so that the
+ * analysis does not need every row. A configuration is identified by its index in the experiment, as configurations
+ * with the same agents can differ in e.g. the number of warm-up rounds; the settings of the agents (the KEY_COLUMNS)
+ * are kept with it to make the summary readable. For every other column with numbers, the summary keeps the running mean, variance, minimum and maximum and a quantile
+ * sketch; for every column with booleans, it counts the rows that are true. The repetition and the cell are not
+ * summarized. Summaries of different rows, e.g. of the shards of an experiment, are merged with merge().
+ * <p>
+ * The summary is written as a csv file with one row per configuration, and as a state file from which the summary can
+ * be read again to continue or to merge it.
+ */
+public class ResultSummary {
+
+    public static final String STATE_FILE_EXTENSION = ".summary";
+    private static final byte[] MAGIC = {'C', 'T', 'R', 'S'};
+    private static final int VERSION = 2;
+
+    /**
+     * The columns with the settings of the agents of a configuration
+     */
+    public static final List<String> KEY_COLUMNS = Arrays.asList(
+            ResultSettings.initTom, ResultSettings.respTom,
+            ResultSettings.initLR, ResultSettings.respLR,
+            ResultSettings.initCanSendMessages, ResultSettings.respCanSendMessages,
+            ResultSettings.initCanLie, ResultSettings.respCanLie,
+            ResultSettings.initZeroToMProb, ResultSettings.respZeroToMProb);
+
+    private static final List<String> SKIPPED_COLUMNS = Arrays.asList(ResultSettings.repetition, ResultSettings.cellIndex);
+
+    private static final double[] QUANTILES = {0.1, 0.5, 0.9};
+
+    private static final byte KIND_KEY = 0;
+    private static final byte KIND_SKIPPED = 1;
+    private static final byte KIND_NUMBER = 2;
+    private static final byte KIND_BOOLEAN = 3;
+    private static final byte KIND_UNKNOWN = 4;
+
+    private final String[] columnNames;
+
+    /**
+     * What is kept of every column, KIND_UNKNOWN until the first row shows whether a column has numbers or booleans
+     */
+    private final byte[] columnKinds;
+
+    /**
+     * The summaries of the configurations, by the index of the configuration followed by the values of the key columns
+     */
+    private final Map<List<String>, Group> groups = new HashMap<>();
+
+    private long numRows = 0;
+
+    /**
+     * Constructor
+     *
+     * @param columnNames The names of the columns of the rows
+     */
+    public ResultSummary(String[] columnNames) {
+        this.columnNames = columnNames.clone();
+        this.columnKinds = new byte[columnNames.length];
+        for (int column = 0; column < columnNames.length; column++) {
+            if (KEY_COLUMNS.contains(columnNames[column])) {
+                columnKinds[column] = KIND_KEY;
+            } else if (SKIPPED_COLUMNS.contains(columnNames[column])) {
+                columnKinds[column] = KIND_SKIPPED;
+            } else {
+                columnKinds[column] = KIND_UNKNOWN;
+            }
+        }
+    }
+
+    /**
+     * Adds a row to the summary of its configuration.
+     *
+     * @param configurationIndex The index of the configuration of the row in the experiment
+     * @param row                The values of the row, Integer, Double or Boolean objects in the order of the columns
+     */
+    public void add(int configurationIndex, Object[] row) {
+        if (row.length != columnNames.length) {
+            throw new IllegalArgumentException("Row has " + row.length + " values, expected " + columnNames.length);
+        }
+        if (numRows == 0) setColumnKinds(row);
+
+        List<String> key = new ArrayList<>();
+        key.add(String.valueOf(configurationIndex));
+        for (int column = 0; column < row.length; column++) {
+            if (columnKinds[column] == KIND_KEY) key.add(String.valueOf(row[column]));
+        }
+        Group group = groups.computeIfAbsent(key, k -> new Group());
+        group.count++;
+        for (int column = 0; column < row.length; column++) {
+            if (columnKinds[column] == KIND_NUMBER) {
+                double value = ((Number) row[column]).doubleValue();
+                group.statistics[column].add(value);
+                group.sketches[column].add(value);
+            } else if (columnKinds[column] == KIND_BOOLEAN && (Boolean) row[column]) {
+                group.trueCounts[column]++;
+            }
+        }
+        numRows++;
+    }
+
+    private void setColumnKinds(Object[] row) {
+        for (int column = 0; column < row.length; column++) {
+            if (columnKinds[column] != KIND_UNKNOWN) continue;
+            if (row[column] instanceof Boolean) {
+                columnKinds[column] = KIND_BOOLEAN;
+            } else if (row[column] instanceof Number) {
+                columnKinds[column] = KIND_NUMBER;
+            } else {
+                throw new IllegalArgumentException("Column " + columnNames[column] + " has unsupported value " + row[column]);
+            }
+        }
+    }
+
+    /**
+     * Adds the rows of another summary with the same columns to this summary.
+     *
+     * @param other The summary to add
+     */
+    public void merge(ResultSummary other) {
+        if (!Arrays.equals(columnNames, other.columnNames)) {
+            throw new IllegalArgumentException("Summaries with different columns cannot be merged");
+        }
+        if (other.numRows == 0) return;
+        if (numRows == 0) System.arraycopy(other.columnKinds, 0, columnKinds, 0, columnKinds.length);
+        if (!Arrays.equals(columnKinds, other.columnKinds)) {
+            throw new IllegalArgumentException("Summaries with different column types cannot be merged");
+        }
+        for (Map.Entry<List<String>, Group> entry : other.groups.entrySet()) {
+            Group group = groups.computeIfAbsent(entry.getKey(), k -> new Group());
+            Group otherGroup = entry.getValue();
+            group.count += otherGroup.count;
+            for (int column = 0; column < columnNames.length; column++) {
+                if (columnKinds[column] == KIND_NUMBER) {
+                    group.statistics[column].merge(otherGroup.statistics[column]);
+                    group.sketches[column].merge(otherGroup.sketches[column]);
+                } else if (columnKinds[column] == KIND_BOOLEAN) {
+                    group.trueCounts[column] += otherGroup.trueCounts[column];
+                }
+            }
+        }
+        numRows += other.numRows;
+    }
+
+    public long getNumberOfRows() {
+        return numRows;
+    }
+
+    public int getNumberOfConfigurations() {
+        return groups.size();
+    }
+
+    /**
+     * Writes the summary as a csv file with one row per configuration, ordered by the index of the configuration and
+     * the key columns. For every column
+     * with numbers, the file has the mean, sample variance, minimum, 10%, 50% and 90% quantiles and maximum; for every
+     * column with booleans, the proportion of rows that are true.
+     *
+     * @param csvOutputFile The csv file
+     * @throws IOException If writing fails
+     */
+    public void writeCsv(File csvOutputFile) throws IOException {
+        List<String> header = new ArrayList<>();
+        header.add(ResultSettings.configuration);
+        for (int column = 0; column < columnNames.length; column++) {
+            if (columnKinds[column] == KIND_KEY) header.add(columnNames[column]);
+        }
+        header.add(ResultSettings.summaryCount);
+        for (int column = 0; column < columnNames.length; column++) {
+            String name = columnNames[column];
+            if (columnKinds[column] == KIND_NUMBER) {
+                header.addAll(Arrays.asList(name + "_mean", name + "_var", name + "_min"));
+                for (double quantile : QUANTILES) {
+                    header.add(name + "_p" + Math.round(quantile * 100));
+                }
+                header.add(name + "_max");
+            } else if (columnKinds[column] == KIND_BOOLEAN) {
+                header.add(name + "_prop");
+            }
+        }
+
+        List<List<String>> keys = new ArrayList<>(groups.keySet());
+        keys.sort(ResultSummary::compareKeys);
+        CsvResultWriter writer = new CsvResultWriter(csvOutputFile, header.toArray(new String[0]));
+        try {
+            for (List<String> key : keys) {
+                Group group = groups.get(key);
+                List<Object> row = new ArrayList<>(key);
+                row.add(group.count);
+                for (int column = 0; column < columnNames.length; column++) {
+                    if (columnKinds[column] == KIND_NUMBER) {
+                        RunningStatistics statistics = group.statistics[column];
+                        row.addAll(Arrays.asList(statistics.getMean(), statistics.getVariance(), statistics.getMin()));
+                        for (double quantile : QUANTILES) {
+                            double value = group.sketches[column].getQuantile(quantile);
+                            row.add(Math.max(statistics.getMin(), Math.min(statistics.getMax(), value)));
+                        }
+                        row.add(statistics.getMax());
+                    } else if (columnKinds[column] == KIND_BOOLEAN) {
+                        row.add((double) group.trueCounts[column] / group.count);
+                    }
+                }
+                writer.append(row.toArray());
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Compares the keys of two configurations value by value, numbers by their value.
+     */
+    private static int compareKeys(List<String> key, List<String> otherKey) {
+        for (int i = 0; i < key.size(); i++) {
+            int comparison;
+            try {
+                comparison = Double.compare(Double.parseDouble(key.get(i)), Double.parseDouble(otherKey.get(i)));
+            } catch (NumberFormatException exception) {
+                comparison = key.get(i).compareTo(otherKey.get(i));
+            }
+            if (comparison != 0) return comparison;
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the state of the summary, from which it can be read with readState().
+     *
+     * @param stateFile     The state file
+     * @param resultsLength The length of the results file with the rows of the summary, stored with the state
+     * @throws IOException If writing fails
+     */
+    public void writeState(File stateFile, long resultsLength) throws IOException {
+        FileOutputStream fileOutputStream = new FileOutputStream(stateFile);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOutputStream));
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(resultsLength);
+            out.writeLong(numRows);
+            out.writeInt(columnNames.length);
+            for (int column = 0; column < columnNames.length; column++) {
+                out.writeUTF(columnNames[column]);
+                out.writeByte(columnKinds[column]);
+            }
+            out.writeInt(groups.size());
+            for (Map.Entry<List<String>, Group> entry : groups.entrySet()) {
+                for (String value : entry.getKey()) {
+                    out.writeUTF(value);
+                }
+                Group group = entry.getValue();
+                out.writeLong(group.count);
+                for (int column = 0; column < columnNames.length; column++) {
+                    if (columnKinds[column] == KIND_NUMBER) {
+                        group.statistics[column].write(out);
+                        group.sketches[column].write(out);
+                    } else if (columnKinds[column] == KIND_BOOLEAN) {
+                        out.writeLong(group.trueCounts[column]);
+                    }
+                }
+            }
+            out.flush();
+            fileOutputStream.getFD().sync();
+        } finally {
+            fileOutputStream.close();
+        }
+    }
+
+    /**
+     * Reads the length of the results file that is stored with the state of a summary.
+     *
+     * @param stateFile The state file
+     * @return The length of the results file
+     * @throws IOException If the file cannot be read or is not a state file
+     */
+    public static long readResultsLength(File stateFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+            readHeader(in, stateFile);
+            return in.readLong();
+        }
+    }
+
+    /**
+     * Reads the state of a summary.
+     *
+     * @param stateFile The state file
+     * @return The summary
+     * @throws IOException If the file cannot be read or is not a state file
+     */
+    public static ResultSummary readState(File stateFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+            readHeader(in, stateFile);
+            in.readLong();
+            long numRows = in.readLong();
+            String[] columnNames = new String[in.readInt()];
+            byte[] columnKinds = new byte[columnNames.length];
+            int keyLength = 1; // The index of the configuration, followed by the key columns
+            for (int column = 0; column < columnNames.length; column++) {
+                columnNames[column] = in.readUTF();
+                columnKinds[column] = in.readByte();
+                if (columnKinds[column] == KIND_KEY) keyLength++;
+            }
+
+            ResultSummary summary = new ResultSummary(columnNames);
+            System.arraycopy(columnKinds, 0, summary.columnKinds, 0, columnKinds.length);
+            summary.numRows = numRows;
+            int numGroups = in.readInt();
+            for (int i = 0; i < numGroups; i++) {
+                List<String> key = new ArrayList<>();
+                for (int k = 0; k < keyLength; k++) {
+                    key.add(in.readUTF());
+                }
+                Group group = summary.new Group();
+                group.count = in.readLong();
+                for (int column = 0; column < columnNames.length; column++) {
+                    if (columnKinds[column] == KIND_NUMBER) {
+                        group.statistics[column] = RunningStatistics.read(in);
+                        group.sketches[column] = QuantileSketch.read(in);
+                    } else if (columnKinds[column] == KIND_BOOLEAN) {
+                        group.trueCounts[column] = in.readLong();
+                    }
+                }
+                summary.groups.put(key, group);
+            }
+            return summary;
+        }
+    }
+
+    private static void readHeader(DataInputStream in, File stateFile) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException(stateFile + " is not a summary state file");
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException(stateFile + " has unsupported version " + version);
+    }
+
+    /**
+     * The summary of the rows of one configuration, with the statistics, sketches and counts by column.
+     */
+    private class Group {
+
+        private long count = 0;
+
+        private final RunningStatistics[] statistics = new RunningStatistics[columnNames.length];
+
+        private final QuantileSketch[] sketches = new QuantileSketch[columnNames.length];
+
+        private final long[] trueCounts = new long[columnNames.length];
+
+        Group() {
+            for (int column = 0; column < columnNames.length; column++) {
+                statistics[column] = new RunningStatistics();
+                sketches[column] = new QuantileSketch(ResultSettings.SUMMARY_RELATIVE_ACCURACY);
+            }
+        }
+    }
+}
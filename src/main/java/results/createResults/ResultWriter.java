@@ -0,0 +1,97 @@
+package results.createResults;
+
+import java.io.IOException;
+
+/**
+ * ResultWriter class: writes the rows of the results to a file. The values of a row are Integer, Double or Boolean
+ * objects, in the order of the columns. A writer either starts a new file, or continues a file of an experiment that
+ * is resumed, after removing everything beyond the length recorded in the checkpoint.
+ * <p>
+ * Every sync forces the file to disk and is followed by a write to the checkpoint, so the writer decides when a sync
+ * is due (see isSyncDue()): when it has a full batch of rows since the last sync, or when the sync interval of the
+ * writer has passed.
+ */
+public abstract class ResultWriter {
+
+    /**
+     * The index of the configuration of rows of which the configuration is not known, e.g. of merged shards
+     */
+    public static final int UNKNOWN_CONFIGURATION = -1;
+
+    /**
+     * The time of the last sync, or at which the writer was made
+     */
+    private long lastSyncTime = System.currentTimeMillis();
+
+    /**
+     * Appends a row of a configuration to the results. The rows themselves do not keep the configuration; it is only
+     * used by a writer that summarizes the rows per configuration.
+     *
+     * @param configurationIndex The index of the configuration of the row in the experiment, or UNKNOWN_CONFIGURATION
+     * @param row                The values of the row
+     * @throws IOException If writing fails
+     */
+    public abstract void append(int configurationIndex, Object[] row) throws IOException;
+
+    /**
+     * Writes all appended rows to the file and forces the file to disk.
+     *
+     * @throws IOException If writing fails
+     */
+    public void sync() throws IOException {
+        syncFile();
+        lastSyncTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes all appended rows to the file and forces the file to disk, for sync().
+     *
+     * @throws IOException If writing fails
+     */
+    protected abstract void syncFile() throws IOException;
+
+    /**
+     * Tells whether the appended rows should be synced now. The cells of the rows are only marked as done in the
+     * checkpoint after a sync, but a sync for every cell would force the file and the checkpoint to disk after every
+     * game. A sync is due when the writer has a full batch of rows since the last sync, or getSyncIntervalMillis()
+     * after the last sync.
+     *
+     * @return True if sync() should be called now
+     */
+    public boolean isSyncDue() {
+        return hasFullBatch() || System.currentTimeMillis() - lastSyncTime >= getSyncIntervalMillis();
+    }
+
+    /**
+     * Tells whether the rows appended since the last sync fill a batch that should be synced.
+     *
+     * @return True if a full batch is not synced yet
+     */
+    protected boolean hasFullBatch() {
+        return false;
+    }
+
+    /**
+     * Gives the longest time between two syncs of which isSyncDue() asks for the second one.
+     *
+     * @return The time in milliseconds
+     */
+    protected long getSyncIntervalMillis() {
+        return ResultSettings.FLUSH_INTERVAL_MILLIS;
+    }
+
+    /**
+     * Gives the length of the file. After sync(), this is the length that the file has on disk.
+     *
+     * @return The length of the file in bytes
+     * @throws IOException If the length cannot be read
+     */
+    public abstract long getLength() throws IOException;
+
+    /**
+     * Writes all appended rows, forces the file to disk and closes it.
+     *
+     * @throws IOException If writing or closing fails
+     */
+    public abstract void close() throws IOException;
+}
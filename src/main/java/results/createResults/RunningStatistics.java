@@ -0,0 +1,102 @@
+package results.createResults;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * RunningStatistics class: the number of values, mean, variance, minimum and maximum of a column, updated one value
+ * at a time with Welford's algorithm, so that the values do not have to be kept. Two statistics of different values
+ * can be merged into the statistics of all values.
+ */
+public class RunningStatistics {
+
+    private long count = 0;
+
+    private double mean = 0.0;
+
+    /**
+     * Sum of the squared differences with the mean
+     */
+    private double m2 = 0.0;
+
+    private double min = Double.POSITIVE_INFINITY;
+
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the values of other statistics to these statistics.
+     *
+     * @param other The statistics to add
+     */
+    public void merge(RunningStatistics other) {
+        if (other.count == 0) return;
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        long totalCount = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / totalCount;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / totalCount);
+        count = totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return (count == 0) ? Double.NaN : mean;
+    }
+
+    /**
+     * Gives the sample variance.
+     *
+     * @return The sample variance, NaN if there are less than two values
+     */
+    public double getVariance() {
+        return (count < 2) ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double getMin() {
+        return (count == 0) ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return (count == 0) ? Double.NaN : max;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(count);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+        out.writeDouble(min);
+        out.writeDouble(max);
+    }
+
+    static RunningStatistics read(DataInputStream in) throws IOException {
+        RunningStatistics statistics = new RunningStatistics();
+        statistics.count = in.readLong();
+        statistics.mean = in.readDouble();
+        statistics.m2 = in.readDouble();
+        statistics.min = in.readDouble();
+        statistics.max = in.readDouble();
+        return statistics;
+    }
+}
@@ -0,0 +1,89 @@
+package results.createResults;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Shard class: one part of the tasks of an experiment, so that the parts can be run in separate processes or on
+ * separate machines without coordination. The tasks are divided over the shards by their estimated cost: from the most
+ * to the least expensive task, every task goes to the shard with the lowest total cost so far. Every process computes
+ * the same division, as it only depends on the tasks and the number of shards. The tasks of a shard are run in the
+ * order of their cell index.
+ */
+public class Shard {
+
+    private final int shardIndex;
+
+    private final int numShards;
+
+    /**
+     * Constructor
+     *
+     * @param shardIndex The index of the shard, from 0 to numShards - 1
+     * @param numShards  The number of shards
+     */
+    public Shard(int shardIndex, int numShards) {
+        if (numShards < 1 || shardIndex < 0 || shardIndex >= numShards) {
+            throw new IllegalArgumentException("Shard " + shardIndex + "/" + numShards + " not correct");
+        }
+        this.shardIndex = shardIndex;
+        this.numShards = numShards;
+    }
+
+    /**
+     * Reads a shard of the form "i/n".
+     *
+     * @param shard The shard
+     * @return The shard
+     * @throws IllegalArgumentException If the shard is not of the form "i/n" with 0 &lt;= i &lt; n
+     */
+    public static Shard parse(String shard) {
+        String[] parts = shard.split("/");
+        if (parts.length != 2) throw new IllegalArgumentException("Shard '" + shard + "' not of the form i/n");
+        try {
+            return new Shard(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Shard '" + shard + "' not of the form i/n");
+        }
+    }
+
+    /**
+     * Gives the tasks of this shard.
+     *
+     * @param tasks All tasks of the experiment
+     * @return The tasks of this shard, ordered by cell index
+     */
+    public List<ExperimentTask> select(List<ExperimentTask> tasks) {
+        List<ExperimentTask> sortedTasks = new ArrayList<>(tasks);
+        sortedTasks.sort(Comparator.comparingDouble(ExperimentTask::getEstimatedCost).reversed()
+                .thenComparingLong(ExperimentTask::getCellIndex));
+
+        double[] shardCosts = new double[numShards];
+        List<ExperimentTask> shardTasks = new ArrayList<>();
+        for (ExperimentTask task : sortedTasks) {
+            int cheapestShard = 0;
+            for (int i = 1; i < numShards; i++) {
+                if (shardCosts[i] < shardCosts[cheapestShard]) cheapestShard = i;
+            }
+            shardCosts[cheapestShard] += task.getEstimatedCost();
+            if (cheapestShard == shardIndex) shardTasks.add(task);
+        }
+        shardTasks.sort(Comparator.comparingLong(ExperimentTask::getCellIndex));
+        return shardTasks;
+    }
+
+    /**
+     * Gives the text that is added to the name of the results file of this shard.
+     *
+     * @return The suffix, e.g. "_shard2of4"
+     */
+    public String getFileSuffix() {
+        return "_shard" + shardIndex + "of" + numShards;
+    }
+
+    @Override
+    public String toString() {
+        return shardIndex + "/" + numShards;
+    }
+}
@@ -0,0 +1,118 @@
+package results.createResults;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * SummaryResultWriter class: summarizes the rows per configuration (see ResultSummary) and passes them on to a writer
+ * of the rows, or keeps only the summary if there is no such writer. The summary csv file is written by close().
+ * <p>
+ * sync() also writes the state of the summary, so that an experiment can be resumed. A sync is due when it is due for
+ * the writer of the rows, or every ResultSettings.FLUSH_INTERVAL_MILLIS milliseconds without such a writer (see
+ * ResultWriter.isSyncDue()), so the state that holds the whole summary is not written for every cell. The state is
+ * written to a new
+ * file that then replaces the state file, after the previous state is kept as a backup; the state stores the length
+ * of the results that it summarizes, so a resumed experiment continues from the state that matches the checkpoint,
+ * even if the process stopped after the state was written but before the checkpoint was. Without a writer of the
+ * rows, the length of the results is the number of summarized rows.
+ */
+public class SummaryResultWriter extends ResultWriter {
+
+    private final ResultWriter rowWriter;
+
+    private final ResultSummary summary;
+
+    private final File stateFile;
+
+    private final File csvOutputFile;
+
+    /**
+     * Constructor. If resumeLength is -1, starts a new summary. Otherwise, continues the summary from the state that
+     * summarizes the results up to resumeLength.
+     *
+     * @param rowWriter     The writer of the rows, or null to keep only the summary
+     * @param baseFile      The results file without extension, to which "_summary.csv" and ".summary" are added for the
+     *                      summary csv file and the state file
+     * @param header        The names of the columns
+     * @param resumeLength  The length of the results to continue, or -1 to start a new summary
+     * @throws IOException If the state of the summary cannot be read
+     */
+    public SummaryResultWriter(ResultWriter rowWriter, File baseFile, String[] header, long resumeLength) throws IOException {
+        this.rowWriter = rowWriter;
+        this.stateFile = new File(baseFile.getPath() + ResultSummary.STATE_FILE_EXTENSION);
+        this.csvOutputFile = new File(baseFile.getPath() + "_summary.csv");
+        if (resumeLength < 0) {
+            this.summary = new ResultSummary(header);
+            return;
+        }
+
+        File backupFile = getBackupFile();
+        if (stateFile.exists() && ResultSummary.readResultsLength(stateFile) == resumeLength) {
+            this.summary = ResultSummary.readState(stateFile);
+        } else if (backupFile.exists() && ResultSummary.readResultsLength(backupFile) == resumeLength) {
+            this.summary = ResultSummary.readState(backupFile);
+        } else {
+            throw new IOException("No summary state " + stateFile + " with the results recorded in the checkpoint");
+        }
+    }
+
+    @Override
+    public void append(int configurationIndex, Object[] row) throws IOException {
+        summary.add(configurationIndex, row);
+        if (rowWriter != null) rowWriter.append(configurationIndex, row);
+    }
+
+    @Override
+    protected void syncFile() throws IOException {
+        if (rowWriter != null) rowWriter.sync();
+        writeState(getLength());
+    }
+
+    @Override
+    protected boolean hasFullBatch() {
+        return rowWriter != null && rowWriter.hasFullBatch();
+    }
+
+    @Override
+    protected long getSyncIntervalMillis() {
+        return (rowWriter == null) ? super.getSyncIntervalMillis() : rowWriter.getSyncIntervalMillis();
+    }
+
+    @Override
+    public long getLength() throws IOException {
+        return (rowWriter == null) ? summary.getNumberOfRows() : rowWriter.getLength();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (rowWriter != null) rowWriter.sync();
+        long length = getLength();
+        try {
+            if (rowWriter != null) rowWriter.close();
+        } finally {
+            writeState(length);
+            summary.writeCsv(csvOutputFile);
+        }
+    }
+
+    /**
+     * Replaces the state file by the current state, keeping the previous state as a backup.
+     *
+     * @param resultsLength The length of the results that are summarized
+     * @throws IOException If writing fails
+     */
+    private void writeState(long resultsLength) throws IOException {
+        File newStateFile = new File(stateFile.getPath() + ".new");
+        summary.writeState(newStateFile, resultsLength);
+        if (stateFile.exists()) {
+            Files.move(stateFile.toPath(), getBackupFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(newStateFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private File getBackupFile() {
+        return new File(stateFile.getPath() + ".previous");
+    }
+}
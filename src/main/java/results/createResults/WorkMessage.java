@@ -0,0 +1,101 @@
+package results.createResults;
+
+import java.io.ObjectInputFilter;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WorkMessage class: a message between the coordinator and a worker, sent with Java serialization. A worker asks for a
+ * task (REQUEST), sends HEARTBEAT messages while it runs the task, and sends the results of the task back (RESULT), or
+ * the error if the task failed (FAILED). The coordinator answers a request with a task (TASK) or, when all tasks are done, with FINISHED.
+ */
+class WorkMessage implements Serializable {
+
+    /**
+     * Serializable version
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Only the classes of the messages are read from a connection
+     */
+    static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=10;results.createResults.*;java.util.ArrayList;java.lang.Enum;java.lang.Object;!*");
+
+    enum Type {REQUEST, TASK, HEARTBEAT, RESULT, FAILED, FINISHED}
+
+    private final Type type;
+
+    /**
+     * The task, for TASK, RESULT and FAILED messages
+     */
+    private final ExperimentTask task;
+
+    /**
+     * The master seed of the experiment, for TASK messages
+     */
+    private final long seed;
+
+    /**
+     * The results of the task, for RESULT messages
+     */
+    private final ArrayList<ResultElement> results;
+
+    /**
+     * The error of the task, for FAILED messages
+     */
+    private final String error;
+
+    private WorkMessage(Type type, ExperimentTask task, long seed, List<ResultElement> results, String error) {
+        this.type = type;
+        this.task = task;
+        this.seed = seed;
+        this.results = (results == null) ? null : new ArrayList<>(results);
+        this.error = error;
+    }
+
+    static WorkMessage request() {
+        return new WorkMessage(Type.REQUEST, null, 0, null, null);
+    }
+
+    static WorkMessage task(ExperimentTask task, long seed) {
+        return new WorkMessage(Type.TASK, task, seed, null, null);
+    }
+
+    static WorkMessage heartbeat() {
+        return new WorkMessage(Type.HEARTBEAT, null, 0, null, null);
+    }
+
+    static WorkMessage result(ExperimentTask task, List<ResultElement> results) {
+        return new WorkMessage(Type.RESULT, task, 0, results, null);
+    }
+
+    static WorkMessage failed(ExperimentTask task, String error) {
+        return new WorkMessage(Type.FAILED, task, 0, null, error);
+    }
+
+    static WorkMessage finished() {
+        return new WorkMessage(Type.FINISHED, null, 0, null, null);
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    ExperimentTask getTask() {
+        return task;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    List<ResultElement> getResults() {
+        return results;
+    }
+
+    String getError() {
+        return error;
+    }
+}
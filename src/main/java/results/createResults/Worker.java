@@ -0,0 +1,149 @@
+package results.createResults;
+
+import lyingAgents.model.DecisionLatencies;
+import lyingAgents.utilities.RandomSource;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker class: asks a Coordinator for tasks, runs them and sends the results back, until the coordinator has no tasks
+ * left. Every thread of the worker has its own connection with the coordinator and runs one task at a time. While a
+ * task runs, a heartbeat is sent every ResultSettings.HEARTBEAT_INTERVAL_MILLIS, so that the coordinator knows the
+ * task is not abandoned. The random source of a task is made from the seed of the coordinator and the index of the
+ * cell, so the results do not depend on which worker runs the task.
+ */
+public class Worker {
+
+    private final String host;
+
+    private final int port;
+
+    private final boolean parallelDecisions;
+
+    private final ScheduledExecutorService heartbeats;
+
+    /**
+     * The durations of the decisions of the agents of all tasks, null if they are not recorded
+     */
+    private DecisionLatencies decisionLatencies;
+
+    /**
+     * Constructor
+     *
+     * @param host              The host of the coordinator
+     * @param port              The port of the coordinator
+     * @param parallelDecisions True if the agents calculate the values of their offers in parallel
+     */
+    public Worker(String host, int port, boolean parallelDecisions) {
+        this.host = host;
+        this.port = port;
+        this.parallelDecisions = parallelDecisions;
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "worker-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records the durations of the decisions of the agents of the tasks that are run from now on (see
+     * ExperimentRunner.setDecisionLatencies).
+     *
+     * @param decisionLatencies Gets the durations of the decisions, or null to stop recording
+     */
+    public void setDecisionLatencies(DecisionLatencies decisionLatencies) {
+        this.decisionLatencies = decisionLatencies;
+    }
+
+    /**
+     * Runs tasks on several threads until the coordinator has no tasks left.
+     *
+     * @param numThreads The number of tasks that are run at the same time
+     */
+    public void run(int numThreads) {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            Thread thread = new Thread(this::work, "worker-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            heartbeats.shutdownNow();
+        }
+    }
+
+    private void work() {
+        try (Socket socket = new Socket(host, port)) {
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.flush();
+            ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+            in.setObjectInputFilter(WorkMessage.FILTER);
+            while (true) {
+                send(out, WorkMessage.request());
+                WorkMessage message = (WorkMessage) in.readObject();
+                if (message.getType() != WorkMessage.Type.TASK) break;
+
+                ExperimentTask task = message.getTask();
+                ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> sendHeartbeat(out),
+                        ResultSettings.HEARTBEAT_INTERVAL_MILLIS, ResultSettings.HEARTBEAT_INTERVAL_MILLIS,
+                        TimeUnit.MILLISECONDS);
+                List<ResultElement> results;
+                DecisionLatencies decisionLatencies = this.decisionLatencies;
+                DecisionLatencies taskLatencies = (decisionLatencies == null) ? null : new DecisionLatencies();
+                try {
+                    RandomSource random = new RandomSource(RandomSource.mixSeed(message.getSeed(), task.getCellIndex()));
+                    results = task.getConfiguration().simulate(parallelDecisions, random, taskLatencies);
+                } catch (RuntimeException | Error exception) {
+                    // The task would fail on every worker, so the coordinator stops the experiment
+                    System.out.println("!!! TASK FAILED: " + task + ": " + exception + " !!!");
+                    send(out, WorkMessage.failed(task, exception.toString()));
+                    break;
+                } finally {
+                    heartbeat.cancel(false);
+                }
+                if (decisionLatencies != null) {
+                    synchronized (decisionLatencies) {
+                        decisionLatencies.merge(taskLatencies);
+                    }
+                }
+                send(out, WorkMessage.result(task, results));
+                System.out.println("\t" + task + " Done;");
+            }
+        } catch (IOException | ClassNotFoundException exception) {
+            System.out.println("!!! LOST CONNECTION WITH COORDINATOR: " + exception.getMessage() + " !!!");
+        }
+    }
+
+    private void sendHeartbeat(ObjectOutputStream out) {
+        try {
+            send(out, WorkMessage.heartbeat());
+        } catch (IOException exception) {
+            // the connection is lost, which the worker notices when it sends the results
+        }
+    }
+
+    private static void send(ObjectOutputStream out, WorkMessage message) throws IOException {
+        synchronized (out) {
+            out.writeObject(message);
+            out.reset();
+            out.flush();
+        }
+    }
+}
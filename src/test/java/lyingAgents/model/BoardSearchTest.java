@@ -0,0 +1,103 @@
+package lyingAgents.model;
+
+import lyingAgents.utilities.Chips;
+import lyingAgents.utilities.RandomSource;
+import lyingAgents.utilities.Settings;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The memoized search of Board.calculateScore, Board.canReachGP and the utility tables of UtilityTableBuilder and
+ * UtilityComponents, compared to the exhaustive search of the original Board (see ReferenceBoardSearch) on random
+ * boards and chips.
+ */
+class BoardSearchTest {
+
+    private static final int NUM_CASES = 30000;
+
+    private static final int NUM_BOARDS = 200;
+
+    @Test
+    void calculateScoreMatchesReference() {
+        RandomSource random = new RandomSource(1);
+        for (int i = 0; i < NUM_CASES; i++) {
+            Board board = new Board(random);
+            ReferenceBoardSearch reference = new ReferenceBoardSearch(board);
+            int[] chips = randomChips(random);
+            Point currLoc = randomTile(random), startLoc = randomTile(random), goalLoc = randomTile(random);
+            assertEquals(reference.calculateScore(currLoc, chips, startLoc, goalLoc),
+                    board.calculateScore(currLoc, chips, startLoc, goalLoc));
+        }
+    }
+
+    @Test
+    void canReachGPMatchesReference() {
+        RandomSource random = new RandomSource(2);
+        for (int i = 0; i < NUM_CASES; i++) {
+            Board board = new Board(random);
+            ReferenceBoardSearch reference = new ReferenceBoardSearch(board);
+            int[] chips = randomChips(random);
+            Point currLoc = randomTile(random), goalLoc = randomTile(random);
+            assertEquals(reference.canReachGP(currLoc, chips, goalLoc), board.canReachGP(currLoc, chips, goalLoc));
+        }
+    }
+
+    @Test
+    void utilityFunctionsMatchReference() {
+        RandomSource random = new RandomSource(3);
+        for (int i = 0; i < NUM_BOARDS; i++) {
+            Board board = new Board(random);
+            ReferenceBoardSearch reference = new ReferenceBoardSearch(board);
+            int[] binMaxChips = randomGameChips(random);
+            UtilityTableBuilder builder = new UtilityTableBuilder(board, binMaxChips, Settings.STARTING_POSITION);
+            Point goalLoc = randomTile(random);
+            assertArrayEquals(reference.calcUtilityFunction(binMaxChips, goalLoc), builder.getUtilityFunction(goalLoc));
+        }
+    }
+
+    @Test
+    void utilityComponentsMatchReferenceForOtherWeights() {
+        RandomSource random = new RandomSource(4);
+        for (int i = 0; i < NUM_BOARDS; i++) {
+            Board board = new Board(random);
+            int scoreGoal = random.nextInt(1000), scoreStep = random.nextInt(200), scoreSurplus = random.nextInt(200);
+            ReferenceBoardSearch reference = new ReferenceBoardSearch(board, scoreGoal, scoreStep, scoreSurplus);
+            int[] binMaxChips = randomGameChips(random);
+            UtilityTableBuilder builder = new UtilityTableBuilder(board, binMaxChips, Settings.STARTING_POSITION);
+            Point goalLoc = randomTile(random);
+            assertArrayEquals(reference.calcUtilityFunction(binMaxChips, goalLoc),
+                    builder.getUtilityComponents(goalLoc).getUtilityFunction(scoreGoal, scoreStep, scoreSurplus));
+        }
+    }
+
+    private static Point randomTile(RandomSource random) {
+        return new Point(random.nextInt(Settings.BOARD_WIDTH), random.nextInt(Settings.BOARD_HEIGHT));
+    }
+
+    /**
+     * Gets at most the chips of both players, of random colors
+     */
+    private static int[] randomChips(RandomSource random) {
+        int[] chips = Chips.makeNewChipBin();
+        int nrChips = random.nextInt(2 * Settings.CHIPS_PER_PLAYER + 1);
+        for (int i = 0; i < nrChips; i++) {
+            chips[random.nextInt(Settings.CHIP_DIVERSITY)]++;
+        }
+        return chips;
+    }
+
+    /**
+     * Gets the chips of both players, of random colors
+     */
+    private static int[] randomGameChips(RandomSource random) {
+        int[] chips = Chips.makeNewChipBin();
+        for (int i = 0; i < 2 * Settings.CHIPS_PER_PLAYER; i++) {
+            chips[random.nextInt(Settings.CHIP_DIVERSITY)]++;
+        }
+        return chips;
+    }
+}
@@ -0,0 +1,116 @@
+package lyingAgents.model;
+
+import lyingAgents.utilities.Chips;
+import lyingAgents.utilities.MiscFunc;
+import lyingAgents.utilities.Settings;
+
+import java.awt.*;
+
+/**
+ * The exhaustive board search of the original Board (commit f365f02), without memoization or pruning, with the score
+ * constants as parameters. Used as reference for the faster search of Board and for UtilityTableBuilder.
+ */
+class ReferenceBoardSearch {
+
+    private final Board board;
+
+    private final int scoreGoal;
+
+    private final int scoreStep;
+
+    private final int scoreSurplus;
+
+    /**
+     * Constructor for the score constants in Settings
+     *
+     * @param board The board
+     */
+    ReferenceBoardSearch(Board board) {
+        this(board, Settings.SCORE_GOAL, Settings.SCORE_STEP, Settings.SCORE_SURPLUS);
+    }
+
+    ReferenceBoardSearch(Board board, int scoreGoal, int scoreStep, int scoreSurplus) {
+        this.board = board;
+        this.scoreGoal = scoreGoal;
+        this.scoreStep = scoreStep;
+        this.scoreSurplus = scoreSurplus;
+    }
+
+    private int calculateTileScore(Point currLoc, int[] chips, Point startLoc, Point goalLoc) {
+        int score = 0, stepsTowardsGoal;
+        stepsTowardsGoal = MiscFunc.manhattanDistance(startLoc, goalLoc) - MiscFunc.manhattanDistance(currLoc, goalLoc);
+
+        if (currLoc.equals(goalLoc))
+            score += scoreGoal;
+        score += scoreStep * Math.max(0, stepsTowardsGoal);
+        score += scoreSurplus * Chips.getNrChips(chips);
+        return score;
+    }
+
+    int calculateScore(Point currLoc, int[] chips, Point startLoc, Point goalLoc) {
+        int currScore = calculateTileScore(currLoc, chips, startLoc, goalLoc);
+        if (currLoc.equals(goalLoc) || (Chips.getNrChips(chips) == 0)) {
+            return currScore;
+        }
+
+        int highestScore = currScore;
+        for (Point move : Settings.getPossibleMoves()) {
+            Point newLoc = new Point(currLoc.x + move.x, currLoc.y + move.y);
+            if (isOnBoard(newLoc)) {
+                int tileColor = board.getTileColorNumber(newLoc);
+                if (chips[tileColor] > 0) {
+                    int[] newTokens = chips.clone();
+                    newTokens[tileColor] -= 1;
+                    highestScore = Math.max(highestScore, calculateScore(newLoc, newTokens, startLoc, goalLoc));
+                }
+            }
+        }
+        return highestScore;
+    }
+
+    boolean canReachGP(Point currLoc, int[] chips, Point goalLoc) {
+        if (currLoc.equals(goalLoc)) {
+            return true;
+        } else if (Chips.getNrChips(chips) == 0) {
+            return false;
+        }
+
+        boolean canReachGP = false;
+        for (Point move : Settings.getPossibleMoves()) {
+            Point newLoc = new Point(currLoc.x + move.x, currLoc.y + move.y);
+            if (isOnBoard(newLoc)) {
+                int tileColor = board.getTileColorNumber(newLoc);
+                if (chips[tileColor] > 0) {
+                    int[] newTokens = chips.clone();
+                    newTokens[tileColor] -= 1;
+                    canReachGP = canReachGP | canReachGP(newLoc, newTokens, goalLoc);
+                }
+            }
+        }
+        return canReachGP;
+    }
+
+    /**
+     * The utility function as computed by the original Game.calcUtilityFunction
+     *
+     * @param binMaxChips  All chips in the game as a bin
+     * @param goalPosition The goal position
+     * @return The score of every offer
+     */
+    int[] calcUtilityFunction(int[] binMaxChips, Point goalPosition) {
+        int numOffers = 1;
+        for (int maxChips : binMaxChips) {
+            numOffers *= maxChips + 1;
+        }
+        int[] utilityFunction = new int[numOffers];
+        for (int offerIdx = 0; offerIdx < utilityFunction.length; offerIdx++) {
+            int[] offer = Chips.getBins(offerIdx, binMaxChips);
+            utilityFunction[offerIdx] = calculateScore(Settings.STARTING_POSITION, offer, Settings.STARTING_POSITION, goalPosition);
+        }
+        return utilityFunction;
+    }
+
+    private boolean isOnBoard(Point loc) {
+        return (0 <= loc.x) && (loc.x < board.getBoardWidth()) && (0 <= loc.y) && (loc.y < board.getBoardHeight());
+    }
+}
@@ -0,0 +1,87 @@
+package lyingAgents.model.player;
+
+import lyingAgents.model.Game;
+import lyingAgents.utilities.ChipSpace;
+import lyingAgents.utilities.RandomSource;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The beliefs of the ToM0 model, which keeps the decreases of the color beliefs as exponents of (1 - learningSpeed),
+ * compared to the original model, which multiplied the belief of every offer by (1 - learningSpeed) for each decrease.
+ */
+class PlayerBeliefTest {
+
+    /**
+     * Moves of the longest negotiations among the seeds 0 to 299 of a game of ToM1 agents that can lie, recorded with
+     * the original model, in which Math.random was replaced by a seeded RandomSource
+     */
+    private static final String MOVES_LR_01_SEED_216 = "82/11,88/-1,34/-1,93/-1,49/-1,93/-1,47/-1,93/-1,32/-1,84/-1,"
+            + "47/-1,93/-1,49/-1,93/-1,47/-1,93/-1,49/-1,93/-1,47/-1,93/-1,49/4,93/-1,47/-1,93/-1,49/-1,93/1,47/-1,"
+            + "93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,"
+            + "47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,"
+            + "93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,47/-1,93/-1,"
+            + "47/-1,93/-1,47/-1,93/-1,47/-1,84/-1,47/-1,84/-1,47/-1,93/-1,47/-1,-3/-1";
+    private static final String MOVES_LR_03_SEED_149 = "78/-1,65/-1,57/-1,68/-1,57/-1,78/3,81/-1,65/-1,58/-1,78/-1,"
+            + "81/-1,78/-1,81/-1,78/-1,58/-1,78/-1,81/-1,78/-1,58/-1,78/-1,81/-1,78/-1,58/-1,78/-1,58/-1,78/-1,81/-1,"
+            + "78/-1,81/-1,78/-1,81/-1,-3/-1";
+
+    @Test
+    void longNegotiationsFollowOriginalModel() {
+        assertEquals(MOVES_LR_01_SEED_216, playToM1(0.1, 216));
+        assertEquals(MOVES_LR_03_SEED_149, playToM1(0.3, 149));
+    }
+
+    @Test
+    void messageDecreasesFollowPowerOfLearningSpeed() {
+        double learningSpeed = 0.9;
+        Game game = new Game(0, 0, learningSpeed, learningSpeed, false, false, false, false, new RandomSource(3));
+        Player player = game.getInitiator();
+        ChipSpace chipSpace = game.getChipSpace();
+        int location = 0;
+        int tileColor = game.getBoard().getTileColorNumber(game.getGoalPositionsDict().get(location));
+
+        double[] baseBeliefs = new double[chipSpace.getNumberOfOffers()];
+        for (int offer = 0; offer < baseBeliefs.length; offer++) {
+            baseBeliefs[offer] = player.getBeliefOffer(offer);
+        }
+        BigDecimal decrease = new BigDecimal(1 - learningSpeed);
+        // (1 - 0.9) to the power 400 is far below the smallest double
+        for (int exponent = 1; exponent <= 400; exponent++) {
+            player.decreaseColorBeliefMessage(location);
+            BigDecimal power = decrease.pow(exponent, MathContext.DECIMAL128);
+            for (int offer = 0; offer < baseBeliefs.length; offer++) {
+                double belief = player.getBeliefOffer(offer);
+                if (chipSpace.getChipCount(offer, tileColor) > 0) {
+                    assertEquals(baseBeliefs[offer], belief, 0.0);
+                    continue;
+                }
+                double expected = new BigDecimal(baseBeliefs[offer]).multiply(power).doubleValue();
+                // Relative to the belief, or one step of the smallest doubles once the belief is that small
+                double tolerance = Math.max(1e-12 * expected, Double.MIN_VALUE);
+                assertTrue(Math.abs(belief - expected) <= tolerance,
+                        "belief " + belief + " of offer " + offer + " after " + exponent + " decreases, expected " + expected);
+            }
+        }
+    }
+
+    private static String playToM1(double learningSpeed, long seed) {
+        Game game = new Game(1, 1, learningSpeed, learningSpeed, true, true, true, true, new RandomSource(seed));
+        game.setSimulationOff();
+        game.playTillEnd();
+        List<Integer> offers = game.getOfferHistory();
+        List<Integer> messages = game.getMessageHistory();
+        StringBuilder moves = new StringBuilder();
+        for (int move = 0; move < offers.size(); move++) {
+            if (move > 0) moves.append(',');
+            moves.append(offers.get(move)).append('/').append(messages.get(move));
+        }
+        return moves.toString();
+    }
+}
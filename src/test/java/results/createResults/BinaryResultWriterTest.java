@@ -0,0 +1,93 @@
+package results.createResults;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * When a binary results file is synced, and resuming it from a checkpoint when the process stopped after the results
+ * of a cell were synced but before the cell was marked as done in the checkpoint.
+ */
+class BinaryResultWriterTest {
+
+    private static final String[] HEADER = {"value", ResultSettings.cellIndex};
+
+    @TempDir
+    File directory;
+
+    @Test
+    void resumeAfterStopBetweenSyncAndCheckpoint() throws IOException {
+        File resultsFile = new File(directory, "results" + BinaryResultWriter.FILE_EXTENSION);
+        File journalFile = Checkpoint.getJournalFile(resultsFile);
+
+        Checkpoint checkpoint = Checkpoint.create(journalFile, 1, "test", 2, true, false, true, false);
+        BinaryResultWriter writer = new BinaryResultWriter(resultsFile, HEADER);
+        writer.append(new Object[]{10, 0});
+        writer.append(new Object[]{11, 0});
+        writer.sync();
+        checkpoint.markCompleted(0, writer.getLength());
+        writer.append(new Object[]{20, 1});
+        writer.append(new Object[]{21, 1});
+        writer.sync();
+        // The process stops here: cell 1 is in the file, but not in the checkpoint
+        checkpoint.close();
+
+        Checkpoint resumed = Checkpoint.resume(journalFile, "test", 2, true, false, true, false);
+        BinaryResultWriter resumedWriter = new BinaryResultWriter(resultsFile, HEADER, resumed.getResultsLength());
+        resumedWriter.append(new Object[]{30, 1});
+        resumedWriter.append(new Object[]{31, 1});
+        resumedWriter.close();
+        resumed.close();
+
+        BinaryResultReader reader = new BinaryResultReader(resultsFile);
+        try {
+            assertEquals(4, reader.getNumberOfRows());
+            int[] values = new int[4];
+            int[] cells = new int[4];
+            int row = 0;
+            for (int rowGroup = 0; rowGroup < reader.getNumberOfRowGroups(); rowGroup++) {
+                Object[] columns = reader.readRowGroup(rowGroup);
+                for (int i = 0; i < reader.getRowGroupSize(rowGroup); i++, row++) {
+                    values[row] = ((int[]) columns[0])[i];
+                    cells[row] = ((int[]) columns[1])[i];
+                }
+            }
+            assertArrayEquals(new int[]{10, 11, 30, 31}, values);
+            assertArrayEquals(new int[]{0, 0, 1, 1}, cells);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void syncIsDueOnlyForFullRowGroups() throws IOException {
+        File resultsFile = new File(directory, "results" + BinaryResultWriter.FILE_EXTENSION);
+        BinaryResultWriter writer = new BinaryResultWriter(resultsFile, HEADER);
+        for (int row = 0; row < ResultSettings.ROW_GROUP_SIZE - 1; row++) {
+            writer.append(new Object[]{row, row});
+            assertFalse(writer.isSyncDue());
+        }
+        writer.append(new Object[]{-1, ResultSettings.ROW_GROUP_SIZE - 1});
+        assertTrue(writer.isSyncDue());
+        writer.sync();
+        assertFalse(writer.isSyncDue());
+        writer.append(new Object[]{-2, ResultSettings.ROW_GROUP_SIZE});
+        writer.close();
+
+        BinaryResultReader reader = new BinaryResultReader(resultsFile);
+        try {
+            assertEquals(2, reader.getNumberOfRowGroups());
+            assertEquals(ResultSettings.ROW_GROUP_SIZE, reader.getRowGroupSize(0));
+            assertEquals(1, reader.getRowGroupSize(1));
+        } finally {
+            reader.close();
+        }
+    }
+}